@@ -0,0 +1,4 @@
+#!/bin/bash
+# Lets the db-replica service stream WAL from this server (runs only when the data volume is created).
+set -e
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
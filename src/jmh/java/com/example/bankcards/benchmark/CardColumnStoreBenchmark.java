@@ -0,0 +1,80 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.cache.CardColumnStore;
+import com.example.bankcards.dto.CardFilter;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.event.CardChangedEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admin card filter answered by {@link CardColumnStore}: a full scan of the columns plus top-k ordering of
+ * the first page. The SQL path it replaces needs a database and is measured with the load test instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardColumnStoreBenchmark {
+
+    private static final CardStatus[] STATUSES = CardStatus.values();
+
+    @Param({"100000", "1000000"})
+    private int cards;
+
+    private final CardFilter statusFilter = CardFilter.builder().status(CardStatus.ACTIVE).build();
+
+    private final CardFilter fullFilter = CardFilter.builder()
+                                                    .status(CardStatus.ACTIVE)
+                                                    .fromDate(LocalDate.of(2027, 1, 1))
+                                                    .toDate(LocalDate.of(2029, 12, 31))
+                                                    .minBalance(1_000L)
+                                                    .maxBalance(1_000_000L)
+                                                    .build();
+
+    private final Pageable firstPage = PageRequest.of(0, 20, Sort.by(Sort.Order.desc("balance")));
+
+    private CardColumnStore store;
+
+    @Setup
+    public void setUp() {
+        store = new CardColumnStore(cards);
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate base = LocalDate.of(2026, 1, 1);
+        for (long id = 1; id <= cards; id++) {
+            store.onCardChanged(new CardChangedEvent(id, random.nextLong(1, cards / 3 + 2), null,
+                                                     random.nextLong(0, 10_000_000), false,
+                                                     STATUSES[random.nextInt(STATUSES.length)],
+                                                     base.plusDays(random.nextInt(5 * 365))));
+        }
+    }
+
+    @Benchmark
+    public Page<Long> statusFilter() {
+        return store.findIds(statusFilter, firstPage);
+    }
+
+    @Benchmark
+    public Page<Long> allFilters() {
+        return store.findIds(fullFilter, firstPage);
+    }
+}
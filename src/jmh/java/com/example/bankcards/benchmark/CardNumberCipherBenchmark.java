@@ -0,0 +1,109 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.dto.CardResponse;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserRole;
+import com.example.bankcards.util.CardMapper;
+import com.example.bankcards.util.CardNumberCipher;
+import com.example.bankcards.util.CardNumberConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of card number encryption per card. {@code mapStoredCard} is what every card loaded as an entity now
+ * pays, the converter decrypting its number before it is mapped, against {@code mapPlainCard} without it;
+ * {@code createCardNumber} is the blind index and encryption of a new card. The contended variant shows
+ * whether the shared pool of ciphers becomes a bottleneck.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardNumberCipherBenchmark {
+
+    private static final String NUMBER = "4276 3800 1234 5678";
+
+    private final CardNumberCipher cipher = new CardNumberCipher(
+            "RhQVgeLx22qhuZon/HvcbGS8hHa46YJl6Zr0PbvYJ18=", "LK+WhX37hTHoCze/VUvOHolFB5oj5HFGFs6UgMDEG8I=");
+    private final CardNumberConverter converter = new CardNumberConverter(cipher);
+    private final CardMapper cardMapper = new CardMapper(null);
+
+    private String stored;
+    private User owner;
+
+    @Setup
+    public void setUp() {
+        stored = converter.convertToDatabaseColumn(NUMBER);
+        owner = User.builder()
+                    .id(1L)
+                    .name("Ivan Ivanov")
+                    .email("ivan@example.com")
+                    .role(UserRole.USER)
+                    .build();
+    }
+
+    @Benchmark
+    public CardResponse mapPlainCard() {
+        return cardMapper.toResponseDto(card(NUMBER));
+    }
+
+    @Benchmark
+    public CardResponse mapStoredCard() {
+        return cardMapper.toResponseDto(card(converter.convertToEntityAttribute(stored)));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public CardResponse mapStoredCardContended() {
+        return mapStoredCard();
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return cipher.encrypt(NUMBER);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return cipher.decrypt(stored);
+    }
+
+    @Benchmark
+    public String blindIndex() {
+        return cipher.blindIndex(NUMBER);
+    }
+
+    @Benchmark
+    public String createCardNumber() {
+        cipher.blindIndex(NUMBER);
+        return cipher.encrypt(NUMBER);
+    }
+
+    private Card card(String number) {
+        return Card.builder()
+                   .id(1L)
+                   .number(number)
+                   .last4(Card.last4Of(number))
+                   .owner(owner)
+                   .expiryDate(LocalDate.of(2028, 12, 31))
+                   .status(CardStatus.ACTIVE)
+                   .balance(100_000L)
+                   .build();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.dto.CardFilter;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.repository.specification.CardSpecification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Composition of the card list {@link Specification} as done by {@code CardService} on every request.
+ * Translating the result into SQL needs a running {@code EntityManager} and is not measured here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardSpecificationBenchmark {
+
+    private final CardFilter emptyFilter = CardFilter.builder().build();
+
+    private final CardFilter fullFilter = CardFilter.builder()
+                                                    .status(CardStatus.ACTIVE)
+                                                    .fromDate(LocalDate.of(2025, 1, 1))
+                                                    .toDate(LocalDate.of(2030, 12, 31))
+                                                    .minBalance(1_000L)
+                                                    .maxBalance(1_000_000L)
+                                                    .build();
+
+    @Benchmark
+    public Specification<Card> ownerWithoutFilter() {
+        return CardSpecification.matching(CardSpecification.belongsToUser(1L), emptyFilter);
+    }
+
+    @Benchmark
+    public Specification<Card> ownerWithAllFilters() {
+        return CardSpecification.matching(CardSpecification.belongsToUser(1L), fullFilter);
+    }
+}
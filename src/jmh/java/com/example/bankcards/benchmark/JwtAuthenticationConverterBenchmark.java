@@ -0,0 +1,76 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserRole;
+import com.example.bankcards.metrics.BankcardsMetrics;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.UserService;
+import com.example.bankcards.util.UserJwtAuthenticationConverter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of turning a decoded JWT into an authentication, including the metrics timer around it. The user
+ * lookup is answered from memory, so the database round trip the real converter makes is not included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationConverterBenchmark {
+
+    private UserJwtAuthenticationConverter converter;
+    private Jwt jwt;
+
+    @Setup
+    public void setUp() {
+        User user = User.builder()
+                        .id(1L)
+                        .name("Ivan Ivanov")
+                        .email("ivan@example.com")
+                        .role(UserRole.USER)
+                        .build();
+        Optional<User> found = Optional.of(user);
+        UserRepository userRepository = (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findById")) {
+                        return found;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        converter = new UserJwtAuthenticationConverter(new UserService(userRepository, null, null, null, null),
+                                                       new BankcardsMetrics(new SimpleMeterRegistry()));
+        jwt = Jwt.withTokenValue("token")
+                 .header("alg", "RS256")
+                 .subject("1")
+                 .issuedAt(Instant.now())
+                 .expiresAt(Instant.now().plusSeconds(3600))
+                 .build();
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convert() {
+        return converter.convert(jwt);
+    }
+}
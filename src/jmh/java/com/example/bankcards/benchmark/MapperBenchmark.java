@@ -0,0 +1,88 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.dto.CardResponse;
+import com.example.bankcards.dto.TransactionResponse;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.Transaction;
+import com.example.bankcards.entity.TransactionStatus;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserRole;
+import com.example.bankcards.util.CardMapper;
+import com.example.bankcards.util.TransactionMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping on the card read and transfer paths. Neither mapper touches the repository it is
+ * given while mapping to a response, so none is provided.
+ * <p>
+ * Run with {@code -prof gc} to see the allocation rate; {@link TransactionMapper#toResponse} creates a
+ * {@link CardMapper} and two full {@link CardResponse}s per call just to mask two numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final CardMapper cardMapper = new CardMapper(null);
+    private final TransactionMapper transactionMapper = new TransactionMapper();
+
+    private Card card;
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        User owner = User.builder()
+                         .id(1L)
+                         .name("Ivan Ivanov")
+                         .email("ivan@example.com")
+                         .role(UserRole.USER)
+                         .build();
+        card = card(1L, "4276380012345678", owner);
+        transaction = Transaction.builder()
+                                 .fromCard(card)
+                                 .toCard(card(2L, "4276380087654321", owner))
+                                 .amount(10_000L)
+                                 .timestamp(LocalDateTime.of(2025, 7, 22, 12, 0))
+                                 .status(TransactionStatus.COMPLETED)
+                                 .build();
+    }
+
+    @Benchmark
+    public CardResponse cardToResponse() {
+        return cardMapper.toResponseDto(card);
+    }
+
+    @Benchmark
+    public TransactionResponse transactionToResponse() {
+        return transactionMapper.toResponse(transaction, null);
+    }
+
+    private static Card card(long id, String number, User owner) {
+        return Card.builder()
+                   .id(id)
+                   .number(number)
+                   .last4(Card.last4Of(number))
+                   .owner(owner)
+                   .expiryDate(LocalDate.of(2028, 12, 31))
+                   .status(CardStatus.ACTIVE)
+                   .balance(100_000L)
+                   .build();
+    }
+}
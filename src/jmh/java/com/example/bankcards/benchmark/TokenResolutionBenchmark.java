@@ -0,0 +1,78 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.metrics.BankcardsMetrics;
+import com.example.bankcards.service.TokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token to card id resolution on a warm {@link TokenService} cache holding {@code TOKENS} tokens, visited in
+ * random order; the vault is an in-memory map that is only read while warming up. A cache miss costs one
+ * primary key lookup in {@code card_tokens}, which needs a database and is not measured here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenResolutionBenchmark {
+
+    private static final int TOKENS = 100_000;
+
+    private final Map<String, Long> vault = new HashMap<>();
+    private final String[] tokens = new String[TOKENS];
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    private TokenService tokenService;
+
+    @Setup
+    public void setUp() {
+        NamedParameterJdbcTemplate jdbcTemplate = new NamedParameterJdbcTemplate(new JdbcTemplate()) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> List<T> queryForList(String sql, Map<String, ?> params, Class<T> type) {
+                Long cardId = vault.get((String) params.get("token"));
+                return cardId == null ? List.of() : List.of((T) cardId);
+            }
+        };
+        tokenService = new TokenService(jdbcTemplate, new BankcardsMetrics(new SimpleMeterRegistry()), TOKENS, TOKENS);
+
+        for (int i = 0; i < TOKENS; i++) {
+            byte[] bytes = new byte[16];
+            random.nextBytes(bytes);
+            tokens[i] = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+            vault.put(tokens[i], (long) i + 1);
+            tokenService.resolve(tokens[i]);
+        }
+    }
+
+    @Benchmark
+    public long resolve() {
+        return tokenService.resolve(tokens[random.nextInt(TOKENS)]);
+    }
+
+    @Benchmark
+    public long vaultLookup() {
+        // Baseline: the same random lookup in a plain HashMap.
+        return vault.get(tokens[random.nextInt(TOKENS)]);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.bankcards.cache;
+
+import com.example.bankcards.config.ReplicaRoutingDataSource;
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.exception.NotFoundException;
+import com.example.bankcards.repository.CardRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded card id to balance cache for the balance polling endpoint.
+ * <p>
+ * A direct-mapped table of primitive arrays: every card id hashes to exactly one slot and a newer card
+ * simply overwrites the previous occupant, so memory is fixed at startup. Entries also expire after a
+ * short TTL to bound staleness when balances are changed outside this service. Misses are served by a
+ * single-column query. Card writes refresh their slot after commit through {@link CardChangedEvent}.
+ */
+@Component
+public class CardBalanceCache {
+
+    private static final long EMPTY = 0;
+
+    private final CardRepository cardRepository;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    private final long[] keys;
+    private final long[] balances;
+    private final long[] writtenAt;
+    private final int mask;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Bumped on every invalidation; a loader only stores its result if no write raced with the query.
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public CardBalanceCache(CardRepository cardRepository,
+                            @Value("${application.balance-cache.capacity:65536}") int capacity,
+                            @Value("${application.balance-cache.ttl:5s}") Duration ttl) {
+        this(cardRepository, capacity, ttl, System::nanoTime);
+    }
+
+    CardBalanceCache(CardRepository cardRepository, int capacity, Duration ttl, LongSupplier clock) {
+        int size = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+        this.cardRepository = cardRepository;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.keys = new long[size];
+        this.balances = new long[size];
+        this.writtenAt = new long[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * @throws NotFoundException when the card does not exist
+     */
+    public long getBalance(long cardId) {
+        int slot = slot(cardId);
+        long now = clock.getAsLong();
+
+        lock.readLock().lock();
+        try {
+            if (keys[slot] == cardId && now - writtenAt[slot] < ttlNanos) {
+                hits.incrementAndGet();
+                return balances[slot];
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        misses.incrementAndGet();
+        long stamp = invalidations.get();
+        long balance = cardRepository.findBalanceById(cardId)
+                                     .orElseThrow(() -> new NotFoundException("Card with id " + cardId + " not found"));
+
+        lock.writeLock().lock();
+        try {
+            if (invalidations.get() == stamp && !ReplicaRoutingDataSource.isReplicaTransaction()) {
+                store(slot, cardId, balance, now);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        return balance;
+    }
+
+    public void put(long cardId, long balance) {
+        lock.writeLock().lock();
+        try {
+            invalidations.incrementAndGet();
+            store(slot(cardId), cardId, balance, clock.getAsLong());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void evict(long cardId) {
+        int slot = slot(cardId);
+        lock.writeLock().lock();
+        try {
+            invalidations.incrementAndGet();
+            if (keys[slot] == cardId) {
+                keys[slot] = EMPTY;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCardChanged(CardChangedEvent event) {
+        if (event.isDeleted()) {
+            evict(event.getCardId());
+        } else {
+            put(event.getCardId(), event.getBalance());
+        }
+    }
+
+    private void store(int slot, long cardId, long balance, long now) {
+        keys[slot] = cardId;
+        balances[slot] = balance;
+        writtenAt[slot] = now;
+    }
+
+    private int slot(long cardId) {
+        long hash = cardId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.bankcards.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/**
+ * Reads {@code card_changes}, the ids of cards written per transaction, filled by triggers on {@code cards}.
+ * <p>
+ * Positions in the log are transaction ids. A marker taken with {@link #currentMarker()} is the oldest
+ * transaction still running at that moment: everything older has finished, and every transaction that
+ * commits later is at or above the marker, so {@link #changedSince(long, RowCallbackHandler)} returns every
+ * card changed after the marker was taken. Entries older than {@code change-retention} are pruned.
+ * <p>
+ * The triggers are only enabled while {@code application.card-read-model.enabled} is set; migrations enable
+ * or disable them on start and record in {@code card_changes_state} the transaction that last enabled them.
+ * Markers taken before that have a gap behind them, see {@link #isReplayableSince(long)}.
+ */
+@Slf4j
+@Component
+public class CardChangeLog {
+
+    static final String MARKER_SQL = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint";
+
+    /**
+     * Current state of each changed card in the column order of the full card load; a deleted card comes
+     * back with a {@code null} status.
+     */
+    static final String CHANGED_SQL = """
+            SELECT changed.card_id, c.status, c.balance, c.expiry_date, c.owner_id
+            FROM (SELECT DISTINCT card_id FROM card_changes WHERE change_xid >= ?) changed
+            LEFT JOIN cards c ON c.id = changed.card_id""";
+
+    static final String ENABLED_SINCE_SQL = "SELECT enabled_since_xid FROM card_changes_state";
+
+    static final String PRUNE_SQL = "DELETE FROM card_changes WHERE changed_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration retention;
+
+    public CardChangeLog(JdbcTemplate jdbcTemplate,
+                         @Value("${application.card-read-model.change-retention:2d}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retention = retention;
+    }
+
+    /**
+     * How long changes stay replayable; older snapshots must not be replayed.
+     */
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public long currentMarker() {
+        Long marker = jdbcTemplate.queryForObject(MARKER_SQL, Long.class);
+        return marker == null ? 0 : marker;
+    }
+
+    /**
+     * Whether every card change since {@code marker} is in the log: the triggers are enabled and have been
+     * since before the marker was taken.
+     */
+    public boolean isReplayableSince(long marker) {
+        Long enabledSince = jdbcTemplate.queryForObject(ENABLED_SINCE_SQL, Long.class);
+        return enabledSince != null && marker >= enabledSince;
+    }
+
+    public void changedSince(long marker, RowCallbackHandler handler) {
+        jdbcTemplate.query(CHANGED_SQL, handler, marker);
+    }
+
+    // Runs on every node; where the read model is disabled the triggers are off and the log stays empty.
+    @Scheduled(cron = "${application.card-read-model.change-prune-cron:0 15 * * * *}")
+    public void prune() {
+        int pruned = jdbcTemplate.update(PRUNE_SQL, OffsetDateTime.now().minus(retention));
+        if (pruned > 0) {
+            log.info("Pruned {} card changes older than {}", pruned, retention);
+        }
+    }
+}
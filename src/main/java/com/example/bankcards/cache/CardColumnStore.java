@@ -0,0 +1,758 @@
+package com.example.bankcards.cache;
+
+import com.example.bankcards.dto.CardFilter;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.event.UserDeletedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Optional column-oriented copy of the card attributes the admin filters use, enabled with
+ * {@code application.card-read-model.enabled}.
+ * <p>
+ * Each card occupies one slot across parallel primitive arrays: status ordinal as {@code byte}, balance,
+ * expiry date as epoch day and owner id. A {@link CardFilter} is answered by a parallel scan over the
+ * arrays; only the ids of the requested page leave the store, and the caller loads those rows from the
+ * database. Slots of deleted cards are tombstoned and not reused.
+ * <p>
+ * The arrays are filled in the background once the application is ready and kept up to date from
+ * {@link CardChangedEvent}s. Until then {@link #isReady()} is {@code false}, callers use SQL and the
+ * readiness probe reports the store as out of service. Local events only cover this node's writes, so every
+ * {@code catch-up-interval} the cards changed since a {@link CardChangeLog} marker, by any node or behind the
+ * services' back, are read again from the database; the marker only advances past changes applied that way.
+ * When {@code snapshot.path} is set, the columns are written to that file periodically and on shutdown
+ * together with the marker; a restart maps the file, bulk-copies the columns and replays only the cards
+ * changed since the marker instead of reading the whole table.
+ */
+@Slf4j
+@Component
+public class CardColumnStore {
+
+    /**
+     * Sort properties answerable from the columns.
+     */
+    private static final Set<String> SORTABLE = Set.of("id", "status", "balance", "expiryDate");
+
+    private static final byte TOMBSTONE = -1;
+    private static final int NO_EXPIRY = Integer.MIN_VALUE;
+    private static final String LOAD_SQL = "SELECT id, status, balance, expiry_date, owner_id FROM cards";
+
+    /**
+     * Snapshot layout: a header of magic, version, marker, marker time and card count, followed by the
+     * id, balance, owner, expiry day and status columns of the live cards, little-endian.
+     */
+    private static final int SNAPSHOT_MAGIC = 0x42435253;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER_BYTES = 32;
+    private static final int SNAPSHOT_BYTES_PER_CARD = 3 * Long.BYTES + Integer.BYTES + Byte.BYTES;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CardChangeLog changeLog;
+    private final boolean enabled;
+    private final int initialCapacity;
+    private final Path snapshotPath;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Guards the markers and the snapshot file. Not {@code synchronized}: a virtual thread blocked in file
+     * I/O inside a monitor pins its carrier.
+     */
+    private final Lock snapshotLock = new ReentrantLock();
+
+    private LongLongHashMap slots;
+    private long[] ids;
+    private byte[] statuses;
+    private long[] balances;
+    private int[] expiryDays;
+    private long[] owners;
+    private int size;
+    private int live;
+    private volatile boolean ready;
+
+    /**
+     * Cards and owners touched by events while a load runs; the rows being loaded for them may be older.
+     * {@code null} once the store is ready.
+     */
+    private LongLongHashMap changedWhileLoading = new LongLongHashMap();
+    private LongLongHashMap ownersDeletedWhileLoading = new LongLongHashMap();
+
+    /**
+     * Every transaction below {@code marker} is reflected in the columns. {@code pendingMarker} is taken at
+     * one catch-up and trusted after the next, which re-reads the cards changed since {@code marker} and so
+     * also repairs a local event applied after a newer row had been read.
+     */
+    private long marker;
+    private Instant markerTime = Instant.EPOCH;
+    private long pendingMarker = -1;
+    private Instant pendingMarkerTime;
+
+    @Autowired
+    public CardColumnStore(JdbcTemplate jdbcTemplate,
+                           CardChangeLog changeLog,
+                           @Value("${application.card-read-model.enabled:false}") boolean enabled,
+                           @Value("${application.card-read-model.initial-capacity:1024}") int initialCapacity,
+                           @Value("${application.card-read-model.snapshot.path:}") String snapshotPath) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeLog = changeLog;
+        this.enabled = enabled;
+        this.initialCapacity = enabled ? initialCapacity : 0;
+        this.snapshotPath = snapshotPath == null || snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+        replaceColumns(new long[this.initialCapacity], new byte[this.initialCapacity], new long[this.initialCapacity],
+                       new int[this.initialCapacity], new long[this.initialCapacity], 0);
+    }
+
+    /**
+     * Store without a database, filled only through events; ready immediately.
+     */
+    public CardColumnStore(int initialCapacity) {
+        this(null, null, true, initialCapacity, null);
+        finishLoading();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Whether pages sorted this way can be answered from the columns.
+     */
+    public boolean supports(Sort sort) {
+        return sort.stream().allMatch(order -> SORTABLE.contains(order.getProperty()));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the cards matching {@code filter} on the requested page, in page order, with the total count.
+     * Ties and unsorted pages are ordered by id.
+     */
+    public Page<Long> findIds(CardFilter filter, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            int[] matches = scan(filter == null ? CardFilter.builder().build() : filter);
+
+            if (pageable.isUnpaged()) {
+                int[] ordered = topK(matches, matches.length, pageable.getSort());
+                return new PageImpl<>(toIds(ordered, 0, ordered.length), pageable, matches.length);
+            }
+
+            long offset = pageable.getOffset();
+            if (offset >= matches.length) {
+                return new PageImpl<>(List.of(), pageable, matches.length);
+            }
+            int end = (int) Math.min(matches.length, offset + pageable.getPageSize());
+            int[] top = topK(matches, end, pageable.getSort());
+            return new PageImpl<>(toIds(top, (int) offset, end), pageable, matches.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled || ready) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean restored = snapshotPath != null && Files.exists(snapshotPath) && restore();
+        if (!restored) {
+            loadAll();
+        }
+        finishLoading();
+        log.info("Card read model {} {} cards in {} ms", restored ? "restored" : "loaded", size(),
+                 (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Writes the snapshot with the marker trusted by the last catch-up.
+     */
+    @Scheduled(initialDelayString = "${application.card-read-model.snapshot.interval:PT5M}",
+               fixedDelayString = "${application.card-read-model.snapshot.interval:PT5M}")
+    public void scheduledSnapshot() {
+        if (!ready || snapshotPath == null) {
+            return;
+        }
+        writeSnapshotQuietly();
+    }
+
+    /**
+     * Applies the cards changed since the trusted marker from {@code card_changes}, whichever node changed
+     * them, and trusts the marker the previous catch-up took.
+     */
+    @Scheduled(initialDelayString = "${application.card-read-model.catch-up-interval:PT30S}",
+               fixedDelayString = "${application.card-read-model.catch-up-interval:PT30S}")
+    public void catchUp() {
+        if (!ready || changeLog == null) {
+            return;
+        }
+        snapshotLock.lock();
+        try {
+            long next = changeLog.currentMarker();
+            Instant nextTime = Instant.now();
+            changeLog.changedSince(marker, this::putLoaded);
+            if (pendingMarker >= 0) {
+                marker = pendingMarker;
+                markerTime = pendingMarkerTime;
+            }
+            pendingMarker = next;
+            pendingMarkerTime = nextTime;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        if (ready && snapshotPath != null) {
+            writeSnapshotQuietly();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCardChanged(CardChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (changedWhileLoading != null) {
+                changedWhileLoading.put(event.getCardId(), 1);
+            }
+            if (event.isDeleted()) {
+                tombstone(slotOf(event.getCardId()));
+                return;
+            }
+            write(liveSlot(event.getCardId()), event.getStatus(), event.getBalance(), event.getExpiryDate(),
+                  event.getOwnerId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (ownersDeletedWhileLoading != null) {
+                ownersDeletedWhileLoading.put(event.getUserId(), 1);
+            }
+            for (int slot = 0; slot < size; slot++) {
+                if (owners[slot] == event.getUserId()) {
+                    tombstone(slot);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the live cards to {@code path} with the given marker: mapped per column, filled under the read
+     * lock, flushed after it is released and moved into place atomically.
+     */
+    void writeSnapshot(Path path, long marker, Instant markerTime) throws IOException {
+        snapshotLock.lock();
+        try {
+            writeSnapshotFile(path, marker, markerTime);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private void writeSnapshotFile(Path path, long marker, Instant markerTime) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        List<MappedByteBuffer> mappings = new ArrayList<>(6);
+        int count;
+        try (FileChannel channel = FileChannel.open(temporary, CREATE, TRUNCATE_EXISTING, READ, WRITE)) {
+            lock.readLock().lock();
+            try {
+                count = live;
+                ByteBuffer header = map(channel, MapMode.READ_WRITE, 0, SNAPSHOT_HEADER_BYTES, mappings);
+                header.putInt(SNAPSHOT_MAGIC)
+                      .putInt(SNAPSHOT_VERSION)
+                      .putLong(marker)
+                      .putLong(markerTime.toEpochMilli())
+                      .putInt(count);
+
+                long offset = SNAPSHOT_HEADER_BYTES;
+                var idColumn = map(channel, MapMode.READ_WRITE, offset, (long) count * Long.BYTES, mappings).asLongBuffer();
+                offset += (long) count * Long.BYTES;
+                var balanceColumn = map(channel, MapMode.READ_WRITE, offset, (long) count * Long.BYTES, mappings).asLongBuffer();
+                offset += (long) count * Long.BYTES;
+                var ownerColumn = map(channel, MapMode.READ_WRITE, offset, (long) count * Long.BYTES, mappings).asLongBuffer();
+                offset += (long) count * Long.BYTES;
+                var expiryColumn = map(channel, MapMode.READ_WRITE, offset, (long) count * Integer.BYTES, mappings).asIntBuffer();
+                offset += (long) count * Integer.BYTES;
+                var statusColumn = map(channel, MapMode.READ_WRITE, offset, count, mappings);
+
+                if (count == size) {
+                    idColumn.put(ids, 0, count);
+                    balanceColumn.put(balances, 0, count);
+                    ownerColumn.put(owners, 0, count);
+                    expiryColumn.put(expiryDays, 0, count);
+                    statusColumn.put(statuses, 0, count);
+                } else {
+                    for (int slot = 0; slot < size; slot++) {
+                        if (statuses[slot] != TOMBSTONE) {
+                            idColumn.put(ids[slot]);
+                            balanceColumn.put(balances[slot]);
+                            ownerColumn.put(owners[slot]);
+                            expiryColumn.put(expiryDays[slot]);
+                            statusColumn.put(statuses[slot]);
+                        }
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            for (MappedByteBuffer mapping : mappings) {
+                mapping.force();
+            }
+        }
+        Files.move(temporary, path, ATOMIC_MOVE, REPLACE_EXISTING);
+        log.info("Card snapshot of {} cards written to {}", count, path);
+    }
+
+    /**
+     * Replaces the columns with the snapshot at {@code path}.
+     *
+     * @return the snapshot's header, or {@code null} when the snapshot is older than {@code notBefore} and
+     * was not read
+     */
+    SnapshotHeader readSnapshot(Path path, Instant notBefore) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            if (channel.size() < SNAPSHOT_HEADER_BYTES) {
+                throw new IOException("Card snapshot " + path + " has no header");
+            }
+            ByteBuffer header = map(channel, MapMode.READ_ONLY, 0, SNAPSHOT_HEADER_BYTES, null);
+            if (header.getInt() != SNAPSHOT_MAGIC || header.getInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Card snapshot " + path + " has an unknown format");
+            }
+            SnapshotHeader snapshot = new SnapshotHeader(header.getLong(), Instant.ofEpochMilli(header.getLong()),
+                                                         header.getInt());
+            if (channel.size() != SNAPSHOT_HEADER_BYTES + (long) snapshot.count() * SNAPSHOT_BYTES_PER_CARD) {
+                throw new IOException("Card snapshot " + path + " is truncated");
+            }
+            if (snapshot.markerTime().isBefore(notBefore)) {
+                return null;
+            }
+
+            int count = snapshot.count();
+            int capacity = Math.max(initialCapacity, count + count / 4);
+            long[] snapshotIds = new long[capacity];
+            long[] snapshotBalances = new long[capacity];
+            long[] snapshotOwners = new long[capacity];
+            int[] snapshotExpiryDays = new int[capacity];
+            byte[] snapshotStatuses = new byte[capacity];
+
+            long offset = SNAPSHOT_HEADER_BYTES;
+            map(channel, MapMode.READ_ONLY, offset, (long) count * Long.BYTES, null).asLongBuffer().get(snapshotIds, 0, count);
+            offset += (long) count * Long.BYTES;
+            map(channel, MapMode.READ_ONLY, offset, (long) count * Long.BYTES, null).asLongBuffer().get(snapshotBalances, 0, count);
+            offset += (long) count * Long.BYTES;
+            map(channel, MapMode.READ_ONLY, offset, (long) count * Long.BYTES, null).asLongBuffer().get(snapshotOwners, 0, count);
+            offset += (long) count * Long.BYTES;
+            map(channel, MapMode.READ_ONLY, offset, (long) count * Integer.BYTES, null).asIntBuffer().get(snapshotExpiryDays, 0, count);
+            offset += (long) count * Integer.BYTES;
+            map(channel, MapMode.READ_ONLY, offset, count, null).get(snapshotStatuses, 0, count);
+
+            replaceColumns(snapshotIds, snapshotStatuses, snapshotBalances, snapshotExpiryDays, snapshotOwners, count);
+            return snapshot;
+        }
+    }
+
+    private boolean restore() {
+        try {
+            SnapshotHeader snapshot = readSnapshot(snapshotPath, Instant.now().minus(changeLog.getRetention()));
+            if (snapshot == null) {
+                log.info("Card snapshot {} is older than the change retention, loading all cards", snapshotPath);
+                return false;
+            }
+            if (!changeLog.isReplayableSince(snapshot.marker())) {
+                log.info("Card changes were not recorded throughout since snapshot {}, loading all cards", snapshotPath);
+                return false;
+            }
+            long current = changeLog.currentMarker();
+            Instant currentTime = Instant.now();
+            changeLog.changedSince(snapshot.marker(), this::putLoaded);
+            setMarker(current, currentTime);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not restore card snapshot {}, loading all cards", snapshotPath, e);
+            return false;
+        }
+    }
+
+    private void loadAll() {
+        replaceColumns(new long[initialCapacity], new byte[initialCapacity], new long[initialCapacity],
+                       new int[initialCapacity], new long[initialCapacity], 0);
+        long current = changeLog == null ? 0 : changeLog.currentMarker();
+        Instant currentTime = Instant.now();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            // Stream the table instead of materializing it; PostgreSQL only uses a cursor inside a transaction.
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(LOAD_SQL)) {
+                statement.setFetchSize(10_000);
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        putLoaded(rows);
+                    }
+                }
+                connection.commit();
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+        setMarker(current, currentTime);
+    }
+
+    /**
+     * Applies a loaded or replayed row, {@code id, status, balance, expiry_date, owner_id}, unless an event
+     * about that card or its owner arrived during the load; the event is newer. A {@code null} status is
+     * a deleted card.
+     */
+    private void putLoaded(ResultSet row) throws SQLException {
+        long cardId = row.getLong(1);
+        String status = row.getString(2);
+        long balance = row.getLong(3);
+        Date expiryDate = row.getDate(4);
+        Long ownerId = row.getObject(5, Long.class);
+
+        lock.writeLock().lock();
+        try {
+            if (changedWhileLoading != null && (changedWhileLoading.containsKey(cardId)
+                    || (ownerId != null && ownersDeletedWhileLoading.containsKey(ownerId)))) {
+                return;
+            }
+            if (status == null) {
+                tombstone(slotOf(cardId));
+                return;
+            }
+            write(liveSlot(cardId), CardStatus.valueOf(status), balance,
+                  expiryDate == null ? null : expiryDate.toLocalDate(), ownerId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Swaps in new columns; events seen so far are superseded, the rows loaded next are at least as new.
+     */
+    private void replaceColumns(long[] ids, byte[] statuses, long[] balances, int[] expiryDays, long[] owners,
+                                int size) {
+        LongLongHashMap slots = new LongLongHashMap(Math.max(16, ids.length));
+        for (int slot = 0; slot < size; slot++) {
+            slots.put(ids[slot], slot);
+        }
+        lock.writeLock().lock();
+        try {
+            this.slots = slots;
+            this.ids = ids;
+            this.statuses = statuses;
+            this.balances = balances;
+            this.expiryDays = expiryDays;
+            this.owners = owners;
+            this.size = size;
+            this.live = size;
+            this.changedWhileLoading = new LongLongHashMap();
+            this.ownersDeletedWhileLoading = new LongLongHashMap();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void finishLoading() {
+        lock.writeLock().lock();
+        try {
+            changedWhileLoading = null;
+            ownersDeletedWhileLoading = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setMarker(long marker, Instant markerTime) {
+        snapshotLock.lock();
+        try {
+            this.marker = marker;
+            this.markerTime = markerTime;
+            this.pendingMarker = -1;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private void writeSnapshotQuietly() {
+        snapshotLock.lock();
+        try {
+            writeSnapshotFile(snapshotPath, marker, markerTime);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write card snapshot {}", snapshotPath, e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, MapMode mode, long offset, long bytes,
+                                  List<MappedByteBuffer> mappings) throws IOException {
+        MappedByteBuffer mapping = channel.map(mode, offset, bytes);
+        if (mappings != null) {
+            mappings.add(mapping);
+        }
+        return mapping.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private int[] scan(CardFilter filter) {
+        byte status = filter.getStatus() == null ? TOMBSTONE : (byte) filter.getStatus().ordinal();
+        int fromDay = filter.getFromDate() == null ? Integer.MIN_VALUE : (int) filter.getFromDate().toEpochDay();
+        int toDay = filter.getToDate() == null ? Integer.MAX_VALUE : (int) filter.getToDate().toEpochDay();
+        boolean dateFiltered = filter.getFromDate() != null || filter.getToDate() != null;
+        long minBalance = filter.getMinBalance() == null ? Long.MIN_VALUE : filter.getMinBalance();
+        long maxBalance = filter.getMaxBalance() == null ? Long.MAX_VALUE : filter.getMaxBalance();
+        Long ownerId = filter.getOwnerId();
+
+        byte[] statuses = this.statuses;
+        long[] balances = this.balances;
+        int[] expiryDays = this.expiryDays;
+        long[] owners = this.owners;
+
+        return IntStream.range(0, size).parallel().filter(slot -> {
+            byte cardStatus = statuses[slot];
+            if (cardStatus == TOMBSTONE || (status != TOMBSTONE && cardStatus != status)) {
+                return false;
+            }
+            long balance = balances[slot];
+            if (balance < minBalance || balance > maxBalance) {
+                return false;
+            }
+            if (ownerId != null && owners[slot] != ownerId) {
+                return false;
+            }
+            int day = expiryDays[slot];
+            // Like SQL, a missing expiry date never satisfies a date bound.
+            return !dateFiltered || (day != NO_EXPIRY && day >= fromDay && day <= toDay);
+        }).toArray();
+    }
+
+    /**
+     * The first {@code k} of {@code matches} in sort order, sorted; a bounded heap keeps this
+     * {@code O(n log k)} for the small pages the API serves.
+     */
+    private int[] topK(int[] matches, int k, Sort sort) {
+        if (k == 0) {
+            return new int[0];
+        }
+        SlotComparator comparator = comparator(sort);
+        int[] heap = new int[k];
+        int heapSize = 0;
+
+        for (int slot : matches) {
+            if (heapSize < k) {
+                heap[heapSize] = slot;
+                siftUp(heap, heapSize++, comparator);
+            } else if (comparator.compare(slot, heap[0]) < 0) {
+                heap[0] = slot;
+                siftDown(heap, heapSize, comparator);
+            }
+        }
+
+        int[] sorted = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            sorted[i] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, comparator);
+        }
+        return sorted;
+    }
+
+    /**
+     * Max-heap on the comparator, so the root is the worst of the best {@code k} seen so far.
+     */
+    private static void siftUp(int[] heap, int index, SlotComparator comparator) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (comparator.compare(slot, heap[parent]) <= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = slot;
+    }
+
+    private static void siftDown(int[] heap, int size, SlotComparator comparator) {
+        if (size == 0) {
+            return;
+        }
+        int slot = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && comparator.compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (comparator.compare(heap[child], slot) <= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = slot;
+    }
+
+    private SlotComparator comparator(Sort sort) {
+        SlotComparator comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            SlotComparator property = switch (order.getProperty()) {
+                case "id" -> (a, b) -> Long.compare(ids[a], ids[b]);
+                case "status" -> (a, b) -> Integer.compare(statuses[a], statuses[b]);
+                case "balance" -> (a, b) -> Long.compare(balances[a], balances[b]);
+                case "expiryDate" -> (a, b) -> Integer.compare(expiryDays[a], expiryDays[b]);
+                default -> throw new IllegalArgumentException("Unsupported sort property " + order.getProperty());
+            };
+            SlotComparator directed = order.isAscending() ? property : (a, b) -> property.compare(b, a);
+            SlotComparator previous = comparator;
+            comparator = (a, b) -> {
+                int result = previous.compare(a, b);
+                return result != 0 ? result : directed.compare(a, b);
+            };
+        }
+        SlotComparator sorted = comparator;
+        return (a, b) -> {
+            int result = sorted.compare(a, b);
+            return result != 0 ? result : Long.compare(ids[a], ids[b]);
+        };
+    }
+
+    private List<Long> toIds(int[] slots, int from, int to) {
+        Long[] page = new Long[to - from];
+        for (int i = from; i < to; i++) {
+            page[i - from] = ids[slots[i]];
+        }
+        return Arrays.asList(page);
+    }
+
+
+    private int slotOf(long cardId) {
+        long slot = slots.get(cardId);
+        return slot == LongLongHashMap.MISSING ? -1 : (int) slot;
+    }
+
+    /**
+     * Slot of the card, appended or revived from a tombstone if needed.
+     */
+    private int liveSlot(long cardId) {
+        int slot = slotOf(cardId);
+        if (slot < 0) {
+            if (size == ids.length) {
+                grow();
+            }
+            slot = size++;
+            ids[slot] = cardId;
+            slots.put(cardId, slot);
+            live++;
+        } else if (statuses[slot] == TOMBSTONE) {
+            live++;
+        }
+        return slot;
+    }
+
+    private void tombstone(int slot) {
+        if (slot >= 0 && statuses[slot] != TOMBSTONE) {
+            statuses[slot] = TOMBSTONE;
+            live--;
+        }
+    }
+
+    private void write(int slot, CardStatus status, long balance, LocalDate expiryDate, Long ownerId) {
+        statuses[slot] = (byte) (status == null ? CardStatus.INACTIVE : status).ordinal();
+        balances[slot] = balance;
+        expiryDays[slot] = expiryDate == null ? NO_EXPIRY : (int) expiryDate.toEpochDay();
+        owners[slot] = ownerId == null ? 0 : ownerId;
+    }
+
+    private void grow() {
+        int capacity = Math.max(1024, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        balances = Arrays.copyOf(balances, capacity);
+        expiryDays = Arrays.copyOf(expiryDays, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+    }
+
+    record SnapshotHeader(long marker, Instant markerTime, int count) {
+    }
+
+    @FunctionalInterface
+    private interface SlotComparator {
+
+        int compare(int a, int b);
+    }
+}
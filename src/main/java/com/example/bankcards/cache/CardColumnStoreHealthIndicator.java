@@ -0,0 +1,33 @@
+package com.example.bankcards.cache;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Part of the readiness group: a node with the card read model enabled takes traffic only once the
+ * columns are loaded, which after a restart from a snapshot takes seconds.
+ */
+@Component
+public class CardColumnStoreHealthIndicator implements HealthIndicator {
+
+    private final CardColumnStore cardColumnStore;
+
+    public CardColumnStoreHealthIndicator(CardColumnStore cardColumnStore) {
+        this.cardColumnStore = cardColumnStore;
+    }
+
+    @Override
+    public Health health() {
+        if (!cardColumnStore.isEnabled()) {
+            return Health.up().withDetail("enabled", false).build();
+        }
+        if (!cardColumnStore.isReady()) {
+            return Health.outOfService().withDetail("enabled", true).build();
+        }
+        return Health.up()
+                     .withDetail("enabled", true)
+                     .withDetail("cards", cardColumnStore.size())
+                     .build();
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.bankcards.cache;
+
+import com.example.bankcards.config.ReplicaRoutingDataSource;
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.event.UserDeletedEvent;
+import com.example.bankcards.exception.NotFoundException;
+import com.example.bankcards.repository.CardRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Card id to owner id index used for ownership checks on the user-facing card operations.
+ * <p>
+ * Populated lazily: a miss falls back to a single-column query and caches the answer, unless it was read
+ * inside a replica transaction. Card writes keep it in sync through {@link CardChangedEvent} once their
+ * transaction has committed.
+ */
+@Component
+public class CardOwnerIndex {
+
+    private final CardRepository cardRepository;
+    private final LongLongHashMap owners = new LongLongHashMap(1024);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CardOwnerIndex(CardRepository cardRepository) {
+        this.cardRepository = cardRepository;
+    }
+
+    /**
+     * @throws NotFoundException when the card does not exist or has no owner
+     */
+    public long getOwnerId(long cardId) {
+        long ownerId = lookup(cardId);
+        if (ownerId != LongLongHashMap.MISSING) {
+            return ownerId;
+        }
+
+        // A card write committing while the owner is loaded may already have updated the index; the loaded
+        // owner could predate it and is then not stored.
+        long stamp = invalidations.get();
+        Long loaded = cardRepository.findOwnerIdById(cardId)
+                                    .orElseThrow(() -> new NotFoundException("Card with id " + cardId + " not found"));
+        if (!ReplicaRoutingDataSource.isReplicaTransaction()) {
+            lock.writeLock().lock();
+            try {
+                if (invalidations.get() == stamp) {
+                    owners.put(cardId, loaded);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return loaded;
+    }
+
+    public boolean isOwnedBy(long cardId, long userId) {
+        return getOwnerId(cardId) == userId;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return owners.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCardChanged(CardChangedEvent event) {
+        if (event.isDeleted() || event.getOwnerId() == null) {
+            remove(event.getCardId());
+        } else {
+            put(event.getCardId(), event.getOwnerId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            invalidations.incrementAndGet();
+            owners.removeValue(event.getUserId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long lookup(long cardId) {
+        lock.readLock().lock();
+        try {
+            return owners.get(cardId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(long cardId, long ownerId) {
+        lock.writeLock().lock();
+        try {
+            invalidations.incrementAndGet();
+            owners.put(cardId, ownerId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(long cardId) {
+        lock.writeLock().lock();
+        try {
+            invalidations.incrementAndGet();
+            owners.remove(cardId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.bankcards.cache;
+
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.event.CardChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Compressed bitmaps of the ids of cards that are not {@code ACTIVE}, one per status, so transfers and block
+ * requests reject such cards without a database round trip.
+ * <p>
+ * Filled once in the background when the application is ready and kept current from the
+ * {@link CardChangedEvent}s published after commit, like the other card indexes. A card id that is in no
+ * bitmap is presumed active and its loaded card is checked as usual; when a caller loads a card the index
+ * holds as inactive anyway, a status the loaded card contradicts is {@link #correct corrected}. Deleted cards
+ * are removed on their event; cards deleted with their owner stay behind, which is harmless since their ids
+ * are never reused.
+ * <p>
+ * The initial load reads only the non-active statuses through the leading {@code status} column of
+ * {@code idx_cards_status_expiry_date}, so it touches the inactive cards rather than the whole table.
+ */
+@Slf4j
+@Component
+public class CardStatusIndex {
+
+    // An IN list rather than <> 'ACTIVE', which no index can serve.
+    static final String LOAD_SQL = "SELECT id, status FROM cards WHERE status IN "
+        + Arrays.stream(CardStatus.values())
+                .filter(status -> status != CardStatus.ACTIVE)
+                .map(status -> "'" + status.name() + "'")
+                .collect(Collectors.joining(", ", "(", ")"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<CardStatus, Roaring64Bitmap> bitmaps = new EnumMap<>(CardStatus.class);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Cards changed by events while the initial load runs; the rows loaded for them may be older.
+     */
+    private Roaring64Bitmap changedWhileLoading = new Roaring64Bitmap();
+
+    @Autowired
+    public CardStatusIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (CardStatus status : CardStatus.values()) {
+            if (status != CardStatus.ACTIVE) {
+                bitmaps.put(status, new Roaring64Bitmap());
+            }
+        }
+    }
+
+    /**
+     * Index filled only through events; ready immediately.
+     */
+    CardStatusIndex() {
+        this(null);
+        changedWhileLoading = null;
+    }
+
+    /**
+     * Status of the card if the index holds it as not {@code ACTIVE}, otherwise {@code null}.
+     */
+    public CardStatus inactiveStatus(long cardId) {
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<CardStatus, Roaring64Bitmap> bitmap : bitmaps.entrySet()) {
+                if (bitmap.getValue().contains(cardId)) {
+                    return bitmap.getKey();
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the {@code hinted} status of the card with the {@code stored} one of its loaded row,
+     * {@code null} for a deleted card. Does nothing when an event already moved the card meanwhile.
+     */
+    public void correct(long cardId, CardStatus hinted, CardStatus stored) {
+        if (hinted == stored) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Roaring64Bitmap bitmap = bitmaps.get(hinted);
+            if (bitmap.contains(cardId)) {
+                bitmap.removeLong(cardId);
+                if (stored != null && stored != CardStatus.ACTIVE) {
+                    bitmaps.get(stored).addLong(cardId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Card status index held card {} as {}, corrected to {}", cardId, hinted, stored);
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return changedWhileLoading == null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long count(CardStatus status) {
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap bitmap = bitmaps.get(status);
+            return bitmap == null ? 0 : bitmap.getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (isReady()) {
+            return;
+        }
+        long start = System.nanoTime();
+        jdbcTemplate.query(LOAD_SQL, row -> {
+            long cardId = row.getLong(1);
+            CardStatus status = CardStatus.valueOf(row.getString(2));
+            lock.writeLock().lock();
+            try {
+                if (!changedWhileLoading.contains(cardId)) {
+                    bitmaps.get(status).addLong(cardId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+
+        lock.writeLock().lock();
+        try {
+            bitmaps.values().forEach(Roaring64Bitmap::runOptimize);
+            changedWhileLoading = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Card status index loaded {} blocked, {} expired and {} inactive cards in {} ms",
+                 count(CardStatus.BLOCKED), count(CardStatus.EXPIRED), count(CardStatus.INACTIVE),
+                 (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCardChanged(CardChangedEvent event) {
+        long cardId = event.getCardId();
+        lock.writeLock().lock();
+        try {
+            if (changedWhileLoading != null) {
+                changedWhileLoading.addLong(cardId);
+            }
+            bitmaps.values().forEach(bitmap -> bitmap.removeLong(cardId));
+            if (!event.isDeleted() && event.getStatus() != null && event.getStatus() != CardStatus.ACTIVE) {
+                bitmaps.get(event.getStatus()).addLong(cardId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
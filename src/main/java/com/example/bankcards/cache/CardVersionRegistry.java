@@ -0,0 +1,131 @@
+package com.example.bankcards.cache;
+
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.event.UserDeletedEvent;
+import com.example.bankcards.event.UserUpdatedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory modification counters backing the ETags of the card read endpoints.
+ * <p>
+ * Every committed card change draws the next value of a global sequence and records it for the card and
+ * for its owner (old and new, on reassignment). A card or owner that has not changed since startup has
+ * version {@code 0}; the startup epoch is part of every tag, so counters restarting from zero never
+ * revalidate a response produced by a previous run. User updates bump the user's owner version too.
+ * <p>
+ * Only changes made through this instance are seen: plain SQL or another instance would leave clients
+ * revalidating stale copies. The ETags are therefore meant for single-node deployments and are switched off
+ * with {@code application.card-etags.enabled=false} everywhere else; the tag methods then return
+ * {@code null} and no ETag is sent.
+ */
+@Component
+public class CardVersionRegistry {
+
+    private final boolean enabled;
+    private final String epoch;
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongLongHashMap cardVersions = new LongLongHashMap(1024);
+    private final LongLongHashMap ownerVersions = new LongLongHashMap(1024);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public CardVersionRegistry(@Value("${application.card-etags.enabled:true}") boolean enabled) {
+        this(enabled, System.currentTimeMillis());
+    }
+
+    CardVersionRegistry(long epoch) {
+        this(true, epoch);
+    }
+
+    private CardVersionRegistry(boolean enabled, long epoch) {
+        this.enabled = enabled;
+        this.epoch = Long.toString(epoch, 36);
+    }
+
+    /**
+     * Tag of a single card, e.g. its balance.
+     */
+    public String cardTag(long cardId) {
+        if (!enabled) {
+            return null;
+        }
+        return epoch + "-c" + cardId + "-" + version(cardVersions, cardId);
+    }
+
+    /**
+     * Tag of everything visible to one card owner.
+     */
+    public String ownerTag(long userId) {
+        if (!enabled) {
+            return null;
+        }
+        return epoch + "-u" + userId + "-" + version(ownerVersions, userId);
+    }
+
+    /**
+     * Tag of the whole card table, for the admin views.
+     */
+    public String globalTag() {
+        if (!enabled) {
+            return null;
+        }
+        return epoch + "-" + sequence.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCardChanged(CardChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            long version = sequence.incrementAndGet();
+            cardVersions.put(event.getCardId(), version);
+            if (event.getOwnerId() != null) {
+                ownerVersions.put(event.getOwnerId(), version);
+            }
+            if (event.getPreviousOwnerId() != null) {
+                ownerVersions.put(event.getPreviousOwnerId(), version);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The admin list shows owners too, so the global sequence moves as well.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            ownerVersions.put(event.getUserId(), sequence.incrementAndGet());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            ownerVersions.put(event.getUserId(), sequence.incrementAndGet());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long version(LongLongHashMap versions, long id) {
+        lock.readLock().lock();
+        try {
+            long version = versions.get(id);
+            return version == LongLongHashMap.MISSING ? 0 : version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.bankcards.cache;
+
+import java.util.Arrays;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Open-addressing hash map from {@code long} to {@code long} backed by two primitive arrays.
+ * <p>
+ * Keys must be positive (entity ids), {@code 0} marks a free slot; {@code put} rejects other keys and
+ * lookups of them find nothing. Removal uses backward-shift
+ * deletion, so the table never accumulates tombstones. The map is not thread-safe; callers guard it.
+ */
+public class LongLongHashMap {
+
+    public static final long MISSING = Long.MIN_VALUE;
+
+    private static final int MIN_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public LongLongHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public long get(long key) {
+        if (key <= 0) {
+            return MISSING;
+        }
+        int slot = slot(key);
+        while (true) {
+            long current = keys[slot];
+            if (current == key) {
+                return values[slot];
+            }
+            if (current == 0) {
+                return MISSING;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != MISSING;
+    }
+
+    /**
+     * @return the previous value or {@link #MISSING}
+     */
+    public long put(long key, long value) {
+        checkKey(key);
+        int slot = slot(key);
+        while (true) {
+            long current = keys[slot];
+            if (current == key) {
+                long previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            if (current == 0) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size >= resizeAt) {
+                    rehash(keys.length << 1);
+                }
+                return MISSING;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the value stored under {@code key}, treating a missing key as {@code 0}.
+     *
+     * @return the new value
+     */
+    public long addTo(long key, long delta) {
+        return merge(key, delta, Long::sum);
+    }
+
+    public long merge(long key, long value, LongBinaryOperator remapping) {
+        long previous = get(key);
+        long next = previous == MISSING ? value : remapping.applyAsLong(previous, value);
+        put(key, next);
+        return next;
+    }
+
+    /**
+     * @return the removed value or {@link #MISSING}
+     */
+    public long remove(long key) {
+        if (key <= 0) {
+            return MISSING;
+        }
+        int slot = slot(key);
+        while (true) {
+            long current = keys[slot];
+            if (current == key) {
+                long previous = values[slot];
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+            if (current == 0) {
+                return MISSING;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Removes every entry whose value equals {@code value}. Linear in the table size.
+     *
+     * @return number of removed entries
+     */
+    public int removeValue(long value) {
+        long[] matches = new long[Math.min(size, 64)];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0 && values[i] == value) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count << 1);
+                }
+                matches[count++] = keys[i];
+            }
+        }
+        // Remove in a second pass: backward shifting moves entries around while we scan.
+        for (int i = 0; i < count; i++) {
+            remove(matches[i]);
+        }
+        return count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    public void forEach(LongLongConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface LongLongConsumer {
+        void accept(long key, long value);
+    }
+
+    private void shiftBack(int slot) {
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != 0) {
+            int ideal = slot(keys[next]);
+            // Move the entry into the gap unless its ideal slot lies cyclically in (gap, next].
+            if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = 0;
+        values[gap] = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static void checkKey(long key) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Key must be positive: " + key);
+        }
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, MIN_CAPACITY) / LOAD_FACTOR);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.bankcards.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+
+/**
+ * Periodically measures how far the replica is behind the primary and takes it out of rotation when the
+ * lag exceeds {@code application.datasource.replica.max-lag}, the replica stopped receiving WAL or it cannot be
+ * reached.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    /**
+     * Seconds since the last replayed transaction, or {@code 0} when the standby has replayed everything it
+     * received. A standby whose WAL receiver is gone or not streaming cannot tell how far behind it is and
+     * reports {@code NULL}. A server that is not in recovery is not replicating at all and reports no lag.
+     * <p>
+     * The receiver's status is only visible to roles with {@code pg_read_all_stats}; for other roles a
+     * running receiver process counts as streaming.
+     */
+    static final String LAG_SQL = """
+        SELECT CASE
+                   WHEN NOT pg_is_in_recovery() THEN 0
+                   WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver
+                                    WHERE pid IS NOT NULL AND COALESCE(status, 'streaming') = 'streaming') THEN NULL
+                   WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                   ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+               END
+        """;
+
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(JdbcTemplate replica, Duration maxLag) {
+        this.replica = replica;
+        this.maxLag = maxLag;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${application.datasource.replica.lag-check-interval:5000}")
+    public void checkLag() {
+        boolean usable;
+        try {
+            Double lagSeconds = replica.queryForObject(LAG_SQL, Double.class);
+            usable = lagSeconds != null && lagSeconds * 1000 <= maxLag.toMillis();
+            if (lagSeconds == null && replicaUsable) {
+                log.warn("Replica is not streaming WAL from the primary, routing reads to the primary");
+            } else if (!usable && replicaUsable) {
+                log.warn("Replica lag of {}s exceeds {}, routing reads to the primary", lagSeconds, maxLag);
+            }
+        } catch (DataAccessException e) {
+            usable = false;
+            if (replicaUsable) {
+                log.warn("Replica is unreachable, routing reads to the primary", e);
+            }
+        }
+
+        if (usable && !replicaUsable) {
+            log.info("Replica is within {} of the primary, routing read-only transactions to it", maxLag);
+        }
+        replicaUsable = usable;
+    }
+}
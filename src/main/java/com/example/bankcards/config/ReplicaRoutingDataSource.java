@@ -0,0 +1,82 @@
+package com.example.bankcards.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+
+/**
+ * Sends connections of {@code @Transactional(readOnly = true)} work to the replica while it is within the
+ * allowed replication lag, everything else to the primary.
+ * <p>
+ * {@link ReplicaRoutingTransactionManager} decides the route when a transaction begins and binds it to the
+ * thread for the transaction's lifetime. Read-only transactions labelled {@link #PRIMARY_LABEL} stay on the
+ * primary: reads whose result is compared with state bumped after a primary commit, such as ETags and the
+ * in-memory caches, must not see a lagging replica. Without a bound route the read-only flag is used, which
+ * is only published after the transaction has begun, so this data source must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Transaction label keeping a read-only transaction on the primary.
+     */
+    public static final String PRIMARY_LABEL = "primary";
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Deque<Route>> ROUTES = new ThreadLocal<>();
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Whether the current thread runs inside a transaction reading from the replica. Values read there may
+     * be behind the primary and must not be cached.
+     */
+    public static boolean isReplicaTransaction() {
+        Deque<Route> routes = ROUTES.get();
+        return routes != null && routes.peek() == Route.REPLICA;
+    }
+
+    static void bindRoute(Route route) {
+        Deque<Route> routes = ROUTES.get();
+        if (routes == null) {
+            routes = new ArrayDeque<>();
+            ROUTES.set(routes);
+        }
+        routes.push(route);
+    }
+
+    static Route unbindRoute() {
+        Deque<Route> routes = ROUTES.get();
+        Route route = routes.pop();
+        if (routes.isEmpty()) {
+            ROUTES.remove();
+        }
+        return route;
+    }
+
+    @Override
+    protected Route determineCurrentLookupKey() {
+        Deque<Route> routes = ROUTES.get();
+        if (routes != null) {
+            return routes.peek();
+        }
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && lagMonitor.isReplicaUsable()) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+}
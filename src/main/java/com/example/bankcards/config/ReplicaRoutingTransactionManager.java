@@ -0,0 +1,65 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.config.ReplicaRoutingDataSource.Route;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA transaction manager deciding per transaction whether {@link ReplicaRoutingDataSource} reads from the
+ * replica.
+ * <p>
+ * A transaction goes to the replica when it is read-only, not labelled
+ * {@link ReplicaRoutingDataSource#PRIMARY_LABEL} and the replica is within the allowed lag. Replica sessions
+ * only read from the second-level cache: rows behind the primary must not be cached for primary readers.
+ */
+class ReplicaRoutingTransactionManager extends JpaTransactionManager {
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    ReplicaRoutingTransactionManager(ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+    }
+
+    static Route route(TransactionDefinition definition, boolean replicaUsable) {
+        boolean pinned = definition instanceof TransactionAttribute attribute
+                         && attribute.getLabels().contains(ReplicaRoutingDataSource.PRIMARY_LABEL);
+        return definition.isReadOnly() && !pinned && replicaUsable ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        Route route = route(definition, lagMonitor.isReplicaUsable());
+        ReplicaRoutingDataSource.bindRoute(route);
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException | Error e) {
+            ReplicaRoutingDataSource.unbindRoute();
+            throw e;
+        }
+        if (route == Route.REPLICA) {
+            currentSession().setCacheMode(CacheMode.GET);
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            if (ReplicaRoutingDataSource.unbindRoute() == Route.REPLICA) {
+                currentSession().setCacheMode(CacheMode.NORMAL);
+            }
+        } finally {
+            super.doCleanupAfterCompletion(transaction);
+        }
+    }
+
+    private Session currentSession() {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(
+            obtainEntityManagerFactory());
+        return holder.getEntityManager().unwrap(Session.class);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.bankcards.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} jobs such as the replica lag check and the card expiry sweeper.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
@@ -34,6 +34,7 @@ public class SecurityConfiguration {
             .authorizeHttpRequests(
                 authorizeHttpRequests -> authorizeHttpRequests
                     .requestMatchers("/api/test/**").permitAll()
+                    .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
                     .anyRequest().authenticated()
             )
             .oauth2ResourceServer(
@@ -5,6 +5,7 @@ import com.example.bankcards.dto.CardBlockRequestCreate;
 import com.example.bankcards.dto.CardBlockRequestFilter;
 import com.example.bankcards.dto.CardBlockRequestResponse;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.metrics.StatementBudget;
 import com.example.bankcards.service.CardBlockRequestService;
 import jakarta.annotation.security.RolesAllowed;
 import lombok.RequiredArgsConstructor;
@@ -38,6 +39,7 @@ public class CardBlockRequestController {
     private final CardBlockRequestService cardBlockRequestService;
 
     @PreAuthorize("hasRole('ADMIN')")
+    @StatementBudget(3)
     @GetMapping
     public Page<CardBlockRequestResponse> getCardBlockRequests(
         @ModelAttribute CardBlockRequestFilter filter,
@@ -51,6 +53,8 @@ public class CardBlockRequestController {
     public CardBlockRequestResponse createCardBlockRequest(
         @RequestBody CardBlockRequestCreate request
     ) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        request.setOwnerId(Long.parseLong(authentication.getName()));
         return cardBlockRequestService.createCardBlockRequest(request);
     }
 
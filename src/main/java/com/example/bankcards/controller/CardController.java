@@ -1,13 +1,21 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.CardBulkIssueRequest;
+import com.example.bankcards.dto.CardBulkIssueResponse;
 import com.example.bankcards.dto.CardCreateRequest;
 import com.example.bankcards.dto.CardFilter;
 import com.example.bankcards.dto.CardResponse;
+import com.example.bankcards.dto.CardTokenRequest;
+import com.example.bankcards.dto.CardTokenResponse;
 import com.example.bankcards.dto.CardUpdateRequest;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.entity.UserRole;
+import com.example.bankcards.metrics.StatementBudget;
+import com.example.bankcards.service.CardIssuanceService;
 import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.TokenService;
 import jakarta.annotation.security.RolesAllowed;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -27,6 +35,9 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 import static com.example.bankcards.entity.RoleValues.ROLE_ADMIN;
 import static com.example.bankcards.entity.RoleValues.ROLE_USER;
@@ -38,6 +49,8 @@ import static com.example.bankcards.entity.RoleValues.ROLE_USER;
 public class CardController {
 
     private final CardService cardService;
+    private final CardIssuanceService cardIssuanceService;
+    private final TokenService tokenService;
 
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping
@@ -45,15 +58,24 @@ public class CardController {
         return cardService.createCard(request);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @StatementBudget(3)
+    @PostMapping("/bulk")
+    public CardBulkIssueResponse issueCards(@RequestBody @Valid CardBulkIssueRequest request) {
+        return cardIssuanceService.issueCards(request);
+    }
+
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @StatementBudget(3)
     @GetMapping
     public Page<CardResponse> getFilteredCards(
-        @ModelAttribute CardFilter filter,
+        @ModelAttribute @Valid CardFilter filter,
         @PageableDefault(
             size = 5,
             sort = "expiryDate",
             direction = Sort.Direction.DESC)
-        Pageable pageable
+        Pageable pageable,
+        WebRequest webRequest
     ) {
 
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -61,6 +83,11 @@ public class CardController {
         boolean isAdmin = authentication.getAuthorities().stream()
                 .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN"));
 
+        // Answer 304 before touching the database when the client's copy is still current.
+        if (webRequest.checkNotModified(cardService.getCardsETag(Long.parseLong(authentication.getName()), isAdmin))) {
+            return null;
+        }
+
         if (isAdmin) {
             return cardService.getAllCards(filter, pageable);
         }
@@ -75,9 +102,30 @@ public class CardController {
     }
 
     @PreAuthorize("hasRole('USER')")
+    @StatementBudget(2)
     @GetMapping("/{cardId}/balance")
-    public Long getBalance(@PathVariable long cardId) {
-        return cardService.getCardBalance(cardId);
+    public Long getBalance(@PathVariable long cardId, WebRequest webRequest) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        long userId = Long.parseLong(authentication.getName());
+
+        if (webRequest.checkNotModified(cardService.getCardBalanceETag(cardId, userId))) {
+            return null;
+        }
+
+        return cardService.getCardBalance(cardId, userId);
+    }
+
+    @PreAuthorize("hasRole('USER')")
+    @StatementBudget(2)
+    @GetMapping("/by-token/{token}/balance")
+    public Long getBalanceByToken(@PathVariable String token, WebRequest webRequest) {
+        return getBalance(tokenService.resolve(token), webRequest);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/tokens")
+    public List<CardTokenResponse> issueTokens(@RequestBody @Valid CardTokenRequest request) {
+        return tokenService.issueTokens(request.getCardIds());
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -0,0 +1,32 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.HibernateStatisticsResponse;
+import com.example.bankcards.service.HibernateStatisticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@EnableMethodSecurity(prePostEnabled = true)
+@RestController
+@RequestMapping("/api/statistics")
+@RequiredArgsConstructor
+public class StatisticsController {
+
+    private final HibernateStatisticsService hibernateStatisticsService;
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/hibernate")
+    public HibernateStatisticsResponse getHibernateStatistics() {
+        return hibernateStatisticsService.getStatistics();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("/hibernate")
+    public void clearHibernateStatistics() {
+        hibernateStatisticsService.clear();
+    }
+}
@@ -2,18 +2,29 @@ package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.TransactionRequest;
 import com.example.bankcards.dto.TransactionResponse;
+import com.example.bankcards.dto.TokenTransactionRequest;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.metrics.StatementBudget;
+import com.example.bankcards.service.TokenService;
 import com.example.bankcards.service.TransactionService;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import static com.example.bankcards.entity.RoleValues.ROLE_USER;
@@ -25,10 +36,35 @@ import static com.example.bankcards.entity.RoleValues.ROLE_USER;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TokenService tokenService;
 
     @PreAuthorize("hasRole('USER')")
+    @StatementBudget(6)
     @PostMapping
     public TransactionResponse createTransaction(@RequestBody @Valid TransactionRequest request) {
-        return transactionService.createTransaction(request);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return transactionService.createTransaction(request, Long.parseLong(authentication.getName()));
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @StatementBudget(2)
+    @GetMapping
+    public Page<TransactionResponse> getCardTransactions(
+        @RequestParam long cardId,
+        @PageableDefault(size = 20, sort = "timestamp", direction = Sort.Direction.DESC) Pageable pageable
+    ) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication.getAuthorities().stream()
+                .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN"));
+        return transactionService.getCardTransactions(cardId, Long.parseLong(authentication.getName()), isAdmin, pageable);
+    }
+
+    @PreAuthorize("hasRole('USER')")
+    @StatementBudget(6)
+    @PostMapping("/by-token")
+    public TransactionResponse createTransactionByToken(@RequestBody @Valid TokenTransactionRequest request) {
+        return createTransaction(new TransactionRequest(tokenService.resolve(request.getFromCardToken()),
+                                                        tokenService.resolve(request.getToCardToken()),
+                                                        request.getAmount()));
     }
 }
@@ -1,8 +1,16 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.CardScrollResponse;
+import com.example.bankcards.dto.UserCardSummaryResponse;
 import com.example.bankcards.dto.UserCreateRequest;
+import com.example.bankcards.dto.UserDeletionJobResponse;
+import com.example.bankcards.dto.UserImportResult;
 import com.example.bankcards.dto.UserResponse;
 import com.example.bankcards.dto.UserUpdateRequest;
+import com.example.bankcards.metrics.StatementBudget;
+import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.UserDeletionService;
+import com.example.bankcards.service.UserImportService;
 import com.example.bankcards.service.UserService;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.validation.Valid;
@@ -10,17 +18,26 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.InputStream;
+import java.net.URI;
+
 import static com.example.bankcards.entity.RoleValues.ROLE_ADMIN;
 
 @EnableMethodSecurity(prePostEnabled = true)
@@ -29,12 +46,22 @@ import static com.example.bankcards.entity.RoleValues.ROLE_ADMIN;
 public class UserController {
 
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final UserDeletionService userDeletionService;
+    private final CardService cardService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService,
+                          UserImportService userImportService,
+                          UserDeletionService userDeletionService,
+                          CardService cardService) {
         this.userService = userService;
+        this.userImportService = userImportService;
+        this.userDeletionService = userDeletionService;
+        this.cardService = cardService;
     }
 
     @PreAuthorize("hasRole('ADMIN')")
+    @StatementBudget(3)
     @GetMapping
     public Page<UserResponse> getAllUsers(
         @PageableDefault(size = 5, direction = Sort.Direction.DESC) Pageable pageable
@@ -48,12 +75,42 @@ public class UserController {
         return userService.getUserById(id);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @StatementBudget(2)
+    @GetMapping("/{id}/cards")
+    public CardScrollResponse getUserCards(
+        @PathVariable long id,
+        @RequestParam(defaultValue = "0") long afterId,
+        @RequestParam(defaultValue = "100") int size
+    ) {
+        return cardService.getUserCards(id, afterId, size);
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @StatementBudget(2)
+    @GetMapping("/{id}/summary")
+    public UserCardSummaryResponse getCardSummary(@PathVariable long id) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication.getAuthorities().stream()
+                .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN"));
+        return userService.getCardSummary(id, Long.parseLong(authentication.getName()), isAdmin);
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping
     public UserResponse createUser(@RequestBody @Valid UserCreateRequest request) {
         return userService.createUser(request);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = {UserImportService.CSV, UserImportService.NDJSON})
+    public UserImportResult importUsers(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+        InputStream body
+    ) {
+        return userImportService.importUsers(body, contentType);
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/{id}")
     public UserResponse updateUser(@PathVariable long id, @RequestBody UserUpdateRequest request) {
@@ -62,7 +119,16 @@ public class UserController {
 
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
-    public void deleteUser(@PathVariable long id) {
-        userService.deleteUserById(id);
+    public ResponseEntity<UserDeletionJobResponse> deleteUser(@PathVariable long id) {
+        UserDeletionJobResponse job = userDeletionService.deleteUser(id);
+        return ResponseEntity.accepted()
+                             .location(URI.create("/api/users/deletion-jobs/" + job.getId()))
+                             .body(job);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/deletion-jobs/{jobId}")
+    public UserDeletionJobResponse getDeletionJob(@PathVariable long jobId) {
+        return userDeletionService.getJob(jobId);
     }
 }
@@ -0,0 +1,21 @@
+package com.example.bankcards.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class CardBulkIssueRequest {
+    /**
+     * One card is issued per entry; repeat an id to give that user several cards.
+     */
+    @NotEmpty
+    private List<Long> ownerIds;
+    private LocalDate expiryDate;
+}
@@ -1,6 +1,7 @@
 package com.example.bankcards.dto;
 
 import com.example.bankcards.entity.CardStatus;
+import jakarta.validation.constraints.Pattern;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -23,4 +24,9 @@ public class CardFilter {
     private Long minBalance;
 
     private Long maxBalance;
+
+    private Long ownerId;
+
+    @Pattern(regexp = "\\d{4}", message = "last4 must be four digits")
+    private String last4;
 }
@@ -0,0 +1,22 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.entity.CardStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Columns of a card that card lists show, selected instead of the entity so the card number is not read.
+ */
+@Getter
+@AllArgsConstructor
+public class CardListItem {
+    private long id;
+    private String last4;
+    private LocalDate expiryDate;
+    private CardStatus status;
+    private long balance;
+    private Long ownerId;
+    private String ownerName;
+}
@@ -0,0 +1,19 @@
+package com.example.bankcards.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A page of cards in id order; {@code nextAfterId} is passed back as {@code afterId} for the next page
+ * and is absent on the last one.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CardScrollResponse {
+    private List<CardResponse> cards;
+    private Long nextAfterId;
+}
@@ -0,0 +1,19 @@
+package com.example.bankcards.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class CardTokenRequest {
+    /**
+     * Cards that already have a token get the same one back.
+     */
+    @NotEmpty
+    private List<Long> cardIds;
+}
@@ -13,6 +13,7 @@ import java.time.LocalDate;
 public class CardUpdateRequest implements Expirable {
     private LocalDate expiryDate;
     private CardStatus status;
+    private Long ownerId;
 
     @Override
     public LocalDate getExpiryDate() {
@@ -0,0 +1,24 @@
+package com.example.bankcards.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class HibernateStatisticsResponse {
+    private boolean statisticsEnabled;
+    private long sessionOpenCount;
+    private long prepareStatementCount;
+    private long queryExecutionCount;
+    private long entityLoadCount;
+    private long entityFetchCount;
+    private long secondLevelCacheHitCount;
+    private long secondLevelCacheMissCount;
+    private long secondLevelCachePutCount;
+    private double secondLevelCacheHitRatio;
+    private List<CacheRegionStatisticsResponse> regions;
+}
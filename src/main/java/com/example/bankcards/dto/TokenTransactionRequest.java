@@ -0,0 +1,19 @@
+package com.example.bankcards.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class TokenTransactionRequest {
+    @NotBlank
+    private String fromCardToken;
+    @NotBlank
+    private String toCardToken;
+    @Min(value = 1, message = "Значение должно быть не меньше 1")
+    private long amount;
+}
@@ -4,11 +4,16 @@ import com.example.bankcards.entity.TransactionStatus;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 @Getter
 @Setter
 @Builder
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class TransactionResponse {
+    // Set in card histories only
+    private Long id;
+    private LocalDateTime timestamp;
     private String fromCardNumber;
     private String toCardNumber;
     private long amount;
@@ -0,0 +1,20 @@
+package com.example.bankcards.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+public class UserCardSummaryResponse {
+    private long userId;
+    private long cardCount;
+    private long activeCards;
+    private long inactiveCards;
+    private long blockedCards;
+    private long expiredCards;
+    private long totalBalance;
+}
@@ -0,0 +1,22 @@
+package com.example.bankcards.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class UserImportResult {
+    private long processed;
+    private long imported;
+    private long failed;
+    private List<UserImportError> errors;
+    /**
+     * True when more rows failed than {@code errors} holds; the list is capped so the
+     * response stays bounded no matter how large the uploaded file is.
+     */
+    private boolean errorsTruncated;
+}
@@ -1,13 +1,23 @@
 package com.example.bankcards.entity;
 
+import com.example.bankcards.util.CardNumberConverter;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
-import java.util.List;
 
+/**
+ * A card without its history: transactions are read and deleted only through {@code TransactionRepository},
+ * so loading, logging or deleting a card never touches them.
+ */
 @Entity
 @Table(name = "cards")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cards")
+// Updates write only changed columns, so balance and status changes do not re-encrypt the number.
+@DynamicUpdate
 @Getter
 @Setter
 @AllArgsConstructor
@@ -19,9 +29,27 @@ public class Card {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
 
-    @Column(nullable = false, unique = true)
+    /**
+     * Encrypted in the database, so it can be neither compared nor searched there; see {@link #numberHash}.
+     */
+    @ToString.Exclude
+    @Convert(converter = CardNumberConverter.class)
+    @Column(name = "card_number", nullable = false)
     private String number;
 
+    /**
+     * Blind index of {@link #number}, unique; existence checks and lookups by number go through it.
+     */
+    @ToString.Exclude
+    @Column(nullable = false, unique = true, length = 64)
+    private String numberHash;
+
+    /**
+     * Last four digits of {@link #number}, the only part card lists show.
+     */
+    @Column(nullable = false, length = 4)
+    private String last4;
+
     @Column(nullable = false)
     private LocalDate expiryDate;
 
@@ -33,20 +61,22 @@ public class Card {
     @Column(nullable = false)
     private long balance = 0;
 
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
     private User owner;
 
-    @OneToMany(mappedBy = "fromCard", cascade = CascadeType.ALL)
-    private List<Transaction> outgoingTransactions;
-
-    @OneToMany(mappedBy = "toCard", cascade = CascadeType.ALL)
-    private List<Transaction> incomingTransactions;
-
     @PrePersist
     protected void onCreate() {
         if (status == null) {
             status = CardStatus.INACTIVE;
         }
+        if (last4 == null && number != null) {
+            last4 = last4Of(number);
+        }
+    }
+
+    public static String last4Of(String number) {
+        return number.substring(number.length() - 4);
     }
 }
@@ -21,10 +21,12 @@ public class CardBlockRequest {
     @Column(name = "id", nullable = false)
     private long id;
 
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "card_id", nullable = false)
     private Card card;
@@ -39,6 +41,7 @@ public class CardBlockRequest {
     @Column(name = "processed_at")
     private LocalDateTime processedAt;
 
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "processed_by")
     private User processedBy;
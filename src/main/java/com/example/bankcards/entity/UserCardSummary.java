@@ -0,0 +1,49 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Card counts by status and total balance of a user's cards. Written only by triggers on {@code cards}, in
+ * the transaction that changes the cards, so it is read-only here and not kept in the second-level cache.
+ */
+@Entity
+@Immutable
+@Table(name = "user_card_summary")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class UserCardSummary {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "card_count", nullable = false)
+    private long cardCount;
+
+    @Column(name = "active_cards", nullable = false)
+    private long activeCards;
+
+    @Column(name = "inactive_cards", nullable = false)
+    private long inactiveCards;
+
+    @Column(name = "blocked_cards", nullable = false)
+    private long blockedCards;
+
+    @Column(name = "expired_cards", nullable = false)
+    private long expiredCards;
+
+    @Column(name = "total_balance", nullable = false)
+    private long totalBalance;
+}
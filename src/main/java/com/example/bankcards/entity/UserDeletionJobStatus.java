@@ -0,0 +1,5 @@
+package com.example.bankcards.entity;
+
+public enum UserDeletionJobStatus {
+    PENDING, RUNNING, COMPLETED, FAILED
+}
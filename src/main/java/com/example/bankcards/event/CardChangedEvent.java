@@ -0,0 +1,48 @@
+package com.example.bankcards.event;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+/**
+ * Published by the services whenever a card row is inserted, updated or deleted.
+ * In-memory card indexes listen to it after the surrounding transaction commits.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CardChangedEvent {
+
+    private final long cardId;
+    private final Long ownerId;
+    private final Long previousOwnerId;
+    private final long balance;
+    private final boolean deleted;
+    private final CardStatus status;
+    private final LocalDate expiryDate;
+
+    public static CardChangedEvent saved(Card card) {
+        return updated(card, null);
+    }
+
+    /**
+     * @param previousOwnerId owner before the update, so listeners can also refresh the old owner's view
+     */
+    public static CardChangedEvent updated(Card card, Long previousOwnerId) {
+        return new CardChangedEvent(card.getId(), ownerIdOf(card), previousOwnerId, card.getBalance(), false,
+                                    card.getStatus(), card.getExpiryDate());
+    }
+
+    public static CardChangedEvent deleted(Card card) {
+        return new CardChangedEvent(card.getId(), ownerIdOf(card), null, card.getBalance(), true,
+                                    card.getStatus(), card.getExpiryDate());
+    }
+
+    public static Long ownerIdOf(Card card) {
+        return card.getOwner() == null ? null : card.getOwner().getId();
+    }
+}
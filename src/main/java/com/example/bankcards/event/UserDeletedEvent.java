@@ -0,0 +1,16 @@
+package com.example.bankcards.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published when a user and all of their cards are deleted, once their deletion job completes.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class UserDeletedEvent {
+
+    private final long userId;
+}
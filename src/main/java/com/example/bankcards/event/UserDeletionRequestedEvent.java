@@ -0,0 +1,16 @@
+package com.example.bankcards.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published when a user deletion job is created; the job starts once the creating transaction commits.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class UserDeletionRequestedEvent {
+
+    private final long jobId;
+}
@@ -0,0 +1,16 @@
+package com.example.bankcards.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published when a user's account data is changed, after the change commits.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class UserUpdatedEvent {
+
+    private final long userId;
+}
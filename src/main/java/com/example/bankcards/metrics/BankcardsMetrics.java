@@ -0,0 +1,97 @@
+package com.example.bankcards.metrics;
+
+import com.example.bankcards.entity.CardBlockRequestStatus;
+import com.example.bankcards.entity.TransactionStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Business meters of the service. Histogram and SLO buckets are configured under
+ * {@code management.metrics.distribution} so they can be tuned without a rebuild.
+ * <p>
+ * Counters for every status are registered up front, so each series exists with value {@code 0}
+ * before the first event and rate-based alerts do not see gaps.
+ */
+@Component
+public class BankcardsMetrics {
+
+    public static final String TRANSFERS = "bankcards.transfers";
+    public static final String BLOCK_DECISIONS = "bankcards.card.block.decisions";
+    public static final String AUTH_CONVERSION = "bankcards.auth.jwt.conversion";
+    public static final String MAPPING = "bankcards.mapper";
+    public static final String CARDS_EXPIRED = "bankcards.cards.expired";
+
+    private final MeterRegistry registry;
+    private final Map<TransactionStatus, Counter> transfers = new EnumMap<>(TransactionStatus.class);
+    private final Map<CardBlockRequestStatus, Counter> blockDecisions = new EnumMap<>(CardBlockRequestStatus.class);
+    private final Map<String, Timer> mappingTimers = new ConcurrentHashMap<>();
+    private final Timer authConversion;
+    private final Counter cardsExpired;
+
+    public BankcardsMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        for (TransactionStatus status : TransactionStatus.values()) {
+            transfers.put(status, Counter.builder(TRANSFERS)
+                                         .description("Transfers by resulting status")
+                                         .tag("status", status.name())
+                                         .register(registry));
+        }
+        for (CardBlockRequestStatus status : CardBlockRequestStatus.values()) {
+            blockDecisions.put(status, Counter.builder(BLOCK_DECISIONS)
+                                              .description("Card block request decisions made by admins")
+                                              .tag("decision", status.name())
+                                              .register(registry));
+        }
+        authConversion = Timer.builder(AUTH_CONVERSION)
+                              .description("Time to turn a validated JWT into an authenticated user")
+                              .register(registry);
+        cardsExpired = Counter.builder(CARDS_EXPIRED)
+                              .description("Cards moved to EXPIRED by the expiry sweeper")
+                              .register(registry);
+    }
+
+    public void transfer(TransactionStatus status) {
+        transfers.get(status).increment();
+    }
+
+    public void blockDecision(CardBlockRequestStatus decision) {
+        blockDecisions.get(decision).increment();
+    }
+
+    public void cardsExpired(int count) {
+        cardsExpired.increment(count);
+    }
+
+    /**
+     * Publishes size, hits, misses and evictions of an in-process cache as {@code cache.*} meters tagged
+     * with {@code name}; the cache must record stats.
+     */
+    public void monitorCache(String name, Cache<?, ?> cache) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+    }
+
+    public <T> T timeAuthConversion(Supplier<T> conversion) {
+        return authConversion.record(conversion);
+    }
+
+    /**
+     * Times entity to DTO mapping, tagged by the mapped type (e.g. {@code card}, {@code transaction}).
+     */
+    public <T> T timeMapping(String mapper, Supplier<T> mapping) {
+        return mappingTimers.computeIfAbsent(mapper, name -> Timer.builder(MAPPING)
+                                                                  .description("Time spent mapping entities to responses")
+                                                                  .tag("mapper", name)
+                                                                  .register(registry))
+                            .record(mapping);
+    }
+}
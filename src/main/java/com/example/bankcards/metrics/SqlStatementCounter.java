@@ -0,0 +1,42 @@
+package com.example.bankcards.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a request is being counted.
+ * <p>
+ * Hibernate instantiates this class itself ({@code hibernate.session_factory.statement_inspector}), so the
+ * per-request state lives in a thread local driven by {@link StatementBudgetFilter}. Statements issued
+ * through plain {@code JdbcTemplate} bypass Hibernate and are not counted.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    public static void begin() {
+        COUNT.set(new int[1]);
+    }
+
+    /**
+     * @return statements counted since {@link #begin()}, or {@code 0} when the thread is not being counted
+     */
+    public static int count() {
+        int[] count = COUNT.get();
+        return count == null ? 0 : count[0];
+    }
+
+    public static int end() {
+        int count = count();
+        COUNT.remove();
+        return count;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.bankcards.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements a single request to the annotated endpoint may execute, including
+ * the user lookup done during authentication. Endpoints without it get
+ * {@code application.sql.default-statement-budget}.
+ *
+ * @see StatementBudgetFilter
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface StatementBudget {
+
+    int value();
+}
@@ -0,0 +1,88 @@
+package com.example.bankcards.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts SQL statements per HTTP request, reports the count in a {@code Server-Timing} header and flags
+ * requests that go over their {@link StatementBudget}.
+ * <p>
+ * Over-budget requests are logged. With {@code application.sql.strict-budget} (enabled for tests) the
+ * filter throws instead, so an N+1 regression fails the test that exercises the endpoint.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private final int defaultBudget;
+    private final boolean strict;
+
+    public StatementBudgetFilter(@Value("${application.sql.default-statement-budget:10}") int defaultBudget,
+                                 @Value("${application.sql.strict-budget:false}") boolean strict) {
+        this.defaultBudget = defaultBudget;
+        this.strict = strict;
+    }
+
+    /**
+     * {@code Server-Timing} value for the given statement count.
+     */
+    public static String serverTiming(int statements) {
+        return "sql;desc=\"" + statements + " statements\"";
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementCounter.begin();
+        int statements;
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            statements = SqlStatementCounter.end();
+        }
+
+        // Responses with a body got the header from StatementCountResponseAdvice before it was written.
+        if (!response.isCommitted()) {
+            response.setHeader(SERVER_TIMING, serverTiming(statements));
+        }
+
+        int budget = budgetOf(request);
+        if (statements > budget) {
+            String message = String.format("%s %s executed %d SQL statements, budget is %d",
+                                           request.getMethod(), request.getRequestURI(), statements, budget);
+            if (strict) {
+                throw new IllegalStateException(message);
+            }
+            log.warn(message);
+        }
+    }
+
+    private int budgetOf(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+            StatementBudget budget = handler.getMethodAnnotation(StatementBudget.class);
+            if (budget == null) {
+                budget = AnnotatedElementUtils.findMergedAnnotation(handler.getBeanType(), StatementBudget.class);
+            }
+            if (budget != null) {
+                return budget.value();
+            }
+        }
+        return defaultBudget;
+    }
+}
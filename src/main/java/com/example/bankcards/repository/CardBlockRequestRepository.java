@@ -3,10 +3,18 @@ package com.example.bankcards.repository;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardBlockRequest;
 import com.example.bankcards.entity.CardBlockRequestStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface CardBlockRequestRepository extends JpaRepository<CardBlockRequest, Long>,
         JpaSpecificationExecutor<CardBlockRequest> {
@@ -14,4 +22,15 @@ public interface CardBlockRequestRepository extends JpaRepository<CardBlockReque
     List<CardBlockRequest> findByUserId(Long userId);
 
     boolean existsByCardAndStatus(Card card, CardBlockRequestStatus status);
+
+    @EntityGraph(attributePaths = "card")
+    Optional<CardBlockRequest> findWithCardById(long id);
+
+    @Override
+    @EntityGraph(attributePaths = {"card", "card.owner"})
+    Page<CardBlockRequest> findAll(Specification<CardBlockRequest> specification, Pageable pageable);
+
+    @Modifying
+    @Query("delete from CardBlockRequest r where r.card.id = :cardId")
+    int deleteByCardId(@Param("cardId") long cardId);
 }
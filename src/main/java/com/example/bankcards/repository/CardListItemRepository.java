@@ -0,0 +1,22 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.CardListItem;
+import com.example.bankcards.entity.Card;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CardListItemRepository {
+
+    Page<CardListItem> findListItems(Specification<Card> specification, Pageable pageable);
+
+    List<CardListItem> findListItemsByIdIn(Collection<Long> ids);
+
+    /**
+     * Up to {@code limit} cards of the owner with an id greater than {@code afterId}, in id order.
+     */
+    List<CardListItem> findListItemsByOwnerIdAfter(long ownerId, long afterId, int limit);
+}
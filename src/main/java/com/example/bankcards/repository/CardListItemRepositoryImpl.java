@@ -0,0 +1,106 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.CardListItem;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Card list queries selecting {@link CardListItem} columns with a constructor expression; the entity,
+ * and with it {@code card_number}, is never loaded.
+ */
+public class CardListItemRepositoryImpl implements CardListItemRepository {
+
+    private final EntityManager entityManager;
+
+    public CardListItemRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<CardListItem> findListItems(Specification<Card> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CardListItem> query = cb.createQuery(CardListItem.class);
+        Root<Card> root = select(query, cb);
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<CardListItem> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(specification));
+    }
+
+    @Override
+    public List<CardListItem> findListItemsByIdIn(Collection<Long> ids) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CardListItem> query = cb.createQuery(CardListItem.class);
+        Root<Card> root = select(query, cb);
+        query.where(root.get("id").in(ids));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    /**
+     * Keyset page: seeks {@code idx_cards_owner_id_id} past {@code afterId} instead of skipping an offset,
+     * so every page costs the same however far into the owner's cards it is, and no count is run.
+     */
+    @Override
+    public List<CardListItem> findListItemsByOwnerIdAfter(long ownerId, long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CardListItem> query = cb.createQuery(CardListItem.class);
+        Root<Card> root = select(query, cb);
+        query.where(cb.equal(root.get("owner").get("id"), ownerId), cb.greaterThan(root.get("id"), afterId));
+        query.orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private static Root<Card> select(CriteriaQuery<CardListItem> query, CriteriaBuilder cb) {
+        Root<Card> root = query.from(Card.class);
+        Join<Card, User> owner = root.join("owner", JoinType.LEFT);
+        query.select(cb.construct(CardListItem.class,
+                                  root.get("id"),
+                                  root.get("last4"),
+                                  root.get("expiryDate"),
+                                  root.get("status"),
+                                  root.get("balance"),
+                                  owner.get("id"),
+                                  owner.get("name")));
+        return root;
+    }
+
+    private long count(Specification<Card> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Card> root = query.from(Card.class);
+        query.select(cb.count(root));
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
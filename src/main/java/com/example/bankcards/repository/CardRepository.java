@@ -1,11 +1,40 @@
 package com.example.bankcards.repository;
 
+import com.example.bankcards.config.ReplicaRoutingDataSource;
 import com.example.bankcards.entity.Card;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface CardRepository extends JpaRepository<Card, Long>, JpaSpecificationExecutor<Card> {
+import java.util.Optional;
 
-    boolean existsByNumber(String cardNumber);
+public interface CardRepository extends JpaRepository<Card, Long>, JpaSpecificationExecutor<Card>, CardListItemRepository {
+
+    /**
+     * @param numberHash blind index of the number, see {@code CardNumberCipher#blindIndex}
+     */
+    boolean existsByNumberHash(String numberHash);
+
+    @EntityGraph(attributePaths = "owner")
+    Optional<Card> findWithOwnerById(long id);
+
+    @Override
+    @EntityGraph(attributePaths = "owner")
+    Page<Card> findAll(Specification<Card> specification, Pageable pageable);
+
+    // Both feed in-memory caches, which must not hold values from a lagging replica.
+    @Transactional(readOnly = true, label = ReplicaRoutingDataSource.PRIMARY_LABEL)
+    @Query("select c.owner.id from Card c where c.id = :cardId")
+    Optional<Long> findOwnerIdById(@Param("cardId") long cardId);
+
+    @Transactional(readOnly = true, label = ReplicaRoutingDataSource.PRIMARY_LABEL)
+    @Query("select c.balance from Card c where c.id = :cardId")
+    Optional<Long> findBalanceById(@Param("cardId") long cardId);
 
 }
@@ -1,7 +1,28 @@
 package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.Transaction;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+/**
+ * Transactions are reached only through these queries; cards do not map their history.
+ */
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+
+    /**
+     * Transfers from or to the card, with both cards fetched for masking their numbers.
+     */
+    @Query(value = """
+            select t from Transaction t join fetch t.fromCard join fetch t.toCard
+            where t.fromCard.id = :cardId or t.toCard.id = :cardId""",
+           countQuery = "select count(t) from Transaction t where t.fromCard.id = :cardId or t.toCard.id = :cardId")
+    Page<Transaction> findByCardId(@Param("cardId") long cardId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from Transaction t where t.fromCard.id = :cardId or t.toCard.id = :cardId")
+    int deleteByCardId(@Param("cardId") long cardId);
 }
@@ -0,0 +1,7 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.UserCardSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface UserCardSummaryRepository extends JpaRepository<UserCardSummary, Long> {
+}
@@ -0,0 +1,16 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.UserDeletionJob;
+import com.example.bankcards.entity.UserDeletionJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserDeletionJobRepository extends JpaRepository<UserDeletionJob, Long> {
+
+    Optional<UserDeletionJob> findFirstByUserIdAndStatusIn(long userId, Collection<UserDeletionJobStatus> statuses);
+
+    List<UserDeletionJob> findByStatusIn(Collection<UserDeletionJobStatus> statuses);
+}
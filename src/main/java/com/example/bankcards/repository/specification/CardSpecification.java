@@ -1,5 +1,6 @@
 package com.example.bankcards.repository.specification;
 
+import com.example.bankcards.dto.CardFilter;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
 import org.springframework.data.jpa.domain.Specification;
@@ -28,6 +29,40 @@ public class CardSpecification {
     }
 
     public static Specification<Card> belongsToUser(Long userId) {
-        return (root, query, cb) -> userId == null ? null : cb.equal(root.get("user").get("id"), userId);
+        return (root, query, cb) -> userId == null ? null : cb.equal(root.get("owner").get("id"), userId);
+    }
+
+    public static Specification<Card> hasLast4(String last4) {
+        return (root, query, cb) -> last4 == null ? null : cb.equal(root.get("last4"), last4);
+    }
+
+    /**
+     * Narrows {@code specification} by every criterion set in {@code filter}.
+     */
+    public static Specification<Card> matching(Specification<Card> specification, CardFilter filter) {
+        if (filter != null) {
+            if (filter.getStatus() != null) {
+                specification = specification.and(hasStatus(filter.getStatus()));
+            }
+            if (filter.getFromDate() != null) {
+                specification = specification.and(expiryDateAfter(filter.getFromDate()));
+            }
+            if (filter.getToDate() != null) {
+                specification = specification.and(expiryDateBefore(filter.getToDate()));
+            }
+            if (filter.getMaxBalance() != null) {
+                specification = specification.and(balanceLessThan(filter.getMaxBalance()));
+            }
+            if (filter.getMinBalance() != null) {
+                specification = specification.and(balanceMoreThan(filter.getMinBalance()));
+            }
+            if (filter.getOwnerId() != null) {
+                specification = specification.and(belongsToUser(filter.getOwnerId()));
+            }
+            if (filter.getLast4() != null) {
+                specification = specification.and(hasLast4(filter.getLast4()));
+            }
+        }
+        return specification;
     }
 }
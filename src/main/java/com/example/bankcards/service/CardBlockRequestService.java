@@ -1,5 +1,7 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.cache.CardOwnerIndex;
+import com.example.bankcards.cache.CardStatusIndex;
 import com.example.bankcards.dto.CardBlockRequestAnswer;
 import com.example.bankcards.dto.CardBlockRequestCreate;
 import com.example.bankcards.dto.CardBlockRequestFilter;
@@ -7,9 +9,12 @@ import com.example.bankcards.dto.CardBlockRequestResponse;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardBlockRequest;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.exception.AccessDeniedException;
 import com.example.bankcards.exception.BadRequestException;
 import com.example.bankcards.exception.ConflictException;
 import com.example.bankcards.exception.NotFoundException;
+import com.example.bankcards.metrics.BankcardsMetrics;
 import com.example.bankcards.repository.CardBlockRequestRepository;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
@@ -17,6 +22,7 @@ import com.example.bankcards.repository.specification.CardBlockRequestSpecificat
 import com.example.bankcards.util.CardBlockRequestMapper;
 import com.example.bankcards.entity.CardBlockRequestStatus;
 import com.example.bankcards.entity.CardStatus;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -32,23 +38,47 @@ public class CardBlockRequestService {
     private final CardBlockRequestMapper mapper;
     private final CardRepository cardRepository;
     private final UserRepository userRepository;
+    private final CardOwnerIndex cardOwnerIndex;
+    private final CardStatusIndex cardStatusIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BankcardsMetrics metrics;
 
     public CardBlockRequestService(CardBlockRequestRepository cardBlockRequestRepository,
                                    CardRepository cardRepository,
                                    UserRepository userRepository,
-                                   CardBlockRequestMapper mapper) {
+                                   CardBlockRequestMapper mapper,
+                                   CardOwnerIndex cardOwnerIndex,
+                                   CardStatusIndex cardStatusIndex,
+                                   ApplicationEventPublisher eventPublisher,
+                                   BankcardsMetrics metrics) {
 
         this.cardBlockRequestRepository = cardBlockRequestRepository;
         this.cardRepository = cardRepository;
         this.userRepository = userRepository;
         this.mapper = mapper;
+        this.cardOwnerIndex = cardOwnerIndex;
+        this.cardStatusIndex = cardStatusIndex;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
     }
 
     // User
     @Transactional
     public CardBlockRequestResponse createCardBlockRequest(CardBlockRequestCreate request) {
-        Card card = cardRepository.findById(request.getCardId())
+        if (!cardOwnerIndex.isOwnedBy(request.getCardId(), request.getOwnerId())) {
+            throw new AccessDeniedException("Card with id " + request.getCardId() + " does not belong to user");
+        }
+        // Rejected from memory; the loaded card is checked again below in case the index lags.
+        CardStatus indexed = cardStatusIndex.inactiveStatus(request.getCardId());
+        if (indexed == CardStatus.BLOCKED) {
+            throw new ConflictException("Card with id " + request.getCardId() + " already blocked");
+        }
+
+        Card card = cardRepository.findWithOwnerById(request.getCardId())
                                   .orElseThrow(() -> new NotFoundException("Card with id " + request.getCardId() + " not found"));
+        if (indexed != null) {
+            cardStatusIndex.correct(card.getId(), indexed, card.getStatus());
+        }
 
         if (card.getStatus() == CardStatus.BLOCKED) {
             throw new ConflictException("Card with id " + request.getCardId() + " already blocked");
@@ -65,10 +95,13 @@ public class CardBlockRequestService {
         cardBlockRequest.setUser(user);
         cardBlockRequest.setStatus(CardBlockRequestStatus.PENDING);
 
-        return mapper.toResponse(cardBlockRequestRepository.save(cardBlockRequest));
+        CardBlockRequest saved = cardBlockRequestRepository.save(cardBlockRequest);
+
+        return metrics.timeMapping("card-block-request", () -> mapper.toResponse(saved));
     }
 
     // Admin
+    @Transactional(readOnly = true)
     public Page<CardBlockRequestResponse> getFilteredCardBlockRequests(CardBlockRequestFilter filter, Pageable pageable) {
         Specification<CardBlockRequest> specification = (root, query, cb) -> null;
 
@@ -82,13 +115,16 @@ public class CardBlockRequestService {
             specification = specification.and(CardBlockRequestSpecification.createdBefore(filter.getCreatedBefore()));
         }
 
-        return cardBlockRequestRepository.findAll(specification, pageable).map(mapper::toResponse);
+        Page<CardBlockRequest> requests = cardBlockRequestRepository.findAll(specification, pageable);
+
+        return metrics.timeMapping("card-block-request", () -> requests.map(mapper::toResponse));
     }
 
     // Admin
+    @Transactional
     public String answerCardBlockRequest(Long requestId, Long adminId, CardBlockRequestAnswer answer) {
         CardBlockRequest request = cardBlockRequestRepository
-            .findById(requestId)
+            .findWithCardById(requestId)
             .orElseThrow(() -> new NotFoundException("Request not found"));
 
         User admin = userRepository.findById(adminId)
@@ -104,6 +140,8 @@ public class CardBlockRequestService {
 
             cardRepository.save(card);
             cardBlockRequestRepository.delete(request);
+            eventPublisher.publishEvent(CardChangedEvent.saved(card));
+            metrics.blockDecision(CardBlockRequestStatus.APPROVED);
             return "Approved";
         }
 
@@ -113,6 +151,7 @@ public class CardBlockRequestService {
             request.setProcessedAt(LocalDateTime.now());
 
             cardBlockRequestRepository.delete(request);
+            metrics.blockDecision(CardBlockRequestStatus.REJECTED);
             return "Rejected";
         }
 
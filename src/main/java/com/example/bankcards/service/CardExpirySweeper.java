@@ -0,0 +1,143 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.metrics.BankcardsMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves {@code ACTIVE} and {@code INACTIVE} cards whose expiry date has passed to {@code EXPIRED}.
+ * <p>
+ * Works in set-based chunks straight in SQL, without loading entities: each chunk is one auto-committed
+ * {@code UPDATE} of at most {@code chunk-size} rows picked through {@code idx_cards_status_expiry_date},
+ * skipping rows other transactions hold, so row locks last for a single short statement. Only the node
+ * holding a PostgreSQL advisory lock sweeps; the others skip the run. Expired cards are evicted from the
+ * second-level cache and announced with {@link CardChangedEvent} so ETags and in-memory caches follow.
+ * Blocked cards keep their status.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "application.card-expiry", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CardExpirySweeper {
+
+    /**
+     * Advisory lock key shared by all nodes ("cardexp" in ASCII).
+     */
+    static final long LOCK_KEY = 0x63617264657870L;
+
+    static final String LOCK_SQL = "SELECT pg_try_advisory_lock(?)";
+    static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(?)";
+    static final String EXPIRE_SQL = """
+            UPDATE cards SET status = 'EXPIRED'
+            WHERE id IN (SELECT id FROM cards
+                         WHERE status IN ('ACTIVE', 'INACTIVE') AND expiry_date < ?
+                         LIMIT ? FOR UPDATE SKIP LOCKED)
+            RETURNING id, owner_id, balance, expiry_date""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BankcardsMetrics metrics;
+    private final int chunkSize;
+
+    public CardExpirySweeper(JdbcTemplate jdbcTemplate,
+                             EntityManagerFactory entityManagerFactory,
+                             ApplicationEventPublisher eventPublisher,
+                             BankcardsMetrics metrics,
+                             @Value("${application.card-expiry.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(cron = "${application.card-expiry.cron:0 5 0 * * *}")
+    public void scheduledSweep() {
+        sweep(LocalDate.now());
+    }
+
+    /**
+     * Expires every card with an expiry date before {@code today}.
+     *
+     * @return number of cards expired, {@code 0} when another node is sweeping
+     */
+    public int sweep(LocalDate today) {
+        Integer expired = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(true);
+            try {
+                if (!advisoryLock(connection, LOCK_SQL)) {
+                    log.info("Card expiry sweep skipped, another node holds the lock");
+                    return 0;
+                }
+                try {
+                    return expireInChunks(connection, today);
+                } finally {
+                    advisoryLock(connection, UNLOCK_SQL);
+                }
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+
+        if (expired != null && expired > 0) {
+            log.info("Expired {} cards with expiry date before {}", expired, today);
+        }
+        return expired == null ? 0 : expired;
+    }
+
+    private int expireInChunks(Connection connection, LocalDate today) throws SQLException {
+        int total = 0;
+        try (PreparedStatement statement = connection.prepareStatement(EXPIRE_SQL)) {
+            statement.setObject(1, today);
+            statement.setInt(2, chunkSize);
+
+            List<CardChangedEvent> chunk = new ArrayList<>(chunkSize);
+            do {
+                chunk.clear();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        Date expiryDate = rows.getDate(4);
+                        chunk.add(new CardChangedEvent(rows.getLong(1), rows.getObject(2, Long.class), null, rows.getLong(3), false,
+                                                       CardStatus.EXPIRED, expiryDate == null ? null : expiryDate.toLocalDate()));
+                    }
+                }
+                for (CardChangedEvent event : chunk) {
+                    entityManagerFactory.getCache().evict(Card.class, event.getCardId());
+                    eventPublisher.publishEvent(event);
+                }
+                metrics.cardsExpired(chunk.size());
+                total += chunk.size();
+            } while (chunk.size() == chunkSize && !Thread.currentThread().isInterrupted());
+        }
+        return total;
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardBulkIssueRequest;
+import com.example.bankcards.dto.CardBulkIssueResponse;
+import com.example.bankcards.dto.CardResponse;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.exception.BadRequestException;
+import com.example.bankcards.exception.ConflictException;
+import com.example.bankcards.exception.NotFoundException;
+import com.example.bankcards.metrics.BankcardsMetrics;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardMapper;
+import com.example.bankcards.util.CardNumberCipher;
+import com.example.bankcards.util.Luhn;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Issues many cards in one request.
+ * <p>
+ * Numbers are {@code BIN + account + Luhn check digit}, with accounts taken from a range reserved up front in
+ * {@code card_number_counters}. Manual cards cannot use the issuing BIN, but cards stored before it was
+ * reserved may already hold generated numbers: these are found with one query over the batch and replaced by
+ * freshly reserved accounts, so a single collision never fails the batch. Owners are resolved with one query,
+ * card ids are drawn from the table's sequence in one query and the rows are written with JDBC batches.
+ */
+@Slf4j
+@Service
+public class CardIssuanceService {
+
+    private static final int NUMBER_DIGITS = 16;
+
+    private static final String RESERVE_SQL = """
+            INSERT INTO card_number_counters (bin, next_account) VALUES (?, ?)
+            ON CONFLICT (bin) DO UPDATE SET next_account = card_number_counters.next_account + EXCLUDED.next_account
+            RETURNING next_account - ?""";
+    private static final String IDS_SQL =
+        "SELECT nextval(pg_get_serial_sequence('cards', 'id')) FROM generate_series(1, ?)";
+    private static final String TAKEN_SQL = "SELECT number_hash FROM cards WHERE number_hash = ANY(?)";
+    private static final String INSERT_SQL =
+        "INSERT INTO cards (id, card_number, number_hash, last4, expiry_date, status, balance, owner_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final UserRepository userRepository;
+    private final CardMapper cardMapper;
+    private final CardNumberCipher cardNumberCipher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate reservationTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BankcardsMetrics metrics;
+
+    @Value("${application.card-issuance.bin:400000}")
+    private String bin = "400000";
+
+    @Value("${application.card-issuance.max-cards:10000}")
+    private int maxCards = 10_000;
+
+    @Value("${application.card-issuance.batch-size:1000}")
+    private int batchSize = 1000;
+
+    public CardIssuanceService(UserRepository userRepository,
+                               CardMapper cardMapper,
+                               CardNumberCipher cardNumberCipher,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               ApplicationEventPublisher eventPublisher,
+                               BankcardsMetrics metrics) {
+        this.userRepository = userRepository;
+        this.cardMapper = cardMapper;
+        this.cardNumberCipher = cardNumberCipher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.reservationTransaction = new TransactionTemplate(transactionManager);
+        this.reservationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
+    }
+
+    // Admin
+    @Transactional
+    public CardBulkIssueResponse issueCards(CardBulkIssueRequest request) {
+        List<Long> ownerIds = request.getOwnerIds();
+        if (ownerIds.size() > maxCards) {
+            throw new BadRequestException("At most " + maxCards + " cards can be issued at once");
+        }
+        LocalDate expiryDate = request.getExpiryDate();
+        if (expiryDate == null || !expiryDate.isAfter(LocalDate.now())) {
+            throw new BadRequestException("Expiry date must be in the future");
+        }
+
+        Map<Long, User> owners = findOwners(ownerIds);
+        int count = ownerIds.size();
+        List<String> numbers = freeNumbers(count);
+        List<Long> ids = jdbcTemplate.queryForList(IDS_SQL, Long.class, count);
+
+        List<Card> cards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String number = numbers.get(i);
+            cards.add(Card.builder()
+                          .id(ids.get(i))
+                          .number(number)
+                          .numberHash(cardNumberCipher.blindIndex(number))
+                          .last4(Card.last4Of(number))
+                          .expiryDate(expiryDate)
+                          .status(CardStatus.ACTIVE)
+                          .balance(0)
+                          .owner(owners.get(ownerIds.get(i)))
+                          .build());
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, cards, batchSize, (ps, card) -> {
+            ps.setLong(1, card.getId());
+            ps.setString(2, cardNumberCipher.encrypt(card.getNumber()));
+            ps.setString(3, card.getNumberHash());
+            ps.setString(4, card.getLast4());
+            ps.setObject(5, card.getExpiryDate());
+            ps.setString(6, card.getStatus().name());
+            ps.setLong(7, card.getBalance());
+            ps.setLong(8, card.getOwner().getId());
+        });
+
+        // Delivered after commit, like the events of single-card writes.
+        cards.forEach(card -> eventPublisher.publishEvent(CardChangedEvent.saved(card)));
+
+        List<CardResponse> responses = metrics.timeMapping("card",
+                () -> cards.stream().map(cardMapper::toResponseDto).toList());
+        return CardBulkIssueResponse.builder()
+                                    .issued(count)
+                                    .cards(responses)
+                                    .build();
+    }
+
+    private Map<Long, User> findOwners(List<Long> ownerIds) {
+        Set<Long> distinct = new HashSet<>(ownerIds);
+        Map<Long, User> owners = userRepository.findAllById(distinct).stream()
+                                               .collect(Collectors.toMap(User::getId, Function.identity()));
+        if (owners.size() != distinct.size()) {
+            distinct.removeAll(owners.keySet());
+            throw new NotFoundException("Users not found: " + distinct);
+        }
+        return owners;
+    }
+
+    /**
+     * Generates {@code count} numbers from reserved accounts, replacing those already stored until none is.
+     */
+    private List<String> freeNumbers(int count) {
+        List<String> numbers = new ArrayList<>(count);
+        List<String> hashes = new ArrayList<>(count);
+        List<Integer> pending = new ArrayList<>(count);
+        long account = reserveAccounts(count);
+        for (int i = 0; i < count; i++) {
+            numbers.add(cardNumber(account++));
+            hashes.add(cardNumberCipher.blindIndex(numbers.get(i)));
+            pending.add(i);
+        }
+
+        int skipped = 0;
+        while (!pending.isEmpty()) {
+            Set<String> taken = takenHashes(pending.stream().map(hashes::get).toList());
+            pending.removeIf(i -> !taken.contains(hashes.get(i)));
+            if (!pending.isEmpty()) {
+                skipped += pending.size();
+                account = reserveAccounts(pending.size());
+                for (int i : pending) {
+                    numbers.set(i, cardNumber(account++));
+                    hashes.set(i, cardNumberCipher.blindIndex(numbers.get(i)));
+                }
+            }
+        }
+        if (skipped > 0) {
+            log.warn("Skipped {} generated card numbers for BIN {} that were already stored", skipped, bin);
+        }
+        return numbers;
+    }
+
+    private Set<String> takenHashes(List<String> hashes) {
+        return new HashSet<>(jdbcTemplate.query(TAKEN_SQL, ps -> {
+            Array array = ps.getConnection().createArrayOf("varchar", hashes.toArray());
+            ps.setArray(1, array);
+        }, (rs, rowNum) -> rs.getString(1)));
+    }
+
+    /**
+     * Takes {@code count} consecutive account numbers in a transaction of its own, so the counter row is
+     * locked only briefly; numbers of an issuance that rolls back are skipped, never reused.
+     *
+     * @return the first reserved account number
+     */
+    private long reserveAccounts(int count) {
+        Long first = reservationTransaction.execute(status -> jdbcTemplate.queryForObject(RESERVE_SQL, Long.class, bin, count, count));
+        if (first == null || first + count > (long) Math.pow(10, accountDigits())) {
+            throw new ConflictException("Card numbers for BIN " + bin + " are exhausted");
+        }
+        return first;
+    }
+
+    private int accountDigits() {
+        return NUMBER_DIGITS - 1 - bin.length();
+    }
+
+    /**
+     * Formats {@code BIN + zero-padded account + check digit} as four groups of four digits.
+     */
+    String cardNumber(long account) {
+        StringBuilder digits = new StringBuilder(bin);
+        String accountDigits = Long.toString(account);
+        digits.append("0".repeat(accountDigits() - accountDigits.length())).append(accountDigits);
+        digits.append(Luhn.checkDigit(digits));
+
+        StringBuilder number = new StringBuilder(19);
+        for (int i = 0; i < digits.length(); i++) {
+            if (i > 0 && i % 4 == 0) {
+                number.append(' ');
+            }
+            number.append(digits.charAt(i));
+        }
+        return number.toString();
+    }
+}
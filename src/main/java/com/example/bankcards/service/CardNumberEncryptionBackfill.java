@@ -0,0 +1,106 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.util.CardNumberCipher;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encrypts card numbers written before encryption and fills in their blind index.
+ * <p>
+ * The key lives with the application, not the database, so this cannot be a migration. Runs in the
+ * background when the application is ready and walks the cards without a {@code number_hash} in chunks of
+ * {@code chunk-size} by id, each one query and one JDBC batch; once every card has been rewritten a run
+ * finds nothing. A row is only rewritten while its hash is still missing, so nodes starting together do
+ * not overwrite each other. Cards written through JPA or issued in bulk are encrypted from the start.
+ * <p>
+ * A number already stored under another card violates {@code uc_cards_number_hash} and fails the whole
+ * batch; that chunk is then written row by row, and the conflicting cards are logged and left as they are
+ * for someone to resolve.
+ */
+@Slf4j
+@Component
+public class CardNumberEncryptionBackfill {
+
+    static final String SELECT_SQL =
+        "SELECT id, card_number FROM cards WHERE number_hash IS NULL AND id > ? ORDER BY id LIMIT ?";
+    static final String UPDATE_SQL =
+        "UPDATE cards SET card_number = ?, number_hash = ? WHERE id = ? AND number_hash IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CardNumberCipher cardNumberCipher;
+    private final EntityManagerFactory entityManagerFactory;
+    private final int chunkSize;
+
+    public CardNumberEncryptionBackfill(JdbcTemplate jdbcTemplate,
+                                        CardNumberCipher cardNumberCipher,
+                                        EntityManagerFactory entityManagerFactory,
+                                        @Value("${application.card-encryption.backfill-chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cardNumberCipher = cardNumberCipher;
+        this.entityManagerFactory = entityManagerFactory;
+        this.chunkSize = chunkSize;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long start = System.nanoTime();
+        long lastId = 0;
+        int total = 0;
+        List<Object[]> chunk = new ArrayList<>(chunkSize);
+        List<Long> conflicts = new ArrayList<>();
+        do {
+            chunk.clear();
+            jdbcTemplate.query(SELECT_SQL, row -> {
+                String number = cardNumberCipher.decrypt(row.getString(2));
+                chunk.add(new Object[]{cardNumberCipher.encrypt(number), cardNumberCipher.blindIndex(number), row.getLong(1)});
+            }, lastId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            try {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, chunk);
+                total += chunk.size();
+            } catch (DuplicateKeyException e) {
+                total += updateRowByRow(chunk, conflicts);
+            }
+            lastId = (long) chunk.get(chunk.size() - 1)[2];
+        } while (chunk.size() == chunkSize && !Thread.currentThread().isInterrupted());
+
+        if (total > 0) {
+            // Cached cards still carry the old column values.
+            entityManagerFactory.getCache().evict(Card.class);
+            log.info("Encrypted {} card numbers in {} ms", total, (System.nanoTime() - start) / 1_000_000);
+        }
+        if (!conflicts.isEmpty()) {
+            log.warn("Card numbers of {} cards duplicate other cards' numbers and stay unencrypted, ids: {}",
+                     conflicts.size(), conflicts);
+        }
+    }
+
+    /**
+     * @return number of rows written; ids of rows whose number is taken go to {@code conflicts}
+     */
+    private int updateRowByRow(List<Object[]> chunk, List<Long> conflicts) {
+        int written = 0;
+        for (Object[] row : chunk) {
+            try {
+                written += jdbcTemplate.update(UPDATE_SQL, row);
+            } catch (DuplicateKeyException e) {
+                conflicts.add((Long) row[2]);
+            }
+        }
+        return written;
+    }
+}
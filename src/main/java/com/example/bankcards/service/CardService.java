@@ -1,110 +1,237 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.cache.CardBalanceCache;
+import com.example.bankcards.cache.CardColumnStore;
+import com.example.bankcards.cache.CardOwnerIndex;
+import com.example.bankcards.cache.CardVersionRegistry;
+import com.example.bankcards.config.ReplicaRoutingDataSource;
 import com.example.bankcards.dto.CardFilter;
 import com.example.bankcards.dto.CardCreateRequest;
+import com.example.bankcards.dto.CardListItem;
 import com.example.bankcards.dto.CardResponse;
+import com.example.bankcards.dto.CardScrollResponse;
 import com.example.bankcards.dto.CardUpdateRequest;
 import com.example.bankcards.entity.Card;
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.exception.AccessDeniedException;
+import com.example.bankcards.exception.BadRequestException;
 import com.example.bankcards.exception.ConflictException;
 import com.example.bankcards.exception.NotFoundException;
+import com.example.bankcards.metrics.BankcardsMetrics;
+import com.example.bankcards.repository.CardBlockRequestRepository;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransactionRepository;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.repository.specification.CardSpecification;
 import com.example.bankcards.util.CardMapper;
+import com.example.bankcards.util.CardNumberCipher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class CardService {
 
+    static final int MAX_SCROLL_SIZE = 1000;
+
     private final CardRepository cardRepository;
+    private final UserRepository userRepository;
+    private final TransactionRepository transactionRepository;
+    private final CardBlockRequestRepository cardBlockRequestRepository;
     private final CardMapper cardMapper;
-
-    public CardService(CardRepository cardRepository, CardMapper cardMapper) {
+    private final CardOwnerIndex cardOwnerIndex;
+    private final CardBalanceCache cardBalanceCache;
+    private final CardVersionRegistry cardVersionRegistry;
+    private final CardColumnStore cardColumnStore;
+    private final CardNumberCipher cardNumberCipher;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BankcardsMetrics metrics;
+
+    // Numbers in the issuing BIN are reserved for CardIssuanceService, whose batches must not collide.
+    @Value("${application.card-issuance.bin:400000}")
+    private String issuanceBin = "400000";
+
+    public CardService(CardRepository cardRepository,
+                       UserRepository userRepository,
+                       TransactionRepository transactionRepository,
+                       CardBlockRequestRepository cardBlockRequestRepository,
+                       CardMapper cardMapper,
+                       CardOwnerIndex cardOwnerIndex,
+                       CardBalanceCache cardBalanceCache,
+                       CardVersionRegistry cardVersionRegistry,
+                       CardColumnStore cardColumnStore,
+                       CardNumberCipher cardNumberCipher,
+                       ApplicationEventPublisher eventPublisher,
+                       BankcardsMetrics metrics) {
         this.cardRepository = cardRepository;
+        this.userRepository = userRepository;
+        this.transactionRepository = transactionRepository;
+        this.cardBlockRequestRepository = cardBlockRequestRepository;
         this.cardMapper = cardMapper;
+        this.cardOwnerIndex = cardOwnerIndex;
+        this.cardBalanceCache = cardBalanceCache;
+        this.cardVersionRegistry = cardVersionRegistry;
+        this.cardColumnStore = cardColumnStore;
+        this.cardNumberCipher = cardNumberCipher;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
     }
 
     // Admin
+    @Transactional
     public CardResponse createCard(CardCreateRequest cardCreateRequest) {
 
-        if (cardRepository.existsByNumber(cardCreateRequest.getNumber())) {
+        if (cardCreateRequest.getNumber().replace(" ", "").startsWith(issuanceBin)) {
+            throw new BadRequestException("Card numbers with BIN " + issuanceBin + " are reserved for issued cards");
+        }
+        String numberHash = cardNumberCipher.blindIndex(cardCreateRequest.getNumber());
+        if (cardRepository.existsByNumberHash(numberHash)) {
             throw new ConflictException("Card number already exists");
         }
 
         Card card = cardMapper.toEntity(cardCreateRequest);
-        return cardMapper.toResponseDto(cardRepository.save(card));
+        card.setNumberHash(numberHash);
+        card = cardRepository.save(card);
+        eventPublisher.publishEvent(CardChangedEvent.saved(card));
+
+        return toResponse(card);
     }
 
     //Admin
+    @Transactional(readOnly = true)
     public CardResponse getCardById(long cardId) {
-        return cardMapper.toResponseDto(cardRepository.findById(cardId)
+        return toResponse(cardRepository.findWithOwnerById(cardId)
                 .orElseThrow(() -> new NotFoundException("Card with id " + cardId + " not found")));
     }
 
-    private void applyFilters(CardFilter filter, Specification<Card> specification) {
-        if (filter != null) {
-            if (filter.getStatus() != null) {
-                specification = specification.and(CardSpecification.hasStatus(filter.getStatus()));
-            }
-            if (filter.getFromDate() != null) {
-                specification = specification.and(CardSpecification.expiryDateAfter(filter.getFromDate()));
-            }
-            if (filter.getToDate() != null) {
-                specification = specification.and(CardSpecification.expiryDateBefore(filter.getToDate()));
-            }
-            if (filter.getMaxBalance() != null) {
-                specification = specification.and(CardSpecification.balanceLessThan(filter.getMaxBalance()));
-            }
-            if (filter.getMinBalance() != null) {
-                specification = specification.and(CardSpecification.balanceMoreThan(filter.getMinBalance()));
-            }
-        }
-    }
-
     // Admin
+    // Answers behind the list ETag, so they are read from the primary the ETag follows.
+    @Transactional(readOnly = true, label = ReplicaRoutingDataSource.PRIMARY_LABEL)
     public Page<CardResponse> getAllCards(CardFilter filter, Pageable pageable) {
-        Specification<Card> specification = (root, query, cb) -> null;
+        if (cardColumnStore.isReady() && cardColumnStore.supports(pageable.getSort())
+                && (filter == null || filter.getLast4() == null)) {
+            return toListResponse(findAllFromColumnStore(filter, pageable));
+        }
+        Specification<Card> specification = CardSpecification.matching((root, query, cb) -> null, filter);
 
-        applyFilters(filter, specification);
+        return toListResponse(cardRepository.findListItems(specification, pageable));
+    }
 
-        return cardRepository.findAll(specification, pageable).map(cardMapper::toResponseDto);
+    // Admin
+    /**
+     * Cards of a user in id order after {@code afterId}, one keyset page at a time, so a user with any number
+     * of cards can be walked page by page in constant memory.
+     */
+    @Transactional(readOnly = true)
+    public CardScrollResponse getUserCards(long userId, long afterId, int size) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+        // One extra card tells whether another page follows without counting.
+        List<CardListItem> cards = cardRepository.findListItemsByOwnerIdAfter(userId, afterId, size + 1);
+        if (cards.isEmpty() && !userRepository.existsById(userId)) {
+            throw new NotFoundException("Not found user with id: " + userId);
+        }
+        boolean hasNext = cards.size() > size;
+        List<CardListItem> page = hasNext ? cards.subList(0, size) : cards;
+        List<CardResponse> responses = metrics.timeMapping("card", () -> page.stream().map(cardMapper::toResponseDto).toList());
+        return new CardScrollResponse(responses, hasNext ? page.get(size - 1).getId() : null);
     }
 
     // User
+    @Transactional(readOnly = true, label = ReplicaRoutingDataSource.PRIMARY_LABEL)
     public Page<CardResponse> getFilteredCards(long userId, CardFilter filter, Pageable pageable) {
-        Specification<Card> specification = CardSpecification.belongsToUser(userId);
+        Specification<Card> specification = CardSpecification.matching(CardSpecification.belongsToUser(userId), filter);
 
-        applyFilters(filter, specification);
-
-        return cardRepository.findAll(specification, pageable).map(cardMapper::toResponseDto);
+        return toListResponse(cardRepository.findListItems(specification, pageable));
     }
 
     //Admin
+    @Transactional
     public CardResponse updateCard(long cardId, CardUpdateRequest cardUpdateRequest) {
-        Card card = cardRepository.findById(cardId)
+        Card card = cardRepository.findWithOwnerById(cardId)
                 .orElseThrow(() -> new NotFoundException("Card with id " + cardId + " not found"));
 
+        Long previousOwnerId = CardChangedEvent.ownerIdOf(card);
         cardMapper.updateEntityFromDto(card, cardUpdateRequest);
-        return cardMapper.toResponseDto(cardRepository.save(card));
+        card = cardRepository.save(card);
+        eventPublisher.publishEvent(CardChangedEvent.updated(card, previousOwnerId));
+
+        return toResponse(card);
     }
 
     // Admin
+    @Transactional
     public void deleteCard(long cardId) {
         Card card = cardRepository.findById(cardId)
                 .orElseThrow(() -> new NotFoundException("Card with id " + cardId + " not found"));
 
+        // Dependents go first, each in one statement; the card does not cascade to them.
+        transactionRepository.deleteByCardId(cardId);
+        cardBlockRequestRepository.deleteByCardId(cardId);
         cardRepository.deleteById(cardId);
+        eventPublisher.publishEvent(CardChangedEvent.deleted(card));
     }
 
 
     // User
-    public long getCardBalance(long cardId) {
-        Card card = cardRepository.findById(cardId)
-                .orElseThrow(() -> new NotFoundException("Card with id " + cardId + " not found"));
+    public long getCardBalance(long cardId, long userId) {
+        checkOwnership(cardId, userId);
+
+        return cardBalanceCache.getBalance(cardId);
+    }
+
+    /**
+     * ETag of the card list: the whole table for admins, the user's own cards otherwise.
+     */
+    public String getCardsETag(long userId, boolean admin) {
+        return admin ? cardVersionRegistry.globalTag() : cardVersionRegistry.ownerTag(userId);
+    }
+
+    // User
+    public String getCardBalanceETag(long cardId, long userId) {
+        checkOwnership(cardId, userId);
+
+        return cardVersionRegistry.cardTag(cardId);
+    }
 
-        return card.getBalance();
+    /**
+     * Filters and orders in memory, then loads only the cards of the page, keeping the store's order.
+     */
+    private Page<CardListItem> findAllFromColumnStore(CardFilter filter, Pageable pageable) {
+        Page<Long> ids = cardColumnStore.findIds(filter, pageable);
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ids.getTotalElements());
+        }
+        Map<Long, CardListItem> cards = cardRepository.findListItemsByIdIn(ids.getContent()).stream()
+                                                      .collect(Collectors.toMap(CardListItem::getId, Function.identity()));
+        // A card deleted between the scan and the load is simply missing from the page.
+        List<CardListItem> page = ids.getContent().stream().map(cards::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(page, pageable, ids.getTotalElements());
+    }
+
+    private CardResponse toResponse(Card card) {
+        return metrics.timeMapping("card", () -> cardMapper.toResponseDto(card));
+    }
+
+    private Page<CardResponse> toListResponse(Page<CardListItem> cards) {
+        return metrics.timeMapping("card", () -> cards.map(cardMapper::toResponseDto));
+    }
+
+    private void checkOwnership(long cardId, long userId) {
+        if (!cardOwnerIndex.isOwnedBy(cardId, userId)) {
+            throw new AccessDeniedException("Card with id " + cardId + " does not belong to user");
+        }
     }
 }
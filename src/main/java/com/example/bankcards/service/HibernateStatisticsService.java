@@ -0,0 +1,71 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CacheRegionStatisticsResponse;
+import com.example.bankcards.dto.HibernateStatisticsResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+@Service
+public class HibernateStatisticsService {
+
+    private final Statistics statistics;
+
+    public HibernateStatisticsService(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Admin
+    public HibernateStatisticsResponse getStatistics() {
+        List<CacheRegionStatisticsResponse> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(statistics::getCacheRegionStatistics)
+                .filter(Objects::nonNull)
+                .map(HibernateStatisticsService::toResponse)
+                .toList();
+
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long misses = statistics.getSecondLevelCacheMissCount();
+
+        return HibernateStatisticsResponse.builder()
+                .statisticsEnabled(statistics.isStatisticsEnabled())
+                .sessionOpenCount(statistics.getSessionOpenCount())
+                .prepareStatementCount(statistics.getPrepareStatementCount())
+                .queryExecutionCount(statistics.getQueryExecutionCount())
+                .entityLoadCount(statistics.getEntityLoadCount())
+                .entityFetchCount(statistics.getEntityFetchCount())
+                .secondLevelCacheHitCount(hits)
+                .secondLevelCacheMissCount(misses)
+                .secondLevelCachePutCount(statistics.getSecondLevelCachePutCount())
+                .secondLevelCacheHitRatio(ratio(hits, misses))
+                .regions(regions)
+                .build();
+    }
+
+    // Admin
+    public void clear() {
+        statistics.clear();
+    }
+
+    private static CacheRegionStatisticsResponse toResponse(CacheRegionStatistics region) {
+        return CacheRegionStatisticsResponse.builder()
+                .region(region.getRegionName())
+                .hitCount(region.getHitCount())
+                .missCount(region.getMissCount())
+                .putCount(region.getPutCount())
+                .hitRatio(ratio(region.getHitCount(), region.getMissCount()))
+                .elementCountInMemory(region.getElementCountInMemory())
+                .build();
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardTokenResponse;
+import com.example.bankcards.exception.BadRequestException;
+import com.example.bankcards.exception.NotFoundException;
+import com.example.bankcards.metrics.BankcardsMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Opaque card tokens for downstream systems, stored in {@code card_tokens}.
+ * <p>
+ * A token is 128 random bits in URL-safe Base64, issued once per card and never reassigned, so resolved
+ * tokens are cached in process without invalidation: the hot path is one lookup in a bounded Caffeine
+ * cache, and only a miss reads the vault. A token of a deleted card keeps resolving until it is evicted;
+ * the card lookup that follows reports the card as not found. Tokens are issued in batches with one
+ * existence query and one JDBC batch.
+ */
+@Service
+public class TokenService {
+
+    static final String RESOLVE_SQL = "SELECT card_id FROM card_tokens WHERE token = :token";
+    static final String CARDS_SQL =
+        "SELECT c.id, t.token FROM cards c LEFT JOIN card_tokens t ON t.card_id = c.id WHERE c.id IN (:ids)";
+    static final String INSERT_SQL =
+        "INSERT INTO card_tokens (token, card_id) VALUES (:token, :cardId) ON CONFLICT (card_id) DO NOTHING";
+    static final String TOKENS_SQL = "SELECT card_id, token FROM card_tokens WHERE card_id IN (:ids)";
+
+    private static final int TOKEN_BYTES = 16;
+    private static final int TOKEN_LENGTH = 22;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Cache<String, Long> tokenCache;
+    private final Function<String, Long> loader = this::load;
+    private final SecureRandom random = new SecureRandom();
+    private final int maxBatch;
+
+    public TokenService(NamedParameterJdbcTemplate jdbcTemplate,
+                        BankcardsMetrics metrics,
+                        @Value("${application.card-tokens.cache-size:100000}") long cacheSize,
+                        @Value("${application.card-tokens.max-batch:10000}") int maxBatch) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tokenCache = Caffeine.newBuilder()
+                                  .maximumSize(cacheSize)
+                                  .recordStats()
+                                  .build();
+        this.maxBatch = maxBatch;
+        metrics.monitorCache("card-tokens", tokenCache);
+    }
+
+    /**
+     * @throws NotFoundException when no card has this token
+     */
+    public long resolve(String token) {
+        Long cardId = isWellFormed(token) ? tokenCache.get(token, loader) : null;
+        if (cardId == null) {
+            throw new NotFoundException("Card token not found");
+        }
+        return cardId;
+    }
+
+    /**
+     * Tokens of the given cards, issuing them for cards that have none, in the order the ids were given
+     * with duplicates removed.
+     */
+    @Transactional
+    public List<CardTokenResponse> issueTokens(List<Long> cardIds) {
+        if (cardIds.size() > maxBatch) {
+            throw new BadRequestException("At most " + maxBatch + " tokens can be issued at once");
+        }
+        Set<Long> distinct = new LinkedHashSet<>(cardIds);
+        Map<Long, String> tokens = new HashMap<>();
+        jdbcTemplate.query(CARDS_SQL, Map.of("ids", distinct), row -> {
+            tokens.put(row.getLong(1), row.getString(2));
+        });
+        if (tokens.size() != distinct.size()) {
+            Set<Long> missing = new LinkedHashSet<>(distinct);
+            missing.removeAll(tokens.keySet());
+            throw new NotFoundException("Cards not found: " + missing);
+        }
+
+        List<Long> untokenized = new ArrayList<>();
+        tokens.forEach((cardId, token) -> {
+            if (token == null) {
+                untokenized.add(cardId);
+            }
+        });
+        if (!untokenized.isEmpty()) {
+            SqlParameterSource[] batch = untokenized.stream()
+                                                    .map(cardId -> new MapSqlParameterSource("token", newToken())
+                                                            .addValue("cardId", cardId))
+                                                    .toArray(SqlParameterSource[]::new);
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+            // A concurrent request may have tokenized some of these cards first; its tokens are the ones stored.
+            jdbcTemplate.query(TOKENS_SQL, Map.of("ids", untokenized), row -> {
+                tokens.put(row.getLong(1), row.getString(2));
+            });
+        }
+
+        List<CardTokenResponse> responses = new ArrayList<>(distinct.size());
+        for (Long cardId : distinct) {
+            String token = tokens.get(cardId);
+            tokenCache.put(token, cardId);
+            responses.add(new CardTokenResponse(cardId, token));
+        }
+        return responses;
+    }
+
+    private Long load(String token) {
+        List<Long> cardId = jdbcTemplate.queryForList(RESOLVE_SQL, Map.of("token", token), Long.class);
+        return cardId.isEmpty() ? null : cardId.get(0);
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Rejects what cannot be a token before it reaches the cache or the vault.
+     */
+    private static boolean isWellFormed(String token) {
+        if (token == null || token.length() != TOKEN_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < TOKEN_LENGTH; i++) {
+            char c = token.charAt(i);
+            if (!(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '-' || c == '_')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,16 +1,25 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.cache.CardOwnerIndex;
+import com.example.bankcards.cache.CardStatusIndex;
 import com.example.bankcards.dto.TransactionRequest;
 import com.example.bankcards.dto.TransactionResponse;
 import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.Transaction;
 import com.example.bankcards.entity.TransactionStatus;
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.exception.AccessDeniedException;
 import com.example.bankcards.exception.BadRequestException;
 import com.example.bankcards.exception.NotFoundException;
+import com.example.bankcards.metrics.BankcardsMetrics;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.TransactionRepository;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.util.TransactionMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,35 +30,82 @@ public class TransactionService {
     private final CardRepository cardRepository;
     private final UserRepository userRepository;
     private final TransactionMapper mapper;
+    private final CardOwnerIndex cardOwnerIndex;
+    private final CardStatusIndex cardStatusIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BankcardsMetrics metrics;
 
-    public TransactionService(TransactionRepository transactionRepository, CardRepository cardRepository, TransactionMapper mapper, UserRepository userRepository) {
+    public TransactionService(TransactionRepository transactionRepository, CardRepository cardRepository, TransactionMapper mapper, UserRepository userRepository, CardOwnerIndex cardOwnerIndex, CardStatusIndex cardStatusIndex, ApplicationEventPublisher eventPublisher, BankcardsMetrics metrics) {
         this.transactionRepository = transactionRepository;
         this.cardRepository = cardRepository;
         this.mapper = mapper;
         this.userRepository = userRepository;
+        this.cardOwnerIndex = cardOwnerIndex;
+        this.cardStatusIndex = cardStatusIndex;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
     }
 
     @Transactional
-    public TransactionResponse createTransaction(TransactionRequest request) {
+    public TransactionResponse createTransaction(TransactionRequest request, long userId) {
+        long fromOwnerId = cardOwnerIndex.getOwnerId(request.getFromCardId());
+        if (fromOwnerId != userId) {
+            throw new AccessDeniedException("Card with id " + request.getFromCardId() + " does not belong to user");
+        }
+        long toOwnerId = cardOwnerIndex.getOwnerId(request.getToCardId());
+
+        // Rejected from memory; the loaded cards are checked again below in case the index lags.
+        checkActive(request.getFromCardId(), cardStatusIndex.inactiveStatus(request.getFromCardId()));
+        checkActive(request.getToCardId(), cardStatusIndex.inactiveStatus(request.getToCardId()));
+
         Card fromCard = cardRepository.findById(request.getFromCardId())
                 .orElseThrow(() -> new NotFoundException("Card with id " + request.getFromCardId() + " not found"));
         Card toCard = cardRepository.findById(request.getToCardId())
                 .orElseThrow(() -> new NotFoundException("Card with id " + request.getToCardId() + " not found"));
+        checkActive(fromCard.getId(), fromCard.getStatus());
+        checkActive(toCard.getId(), toCard.getStatus());
 
         Transaction transaction = mapper.toEntity(request, fromCard, toCard);
 
-        if (!fromCard.getOwner().getId().equals(toCard.getOwner().getId())) {
+        if (fromOwnerId != toOwnerId) {
             transaction.setStatus(TransactionStatus.CANCELLED);
             transactionRepository.save(transaction);
+            metrics.transfer(TransactionStatus.CANCELLED);
             throw new BadRequestException("Transfer can be made only between yours cards");
         }
 
         if (transaction.getFromCard().getBalance() < request.getAmount()) {
             transaction.setStatus(TransactionStatus.FAILED);
             transactionRepository.save(transaction);
+            metrics.transfer(TransactionStatus.FAILED);
             throw new BadRequestException("Insufficient funds");
         }
 
-        return mapper.toResponse(transactionRepository.save(transaction), userRepository);
+        Transaction saved = transactionRepository.save(transaction);
+        metrics.transfer(saved.getStatus());
+
+        // Balance caches pick up the state of both cards once the transfer commits.
+        eventPublisher.publishEvent(CardChangedEvent.saved(fromCard));
+        eventPublisher.publishEvent(CardChangedEvent.saved(toCard));
+
+        return metrics.timeMapping("transaction", () -> mapper.toResponse(saved, userRepository));
+    }
+
+    /**
+     * Transfers from or to the card, a page at a time; users see only their own cards.
+     */
+    @Transactional(readOnly = true)
+    public Page<TransactionResponse> getCardTransactions(long cardId, long userId, boolean admin, Pageable pageable) {
+        if (!admin && cardOwnerIndex.getOwnerId(cardId) != userId) {
+            throw new AccessDeniedException("Card with id " + cardId + " does not belong to user");
+        }
+        Page<Transaction> transactions = transactionRepository.findByCardId(cardId, pageable);
+        return metrics.timeMapping("transaction", () -> transactions.map(mapper::toHistoryResponse));
+    }
+
+    private static void checkActive(long cardId, CardStatus status) {
+        if (status != null && status != CardStatus.ACTIVE) {
+            throw new BadRequestException("Card with id " + cardId + " is " + status.name().toLowerCase());
+        }
     }
-}
\ No newline at end of file
+}
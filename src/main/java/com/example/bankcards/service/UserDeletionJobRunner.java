@@ -0,0 +1,155 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserDeletionJob;
+import com.example.bankcards.entity.UserDeletionJobStatus;
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.event.UserDeletedEvent;
+import com.example.bankcards.event.UserDeletionRequestedEvent;
+import com.example.bankcards.repository.UserDeletionJobRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.util.List;
+
+/**
+ * Deletes a user and everything referencing them with set-based SQL, in dependency order.
+ * <p>
+ * Cards go in chunks of {@code cards-per-chunk}, each chunk one short transaction: its cards are locked,
+ * then their transactions, block requests and the cards themselves are deleted with one statement each,
+ * and the job's progress is counted. Locks are held for one chunk only and at most one chunk of ids is in
+ * memory. Card tokens go with their cards through their foreign key. Once no card is left, the user's own
+ * block requests and the user are deleted and block requests they decided are kept without their name.
+ * <p>
+ * Jobs start after the transaction creating them commits; jobs a stopped node left unfinished are picked up
+ * again when the application is ready. Every step can be repeated, so a job run twice does no harm.
+ */
+@Slf4j
+@Component
+public class UserDeletionJobRunner {
+
+    static final String CARDS_SQL = "SELECT id FROM cards WHERE owner_id = ? ORDER BY id LIMIT ? FOR UPDATE";
+    static final String DELETE_TRANSACTIONS_SQL = "DELETE FROM transactions WHERE from_card_id = ANY(?) OR to_card_id = ANY(?)";
+    static final String DELETE_CARD_BLOCK_REQUESTS_SQL = "DELETE FROM card_block_requests WHERE card_id = ANY(?)";
+    static final String DELETE_CARDS_SQL = "DELETE FROM cards WHERE id = ANY(?)";
+    static final String PROGRESS_SQL =
+        "UPDATE user_deletion_jobs SET status = 'RUNNING', cards_deleted = cards_deleted + ? WHERE id = ?";
+    static final String DELETE_USER_BLOCK_REQUESTS_SQL = "DELETE FROM card_block_requests WHERE user_id = ?";
+    static final String RELEASE_PROCESSED_SQL = "UPDATE card_block_requests SET processed_by = NULL WHERE processed_by = ?";
+    static final String DELETE_USER_SQL = "DELETE FROM users WHERE id = ?";
+    static final String FINISH_SQL = "UPDATE user_deletion_jobs SET status = ?, error = ?, finished_at = now() WHERE id = ?";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final UserDeletionJobRepository jobRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int cardsPerChunk;
+
+    public UserDeletionJobRunner(UserDeletionJobRepository jobRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 EntityManagerFactory entityManagerFactory,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${application.user-deletion.cards-per-chunk:100}") int cardsPerChunk) {
+        this.jobRepository = jobRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+        this.cardsPerChunk = cardsPerChunk;
+    }
+
+    @Async
+    @TransactionalEventListener
+    public void onDeletionRequested(UserDeletionRequestedEvent event) {
+        jobRepository.findById(event.getJobId()).ifPresent(this::run);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        jobRepository.findByStatusIn(UserDeletionService.UNFINISHED).forEach(this::run);
+    }
+
+    void run(UserDeletionJob job) {
+        long start = System.nanoTime();
+        long userId = job.getUserId();
+        try {
+            long deleted = 0;
+            List<Long> cardIds;
+            do {
+                cardIds = chunkTransaction.execute(status -> deleteCards(job.getId(), userId));
+                for (Long cardId : cardIds) {
+                    entityManagerFactory.getCache().evict(Card.class, cardId);
+                    eventPublisher.publishEvent(new CardChangedEvent(cardId, userId, null, 0, true, null, null));
+                }
+                deleted += cardIds.size();
+            } while (!cardIds.isEmpty() && !Thread.currentThread().isInterrupted());
+
+            if (!cardIds.isEmpty()) {
+                log.info("User deletion job {} interrupted after {} cards, it resumes on the next start", job.getId(), deleted);
+                return;
+            }
+
+            chunkTransaction.executeWithoutResult(status -> {
+                jdbcTemplate.update(DELETE_USER_BLOCK_REQUESTS_SQL, userId);
+                jdbcTemplate.update(RELEASE_PROCESSED_SQL, userId);
+                jdbcTemplate.update(DELETE_USER_SQL, userId);
+                jdbcTemplate.update(FINISH_SQL, UserDeletionJobStatus.COMPLETED.name(), null, job.getId());
+            });
+            entityManagerFactory.getCache().evict(User.class, userId);
+            eventPublisher.publishEvent(new UserDeletedEvent(userId));
+            log.info("User {} and {} cards deleted by job {} in {} ms",
+                     userId, deleted, job.getId(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("User deletion job {} for user {} failed", job.getId(), userId, e);
+            String error = String.valueOf(e.getMessage());
+            jdbcTemplate.update(FINISH_SQL, UserDeletionJobStatus.FAILED.name(),
+                                error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error, job.getId());
+        }
+    }
+
+    /**
+     * Deletes the next chunk of the user's cards with everything that references them.
+     *
+     * @return ids of the deleted cards, empty when the user has none left
+     */
+    private List<Long> deleteCards(long jobId, long userId) {
+        List<Long> cardIds = jdbcTemplate.queryForList(CARDS_SQL, Long.class, userId, cardsPerChunk);
+        if (cardIds.isEmpty()) {
+            return cardIds;
+        }
+        updateWithIds(DELETE_TRANSACTIONS_SQL, cardIds, 2);
+        updateWithIds(DELETE_CARD_BLOCK_REQUESTS_SQL, cardIds, 1);
+        updateWithIds(DELETE_CARDS_SQL, cardIds, 1);
+        jdbcTemplate.update(PROGRESS_SQL, cardIds.size(), jobId);
+        return cardIds;
+    }
+
+    /**
+     * Runs {@code sql} with the ids bound as one {@code bigint[]} to each of its {@code parameters}.
+     */
+    private void updateWithIds(String sql, List<Long> ids, int parameters) {
+        jdbcTemplate.update(sql, ps -> {
+            Array array = ps.getConnection().createArrayOf("bigint", ids.toArray());
+            for (int i = 1; i <= parameters; i++) {
+                ps.setArray(i, array);
+            }
+        });
+    }
+}
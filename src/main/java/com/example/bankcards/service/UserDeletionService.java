@@ -0,0 +1,78 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.UserDeletionJobResponse;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserDeletionJob;
+import com.example.bankcards.entity.UserDeletionJobStatus;
+import com.example.bankcards.entity.UserStatus;
+import com.example.bankcards.event.UserDeletionRequestedEvent;
+import com.example.bankcards.exception.NotFoundException;
+import com.example.bankcards.repository.UserDeletionJobRepository;
+import com.example.bankcards.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Accepts user deletions and reports their progress; the deleting itself is done by
+ * {@link UserDeletionJobRunner} in the background.
+ */
+@Service
+public class UserDeletionService {
+
+    static final Set<UserDeletionJobStatus> UNFINISHED = EnumSet.of(UserDeletionJobStatus.PENDING, UserDeletionJobStatus.RUNNING);
+
+    private final UserRepository userRepository;
+    private final UserDeletionJobRepository jobRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserDeletionService(UserRepository userRepository,
+                               UserDeletionJobRepository jobRepository,
+                               ApplicationEventPublisher eventPublisher) {
+        this.userRepository = userRepository;
+        this.jobRepository = jobRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Deactivates the user and schedules their deletion; asking again while a deletion is unfinished
+     * returns that job.
+     */
+    @Transactional
+    public UserDeletionJobResponse deleteUser(long userId) {
+        User user = userRepository.findById(userId)
+                                  .orElseThrow(() -> new NotFoundException("Not found user with id: " + userId));
+
+        UserDeletionJob job = jobRepository.findFirstByUserIdAndStatusIn(userId, UNFINISHED).orElse(null);
+        if (job == null) {
+            user.setStatus(UserStatus.INACTIVE);
+            job = jobRepository.save(UserDeletionJob.builder()
+                                                    .userId(userId)
+                                                    .status(UserDeletionJobStatus.PENDING)
+                                                    .build());
+            eventPublisher.publishEvent(new UserDeletionRequestedEvent(job.getId()));
+        }
+        return toResponse(job);
+    }
+
+    @Transactional(readOnly = true)
+    public UserDeletionJobResponse getJob(long jobId) {
+        return toResponse(jobRepository.findById(jobId)
+                                       .orElseThrow(() -> new NotFoundException("Not found user deletion job with id: " + jobId)));
+    }
+
+    private static UserDeletionJobResponse toResponse(UserDeletionJob job) {
+        return UserDeletionJobResponse.builder()
+                                      .id(job.getId())
+                                      .userId(job.getUserId())
+                                      .status(job.getStatus())
+                                      .cardsDeleted(job.getCardsDeleted())
+                                      .error(job.getError())
+                                      .createdAt(job.getCreatedAt())
+                                      .finishedAt(job.getFinishedAt())
+                                      .build();
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.UserCreateRequest;
+import com.example.bankcards.dto.UserImportError;
+import com.example.bankcards.dto.UserImportResult;
+import com.example.bankcards.entity.UserRole;
+import com.example.bankcards.entity.UserStatus;
+import com.example.bankcards.exception.BadRequestException;
+import com.example.bankcards.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams users from a CSV or NDJSON upload into the {@code users} table.
+ * <p>
+ * The input is read line by line and processed in fixed-size chunks: emails of a chunk are checked
+ * against the database with a single query, passwords are hashed in parallel and the surviving rows
+ * are written with one JDBC batch. Only one chunk is held in memory at a time.
+ */
+@Service
+public class UserImportService {
+
+    public static final String CSV = "text/csv";
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final String CSV_HEADER = "name,email,password,role";
+    private static final String INSERT_SQL =
+        "INSERT INTO users (name, email, password, role, status) VALUES (?, ?, ?, ?, ?)";
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${application.user-import.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${application.user-import.max-reported-errors:1000}")
+    private int maxReportedErrors = 1000;
+
+    public UserImportService(UserRepository userRepository,
+                             PasswordEncoder passwordEncoder,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             Validator validator) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    public UserImportResult importUsers(InputStream body, String contentType) {
+        boolean csv = isCsv(contentType);
+        Report report = new Report(maxReportedErrors);
+        List<Row> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+
+                if (line.isBlank() || (csv && lineNumber == 1 && line.trim().equalsIgnoreCase(CSV_HEADER))) {
+                    continue;
+                }
+
+                report.processed++;
+                Row row = parse(line, lineNumber, csv, report);
+                if (row != null) {
+                    chunk.add(row);
+                }
+
+                if (chunk.size() >= chunkSize) {
+                    importChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new BadRequestException("Failed to read import file: " + e.getMessage());
+        }
+
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, report);
+        }
+
+        return report.toResult();
+    }
+
+    private static boolean isCsv(String contentType) {
+        if (contentType == null) {
+            throw new BadRequestException("Content-Type must be " + CSV + " or " + NDJSON);
+        }
+        if (contentType.startsWith(CSV)) {
+            return true;
+        }
+        if (contentType.startsWith(NDJSON)) {
+            return false;
+        }
+        throw new BadRequestException("Content-Type must be " + CSV + " or " + NDJSON);
+    }
+
+    private Row parse(String line, long lineNumber, boolean csv, Report report) {
+        UserCreateRequest request;
+        try {
+            request = csv ? parseCsv(line) : objectMapper.readValue(line, UserCreateRequest.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            request = null;
+        }
+
+        if (request == null) {
+            report.fail(lineNumber, null, "Malformed row");
+            return null;
+        }
+
+        String error = validate(request);
+        if (error != null) {
+            report.fail(lineNumber, request.getEmail(), error);
+            return null;
+        }
+
+        return new Row(lineNumber, request);
+    }
+
+    private static UserCreateRequest parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() != 4) {
+            throw new IllegalArgumentException("Expected 4 columns");
+        }
+        UserRole role = fields.get(3).isBlank() ? null : UserRole.valueOf(fields.get(3).trim().toUpperCase());
+        return new UserCreateRequest(fields.get(0).trim(), fields.get(1).trim(), fields.get(2), role);
+    }
+
+    /**
+     * Splits a single CSV line, honouring double-quoted fields with {@code ""} escapes.
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+
+        return fields;
+    }
+
+    private String validate(UserCreateRequest request) {
+        if (request.getName() == null || request.getName().isBlank()) {
+            return "Name is required";
+        }
+        if (request.getEmail() == null || request.getEmail().isBlank()) {
+            return "Email is required";
+        }
+        if (request.getPassword() == null || request.getPassword().isBlank()) {
+            return "Password is required";
+        }
+        if (request.getRole() == null) {
+            return "Role is required";
+        }
+
+        Set<ConstraintViolation<UserCreateRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<UserCreateRequest> violation = violations.iterator().next();
+            return violation.getPropertyPath() + ": " + violation.getMessage();
+        }
+
+        return null;
+    }
+
+    private void importChunk(List<Row> chunk, Report report) {
+        Set<String> existing = userRepository.findExistingEmails(
+            chunk.stream().map(row -> row.request.getEmail()).collect(Collectors.toSet()));
+
+        Set<String> seen = new HashSet<>();
+        List<Row> accepted = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            String email = row.request.getEmail();
+            if (existing.contains(email) || !seen.add(email)) {
+                report.fail(row.line, email, "User with this email already exists");
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        // BCrypt dominates the cost of an import, so spread it over all cores.
+        List<String> hashes = accepted.parallelStream()
+                                      .map(row -> passwordEncoder.encode(row.request.getPassword()))
+                                      .toList();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(accepted, hashes));
+            report.imported += accepted.size();
+        } catch (DataAccessException e) {
+            // Someone raced us on an email or a row is otherwise rejected; isolate the offending rows one by one.
+            for (int i = 0; i < accepted.size(); i++) {
+                Row row = accepted.get(i);
+                try {
+                    insert(List.of(row), List.of(hashes.get(i)));
+                    report.imported++;
+                } catch (DuplicateKeyException rowException) {
+                    report.fail(row.line, row.request.getEmail(), "User with this email already exists");
+                } catch (DataAccessException rowException) {
+                    report.fail(row.line, row.request.getEmail(),
+                                "User could not be saved: " + rowException.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private void insert(List<Row> rows, List<String> hashes) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                UserCreateRequest request = rows.get(i).request;
+                ps.setString(1, request.getName());
+                ps.setString(2, request.getEmail());
+                ps.setString(3, hashes.get(i));
+                ps.setString(4, request.getRole().name());
+                ps.setString(5, UserStatus.ACTIVE.name());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    private record Row(long line, UserCreateRequest request) {
+    }
+
+    private static final class Report {
+        private final int maxErrors;
+        private final List<UserImportError> errors = new ArrayList<>();
+        private long processed;
+        private long imported;
+        private long failed;
+
+        private Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void fail(long line, String email, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new UserImportError(line, email, message));
+            }
+        }
+
+        private UserImportResult toResult() {
+            return UserImportResult.builder()
+                                   .processed(processed)
+                                   .imported(imported)
+                                   .failed(failed)
+                                   .errors(errors)
+                                   .errorsTruncated(failed > errors.size())
+                                   .build();
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package com.example.bankcards.service;
 
 
+import com.example.bankcards.dto.UserCardSummaryResponse;
 import com.example.bankcards.dto.UserCreateRequest;
 import com.example.bankcards.dto.UserUpdateRequest;
 import com.example.bankcards.dto.UserResponse;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserCardSummary;
+import com.example.bankcards.event.UserUpdatedEvent;
+import com.example.bankcards.exception.AccessDeniedException;
 import com.example.bankcards.exception.ConflictException;
 import com.example.bankcards.exception.NotFoundException;
+import com.example.bankcards.repository.UserCardSummaryRepository;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.util.UserMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -17,6 +23,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -24,13 +31,21 @@ import java.util.Optional;
 public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserCardSummaryRepository userCardSummaryRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, UserMapper userMapper) {
+    public UserService(UserRepository userRepository,
+                       UserCardSummaryRepository userCardSummaryRepository,
+                       PasswordEncoder passwordEncoder,
+                       UserMapper userMapper,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
+        this.userCardSummaryRepository = userCardSummaryRepository;
         this.passwordEncoder = passwordEncoder;
         this.userMapper = userMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     public UserResponse createUser(UserCreateRequest request) {
@@ -43,6 +58,7 @@ public class UserService implements UserDetailsService {
         return userMapper.toUserResponse(userRepository.save(user));
     }
 
+    @Transactional(readOnly = true)
     public Page<UserResponse> getAllUsers(Pageable pageable) {
 
         Specification<User> specification = (root, query, cb) -> null;
@@ -50,6 +66,7 @@ public class UserService implements UserDetailsService {
         return userRepository.findAll(specification, pageable).map(userMapper::toUserResponse);
     }
 
+    @Transactional(readOnly = true)
     public UserResponse getUserById(long id) {
         final User user = userRepository
             .findById(id)
@@ -58,14 +75,27 @@ public class UserService implements UserDetailsService {
         return userMapper.toUserResponse(user);
     }
 
-    public void deleteUserById(long id) {
-        if (userRepository.findById(id).isPresent()) {
-            userRepository.deleteById(id);
-        } else {
-            throw new NotFoundException("Not found user with id: " + id);
+    /**
+     * Card counts by status and total balance of the user, read from one summary row however many cards
+     * they have; users see only their own.
+     */
+    @Transactional(readOnly = true)
+    public UserCardSummaryResponse getCardSummary(long id, long requesterId, boolean admin) {
+        if (!admin && id != requesterId) {
+            throw new AccessDeniedException("Card summary of user with id " + id + " is not available");
         }
+        return userCardSummaryRepository.findById(id)
+                                        .map(UserService::toSummaryResponse)
+                                        .orElseGet(() -> {
+                                            // Users without cards have no summary row.
+                                            if (!userRepository.existsById(id)) {
+                                                throw new NotFoundException("Not found user with id: " + id);
+                                            }
+                                            return UserCardSummaryResponse.builder().userId(id).build();
+                                        });
     }
 
+    @Transactional
     public UserResponse updateUser(long id, UserUpdateRequest request) {
         User user = userRepository
             .findById(id)
@@ -75,7 +105,9 @@ public class UserService implements UserDetailsService {
         user.setStatus(request.getStatus());
         user.setPassword(passwordEncoder.encode(request.getPassword()));
 
-        return userMapper.toUserResponse(userRepository.save(user));
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserUpdatedEvent(id));
+        return userMapper.toUserResponse(saved);
     }
 
     @Override
@@ -87,4 +119,16 @@ public class UserService implements UserDetailsService {
     public Optional<User> findById(final Long userId) {
         return userRepository.findById(userId);
     }
+
+    private static UserCardSummaryResponse toSummaryResponse(UserCardSummary summary) {
+        return UserCardSummaryResponse.builder()
+                                      .userId(summary.getUserId())
+                                      .cardCount(summary.getCardCount())
+                                      .activeCards(summary.getActiveCards())
+                                      .inactiveCards(summary.getInactiveCards())
+                                      .blockedCards(summary.getBlockedCards())
+                                      .expiredCards(summary.getExpiredCards())
+                                      .totalBalance(summary.getTotalBalance())
+                                      .build();
+    }
 }
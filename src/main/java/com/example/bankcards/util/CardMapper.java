@@ -1,6 +1,7 @@
 package com.example.bankcards.util;
 
 import com.example.bankcards.dto.CardCreateRequest;
+import com.example.bankcards.dto.CardListItem;
 import com.example.bankcards.dto.CardResponse;
 import com.example.bankcards.dto.CardUpdateRequest;
 import com.example.bankcards.entity.Card;
@@ -31,6 +32,7 @@ public class CardMapper {
 
         card.setOwner(user);
         card.setNumber(dto.getNumber());
+        card.setLast4(Card.last4Of(dto.getNumber()));
         card.setStatus(CardStatus.ACTIVE);
         card.setBalance(0);
 
@@ -44,7 +46,7 @@ public class CardMapper {
     public CardResponse toResponseDto(Card entity) {
         return CardResponse.builder()
                 .id(entity.getId())
-                .number(maskCardNumber(entity.getNumber()))
+                .number(maskCardNumber(entity.getLast4()))
                 .ownerName(entity.getOwner().getName())
                 .expiryDate(formatExpiryDate(entity.getExpiryDate()))
                 .status(entity.getStatus())
@@ -52,6 +54,17 @@ public class CardMapper {
                 .build();
     }
 
+    public CardResponse toResponseDto(CardListItem item) {
+        return CardResponse.builder()
+                .id(item.getId())
+                .number(maskCardNumber(item.getLast4()))
+                .ownerName(item.getOwnerName())
+                .expiryDate(formatExpiryDate(item.getExpiryDate()))
+                .status(item.getStatus())
+                .balance(item.getBalance())
+                .build();
+    }
+
     public void updateEntityFromDto(Card entity, CardUpdateRequest dto) {
         if (dto.getExpiryDate() != null) {
             entity.setExpiryDate(dto.getExpiryDate());
@@ -59,10 +72,14 @@ public class CardMapper {
         if (dto.getStatus() != null) {
             entity.setStatus(dto.getStatus());
         }
+        if (dto.getOwnerId() != null) {
+            entity.setOwner(userRepository.findById(dto.getOwnerId())
+                    .orElseThrow(() -> new NotFoundException("User not found")));
+        }
     }
 
-    private static String maskCardNumber(String cardNumber) {
-        return MASK + cardNumber.substring(cardNumber.length() - 4);
+    static String maskCardNumber(String last4) {
+        return MASK + last4;
     }
 
     private String formatExpiryDate(LocalDate expiryDate) {
@@ -0,0 +1,146 @@
+package com.example.bankcards.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Encrypts card numbers at rest and computes their blind index.
+ * <p>
+ * Numbers are sealed with AES-GCM under a random 96-bit IV and stored as {@code v1:} followed by the Base64 of
+ * IV, ciphertext and tag, so the same number encrypts differently every time. Uniqueness and lookups go
+ * through the blind index instead: the hex HMAC-SHA256 of the number's digits, which is stable across
+ * formatting ("4000 0000 ..." and "40000000...") and reveals nothing without the HMAC key.
+ * <p>
+ * {@link Cipher} and {@link Mac} instances are not thread-safe and costly to look up, so a bounded number of
+ * them is pooled and reused rather than created per call or kept per thread; with virtual threads a
+ * thread-local would create one per request. A value without the {@code v1:} prefix is a number written
+ * before encryption and is returned as is until {@code CardNumberEncryptionBackfill} rewrites it.
+ */
+@Component
+public class CardNumberCipher {
+
+    static final String PREFIX = "v1:";
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final String HMAC = "HmacSHA256";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+    private static final int POOL_SIZE = 64;
+
+    private final SecretKeySpec key;
+    private final SecretKeySpec hmacKey;
+    private final SecureRandom random = new SecureRandom();
+    private final BlockingQueue<Cipher> ciphers = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final BlockingQueue<Mac> macs = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    public CardNumberCipher(@Value("${application.card-encryption.key}") String key,
+                            @Value("${application.card-encryption.hmac-key}") String hmacKey) {
+        byte[] keyBytes = Base64.getDecoder().decode(key);
+        if (keyBytes.length != 16 && keyBytes.length != 24 && keyBytes.length != 32) {
+            throw new IllegalStateException("Card encryption key must be 16, 24 or 32 bytes, got " + keyBytes.length);
+        }
+        byte[] hmacKeyBytes = Base64.getDecoder().decode(hmacKey);
+        if (hmacKeyBytes.length < 32) {
+            throw new IllegalStateException("Card blind index key must be at least 32 bytes, got " + hmacKeyBytes.length);
+        }
+        this.key = new SecretKeySpec(keyBytes, "AES");
+        this.hmacKey = new SecretKeySpec(hmacKeyBytes, HMAC);
+    }
+
+    public String encrypt(String number) {
+        if (number == null) {
+            return null;
+        }
+        byte[] iv = new byte[IV_BYTES];
+        random.nextBytes(iv);
+        Cipher cipher = cipher();
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] sealed = new byte[IV_BYTES + cipher.getOutputSize(number.length())];
+            System.arraycopy(iv, 0, sealed, 0, IV_BYTES);
+            byte[] plain = number.getBytes(StandardCharsets.US_ASCII);
+            cipher.doFinal(plain, 0, plain.length, sealed, IV_BYTES);
+            return PREFIX + Base64.getEncoder().encodeToString(sealed);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Card number could not be encrypted", e);
+        } finally {
+            ciphers.offer(cipher);
+        }
+    }
+
+    public String decrypt(String stored) {
+        if (stored == null || !stored.startsWith(PREFIX)) {
+            return stored;
+        }
+        byte[] sealed = Base64.getDecoder().decode(stored.substring(PREFIX.length()));
+        Cipher cipher = cipher();
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, sealed, 0, IV_BYTES));
+            byte[] plain = cipher.doFinal(sealed, IV_BYTES, sealed.length - IV_BYTES);
+            return new String(plain, StandardCharsets.US_ASCII);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Card number could not be decrypted", e);
+        } finally {
+            ciphers.offer(cipher);
+        }
+    }
+
+    /**
+     * Blind index of the number, the value of {@code cards.number_hash}.
+     */
+    public String blindIndex(String number) {
+        byte[] digits = new byte[number.length()];
+        int length = 0;
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits[length++] = (byte) c;
+            }
+        }
+        Mac mac = mac();
+        try {
+            mac.update(digits, 0, length);
+            return HexFormat.of().formatHex(mac.doFinal());
+        } finally {
+            macs.offer(mac);
+        }
+    }
+
+    private Cipher cipher() {
+        Cipher cipher = ciphers.poll();
+        if (cipher != null) {
+            return cipher;
+        }
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(TRANSFORMATION + " is not available", e);
+        }
+    }
+
+    private Mac mac() {
+        Mac mac = macs.poll();
+        if (mac != null) {
+            return mac;
+        }
+        try {
+            mac = Mac.getInstance(HMAC);
+            mac.init(hmacKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC + " is not available", e);
+        }
+    }
+}
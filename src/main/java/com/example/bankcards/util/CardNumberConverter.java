@@ -0,0 +1,30 @@
+package com.example.bankcards.util;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores {@code Card.number} encrypted, see {@link CardNumberCipher}. Created through Spring, Hibernate
+ * resolves converters from the application context.
+ */
+@Component
+@Converter
+public class CardNumberConverter implements AttributeConverter<String, String> {
+
+    private final CardNumberCipher cipher;
+
+    public CardNumberConverter(CardNumberCipher cipher) {
+        this.cipher = cipher;
+    }
+
+    @Override
+    public String convertToDatabaseColumn(String number) {
+        return cipher.encrypt(number);
+    }
+
+    @Override
+    public String convertToEntityAttribute(String stored) {
+        return cipher.decrypt(stored);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.bankcards.util;
+
+/**
+ * Luhn (mod 10) check digits for card numbers.
+ */
+public final class Luhn {
+
+    private Luhn() {
+    }
+
+    /**
+     * @param payload digits of the number without its check digit
+     * @return the digit that makes {@code payload} followed by it Luhn-valid
+     */
+    public static int checkDigit(CharSequence payload) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = payload.length() - 1; i >= 0; i--) {
+            int digit = payload.charAt(i) - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    /**
+     * @param number card number; spaces are ignored
+     */
+    public static boolean isValid(String number) {
+        String digits = number.replace(" ", "");
+        if (digits.length() < 2 || !digits.chars().allMatch(Character::isDigit)) {
+            return false;
+        }
+        return checkDigit(digits.substring(0, digits.length() - 1)) == digits.charAt(digits.length() - 1) - '0';
+    }
+}
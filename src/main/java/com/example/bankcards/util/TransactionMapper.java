@@ -37,4 +37,19 @@ public class TransactionMapper {
                 .status(entity.getStatus())
                 .build();
     }
+
+    /**
+     * Entry of a card's history; masks both numbers from the last four digits alone, so neither card's
+     * owner is loaded.
+     */
+    public TransactionResponse toHistoryResponse(Transaction entity) {
+        return TransactionResponse.builder()
+                .id(entity.getId())
+                .fromCardNumber(CardMapper.maskCardNumber(entity.getFromCard().getLast4()))
+                .toCardNumber(CardMapper.maskCardNumber(entity.getToCard().getLast4()))
+                .amount(entity.getAmount())
+                .timestamp(entity.getTimestamp())
+                .status(entity.getStatus())
+                .build();
+    }
 }
@@ -1,6 +1,7 @@
 package com.example.bankcards.util;
 
 import com.example.bankcards.entity.User;
+import com.example.bankcards.metrics.BankcardsMetrics;
 import com.example.bankcards.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.convert.converter.Converter;
@@ -18,14 +19,17 @@ import org.springframework.stereotype.Component;
 public class UserJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
 
     private final UserService userService;
+    private final BankcardsMetrics metrics;
 
     @Override
     public AbstractAuthenticationToken convert(final Jwt jwt) {
 
-        final long userId = Long.parseLong(jwt.getSubject());
+        return metrics.timeAuthConversion(() -> {
+            final long userId = Long.parseLong(jwt.getSubject());
 
-        final User user = userService.findById(userId).get();
+            final User user = userService.findById(userId).get();
 
-        return new UsernamePasswordAuthenticationToken(user, jwt, user.getAuthorities());
+            return new UsernamePasswordAuthenticationToken(user, jwt, user.getAuthorities());
+        });
     }
 }
@@ -0,0 +1,93 @@
+package com.example.bankcards.cache;
+
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.exception.NotFoundException;
+import com.example.bankcards.repository.CardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CardBalanceCacheTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private CardBalanceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CardBalanceCache(cardRepository, 1024, Duration.ofSeconds(5), clock::get);
+    }
+
+    @Test
+    void getBalance_shouldQueryOnceAndServeRepeatedReadsFromCache() {
+        when(cardRepository.findBalanceById(1L)).thenReturn(Optional.of(123400L));
+
+        assertThat(cache.getBalance(1L)).isEqualTo(123400L);
+        assertThat(cache.getBalance(1L)).isEqualTo(123400L);
+
+        verify(cardRepository, times(1)).findBalanceById(1L);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getBalance_whenEntryExpired_shouldReloadBalance() {
+        when(cardRepository.findBalanceById(1L)).thenReturn(Optional.of(100L), Optional.of(200L));
+
+        assertThat(cache.getBalance(1L)).isEqualTo(100L);
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        assertThat(cache.getBalance(1L)).isEqualTo(200L);
+        verify(cardRepository, times(2)).findBalanceById(1L);
+    }
+
+    @Test
+    void getBalance_whenCardNotFound_shouldThrowNotFoundException() {
+        when(cardRepository.findBalanceById(99999L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> cache.getBalance(99999L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("Card with id 99999 not found");
+    }
+
+    @Test
+    void onCardChanged_shouldWriteThroughSavedBalance() {
+        cache.onCardChanged(new CardChangedEvent(1L, 1L, null, 500L, false, null, null));
+
+        assertThat(cache.getBalance(1L)).isEqualTo(500L);
+        verifyNoInteractions(cardRepository);
+    }
+
+    @Test
+    void onCardChanged_whenCardDeleted_shouldEvictEntry() {
+        cache.put(1L, 500L);
+        cache.onCardChanged(new CardChangedEvent(1L, 1L, null, 500L, true, null, null));
+
+        assertThatThrownBy(() -> cache.getBalance(1L)).isInstanceOf(NotFoundException.class);
+        verify(cardRepository, times(1)).findBalanceById(1L);
+    }
+
+    @Test
+    void put_shouldKeepMemoryBoundedByCapacity() {
+        for (long cardId = 1; cardId <= 10_000; cardId++) {
+            cache.put(cardId, cardId);
+        }
+
+        assertThat(cache.capacity()).isEqualTo(1024);
+        assertThat(cache.getBalance(10_000L)).isEqualTo(10_000L);
+    }
+}
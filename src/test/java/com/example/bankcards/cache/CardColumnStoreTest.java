@@ -0,0 +1,247 @@
+package com.example.bankcards.cache;
+
+import com.example.bankcards.dto.CardFilter;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.event.UserDeletedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CardColumnStoreTest {
+
+    private static final LocalDate EXPIRY = LocalDate.of(2030, 1, 1);
+
+    private CardColumnStore store;
+
+    @TempDir
+    private Path directory;
+
+    @BeforeEach
+    void setUp() {
+        // Small capacity so the tests also cover growing the columns.
+        store = new CardColumnStore(2);
+        store.onCardChanged(saved(1L, 10L, CardStatus.ACTIVE, 500L, EXPIRY));
+        store.onCardChanged(saved(2L, 10L, CardStatus.BLOCKED, 100L, EXPIRY.plusYears(1)));
+        store.onCardChanged(saved(3L, 20L, CardStatus.ACTIVE, 300L, EXPIRY.plusYears(2)));
+        store.onCardChanged(saved(4L, 20L, CardStatus.ACTIVE, 300L, EXPIRY.minusYears(1)));
+    }
+
+    @Test
+    void findIds_shouldApplyEveryFilterField() {
+        CardFilter filter = CardFilter.builder()
+                                      .status(CardStatus.ACTIVE)
+                                      .fromDate(EXPIRY)
+                                      .toDate(EXPIRY.plusYears(2))
+                                      .minBalance(200L)
+                                      .maxBalance(400L)
+                                      .build();
+
+        Page<Long> page = store.findIds(filter, PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).containsExactly(3L);
+        assertThat(page.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    void findIds_shouldFilterByOwner() {
+        Page<Long> page = store.findIds(CardFilter.builder().ownerId(20L).build(), PageRequest.of(0, 10, Sort.by("id")));
+
+        assertThat(page.getContent()).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void findIds_shouldSortAndPageWithIdAsTieBreaker() {
+        Sort sort = Sort.by(Sort.Order.desc("balance"));
+
+        Page<Long> first = store.findIds(CardFilter.builder().build(), PageRequest.of(0, 2, sort));
+        Page<Long> second = store.findIds(CardFilter.builder().build(), PageRequest.of(1, 2, sort));
+
+        assertThat(first.getContent()).containsExactly(1L, 3L);
+        assertThat(second.getContent()).containsExactly(4L, 2L);
+        assertThat(first.getTotalElements()).isEqualTo(4);
+        assertThat(store.findIds(null, PageRequest.of(2, 2, sort)).getContent()).isEmpty();
+    }
+
+    @Test
+    void findIds_shouldSortByExpiryDate() {
+        Page<Long> page = store.findIds(null, PageRequest.of(0, 10, Sort.by("expiryDate")));
+
+        assertThat(page.getContent()).containsExactly(4L, 1L, 2L, 3L);
+    }
+
+    @Test
+    void onCardChanged_shouldUpdateAndTombstoneCards() {
+        store.onCardChanged(saved(2L, 10L, CardStatus.ACTIVE, 100L, EXPIRY));
+        store.onCardChanged(new CardChangedEvent(1L, 10L, null, 500L, true, CardStatus.ACTIVE, EXPIRY));
+
+        Page<Long> active = store.findIds(CardFilter.builder().status(CardStatus.ACTIVE).build(),
+                                          PageRequest.of(0, 10, Sort.by("id")));
+
+        assertThat(active.getContent()).containsExactly(2L, 3L, 4L);
+        assertThat(store.size()).isEqualTo(3);
+    }
+
+    @Test
+    void onUserDeleted_shouldRemoveTheUsersCards() {
+        store.onUserDeleted(new UserDeletedEvent(20L));
+
+        assertThat(store.findIds(null, PageRequest.of(0, 10, Sort.by("id"))).getContent()).containsExactly(1L, 2L);
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    @Test
+    void supports_shouldRejectPropertiesWithoutColumn() {
+        assertThat(store.supports(Sort.by("balance", "expiryDate"))).isTrue();
+        assertThat(store.supports(Sort.unsorted())).isTrue();
+        assertThat(store.supports(Sort.by("owner.name"))).isFalse();
+    }
+
+    @Test
+    void load_fromSnapshot_shouldReplayOnlyChangesSinceTheMarker() throws Exception {
+        Path snapshot = directory.resolve("cards.snapshot");
+        store.onCardChanged(new CardChangedEvent(2L, 10L, null, 100L, true, CardStatus.BLOCKED, EXPIRY));
+        store.writeSnapshot(snapshot, 100L, Instant.now());
+
+        CardChangeLog changeLog = mock(CardChangeLog.class);
+        when(changeLog.getRetention()).thenReturn(Duration.ofDays(2));
+        when(changeLog.currentMarker()).thenReturn(150L);
+        when(changeLog.isReplayableSince(100L)).thenReturn(true);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row(3L, null, 0L, null, null));
+            handler.processRow(row(5L, "ACTIVE", 700L, EXPIRY, 30L));
+            return null;
+        }).when(changeLog).changedSince(eq(100L), any());
+
+        CardColumnStore restored = new CardColumnStore(null, changeLog, true, 2, snapshot.toString());
+        restored.load();
+
+        assertThat(restored.isReady()).isTrue();
+        assertThat(restored.findIds(null, PageRequest.of(0, 10, Sort.by("id"))).getContent()).containsExactly(1L, 4L, 5L);
+        assertThat(restored.findIds(CardFilter.builder().minBalance(400L).build(), PageRequest.of(0, 10, Sort.by("id")))
+                           .getContent()).containsExactly(1L, 5L);
+    }
+
+    @Test
+    void load_whenSnapshotOlderThanChangeRetention_shouldLoadAllCards() throws Exception {
+        Path snapshot = directory.resolve("cards.snapshot");
+        store.writeSnapshot(snapshot, 100L, Instant.now().minus(Duration.ofDays(3)));
+
+        CardChangeLog changeLog = mock(CardChangeLog.class);
+        when(changeLog.getRetention()).thenReturn(Duration.ofDays(2));
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+        CardColumnStore restored = new CardColumnStore(jdbcTemplate, changeLog, true, 2, snapshot.toString());
+        restored.load();
+
+        verify(jdbcTemplate).execute(any(ConnectionCallback.class));
+        verify(changeLog, never()).changedSince(anyLong(), any());
+        assertThat(restored.isReady()).isTrue();
+        assertThat(restored.size()).isZero();
+    }
+
+    @Test
+    void load_whenChangesWereNotRecordedSinceSnapshot_shouldLoadAllCards() throws Exception {
+        Path snapshot = directory.resolve("cards.snapshot");
+        store.writeSnapshot(snapshot, 100L, Instant.now());
+
+        CardChangeLog changeLog = mock(CardChangeLog.class);
+        when(changeLog.getRetention()).thenReturn(Duration.ofDays(2));
+        when(changeLog.isReplayableSince(100L)).thenReturn(false);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+        CardColumnStore restored = new CardColumnStore(jdbcTemplate, changeLog, true, 2, snapshot.toString());
+        restored.load();
+
+        verify(jdbcTemplate).execute(any(ConnectionCallback.class));
+        verify(changeLog, never()).changedSince(anyLong(), any());
+    }
+
+    @Test
+    void catchUp_shouldApplyChangesOfOtherNodesAndTrustOnlyThePreviousMarker() throws Exception {
+        Path snapshot = directory.resolve("cards.snapshot");
+        store.writeSnapshot(snapshot, 100L, Instant.now());
+
+        CardChangeLog changeLog = mock(CardChangeLog.class);
+        when(changeLog.getRetention()).thenReturn(Duration.ofDays(2));
+        when(changeLog.isReplayableSince(100L)).thenReturn(true);
+        when(changeLog.currentMarker()).thenReturn(150L, 200L, 250L);
+        doAnswer(invocation -> {
+            // Card 1 was blocked on another node; no local event reports it.
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row(1L, "BLOCKED", 500L, EXPIRY, 10L));
+            return null;
+        }).when(changeLog).changedSince(eq(150L), any());
+
+        CardColumnStore restored = new CardColumnStore(null, changeLog, true, 2, snapshot.toString());
+        restored.load();
+        restored.catchUp();
+
+        assertThat(restored.findIds(CardFilter.builder().status(CardStatus.BLOCKED).build(),
+                                    PageRequest.of(0, 10, Sort.by("id"))).getContent()).containsExactly(1L, 2L);
+        restored.snapshotOnShutdown();
+        assertThat(restored.readSnapshot(snapshot, Instant.EPOCH).marker()).isEqualTo(150L);
+
+        restored.catchUp();
+        restored.snapshotOnShutdown();
+        assertThat(restored.readSnapshot(snapshot, Instant.EPOCH).marker()).isEqualTo(200L);
+        verify(changeLog, times(2)).changedSince(eq(150L), any());
+    }
+
+    @Test
+    void load_whenSnapshotCorrupt_shouldLoadAllCards() throws Exception {
+        Path snapshot = directory.resolve("cards.snapshot");
+        Files.write(snapshot, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20,
+                                         21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32, 33});
+        CardChangeLog changeLog = mock(CardChangeLog.class);
+        when(changeLog.getRetention()).thenReturn(Duration.ofDays(2));
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+        CardColumnStore restored = new CardColumnStore(jdbcTemplate, changeLog, true, 2, snapshot.toString());
+        restored.load();
+
+        verify(jdbcTemplate).execute(any(ConnectionCallback.class));
+        assertThat(restored.isReady()).isTrue();
+    }
+
+    private static ResultSet row(long cardId, String status, long balance, LocalDate expiryDate, Long ownerId)
+            throws Exception {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong(1)).thenReturn(cardId);
+        when(row.getString(2)).thenReturn(status);
+        when(row.getLong(3)).thenReturn(balance);
+        when(row.getDate(4)).thenReturn(expiryDate == null ? null : Date.valueOf(expiryDate));
+        when(row.getObject(5, Long.class)).thenReturn(ownerId);
+        return row;
+    }
+
+    private static CardChangedEvent saved(long cardId, long ownerId, CardStatus status, long balance, LocalDate expiryDate) {
+        return new CardChangedEvent(cardId, ownerId, null, balance, false, status, expiryDate);
+    }
+}
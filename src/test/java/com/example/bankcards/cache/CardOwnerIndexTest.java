@@ -0,0 +1,62 @@
+package com.example.bankcards.cache;
+
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.exception.NotFoundException;
+import com.example.bankcards.repository.CardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CardOwnerIndexTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    private CardOwnerIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CardOwnerIndex(cardRepository);
+    }
+
+    @Test
+    void getOwnerId_shouldQueryOnceAndServeRepeatedReadsFromIndex() {
+        when(cardRepository.findOwnerIdById(1L)).thenReturn(Optional.of(7L));
+
+        assertThat(index.getOwnerId(1L)).isEqualTo(7L);
+        assertThat(index.getOwnerId(1L)).isEqualTo(7L);
+
+        verify(cardRepository, times(1)).findOwnerIdById(1L);
+    }
+
+    @Test
+    void getOwnerId_whenCardNotFound_shouldThrowNotFoundException() {
+        when(cardRepository.findOwnerIdById(99999L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> index.getOwnerId(99999L)).isInstanceOf(NotFoundException.class);
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void getOwnerId_whenCardChangesDuringLoad_shouldNotStoreLoadedOwner() {
+        when(cardRepository.findOwnerIdById(1L)).thenAnswer(invocation -> {
+            // The card is reassigned and its event applied while the old owner is being read.
+            index.onCardChanged(new CardChangedEvent(1L, 8L, null, 0, false, null, null));
+            return Optional.of(7L);
+        });
+
+        assertThat(index.getOwnerId(1L)).isEqualTo(7L);
+
+        assertThat(index.getOwnerId(1L)).isEqualTo(8L);
+        verify(cardRepository, times(1)).findOwnerIdById(1L);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.bankcards.cache;
+
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.event.CardChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CardStatusIndexTest {
+
+    private final CardStatusIndex index = new CardStatusIndex();
+
+    @Test
+    void onCardChanged_shouldMoveCardBetweenStatusBitmaps() {
+        index.onCardChanged(event(1L, CardStatus.BLOCKED, false));
+        index.onCardChanged(event(2L, CardStatus.EXPIRED, false));
+        assertThat(index.inactiveStatus(1L)).isEqualTo(CardStatus.BLOCKED);
+        assertThat(index.inactiveStatus(2L)).isEqualTo(CardStatus.EXPIRED);
+        assertThat(index.inactiveStatus(3L)).isNull();
+
+        index.onCardChanged(event(1L, CardStatus.ACTIVE, false));
+        index.onCardChanged(event(2L, CardStatus.EXPIRED, true));
+
+        assertThat(index.inactiveStatus(1L)).isNull();
+        assertThat(index.inactiveStatus(2L)).isNull();
+        assertThat(index.count(CardStatus.BLOCKED)).isZero();
+    }
+
+    @Test
+    void correct_shouldMoveStaleHitToStoredStatusUnlessAnEventMovedItFirst() {
+        index.onCardChanged(event(1L, CardStatus.BLOCKED, false));
+        index.onCardChanged(event(2L, CardStatus.BLOCKED, false));
+
+        index.correct(1L, CardStatus.BLOCKED, CardStatus.ACTIVE);
+        index.onCardChanged(event(2L, CardStatus.EXPIRED, false));
+        index.correct(2L, CardStatus.BLOCKED, CardStatus.INACTIVE);
+
+        assertThat(index.inactiveStatus(1L)).isNull();
+        assertThat(index.inactiveStatus(2L)).isEqualTo(CardStatus.EXPIRED);
+    }
+
+    @Test
+    void loadSql_shouldSelectNonActiveStatusesByValue() {
+        assertThat(CardStatusIndex.LOAD_SQL).endsWith("status IN ('INACTIVE', 'BLOCKED', 'EXPIRED')");
+    }
+
+    @Test
+    void load_shouldKeepStatusesChangedByEventsDuringTheLoad() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        CardStatusIndex loading = new CardStatusIndex(jdbcTemplate);
+        doAnswer(invocation -> {
+            // Card 2 is unblocked while the load streams its old row.
+            loading.onCardChanged(event(2L, CardStatus.ACTIVE, false));
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row(1L, "BLOCKED"));
+            handler.processRow(row(2L, "BLOCKED"));
+            handler.processRow(row(3L, "INACTIVE"));
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        assertThat(loading.isReady()).isFalse();
+        loading.load();
+
+        assertThat(loading.isReady()).isTrue();
+        assertThat(loading.inactiveStatus(1L)).isEqualTo(CardStatus.BLOCKED);
+        assertThat(loading.inactiveStatus(2L)).isNull();
+        assertThat(loading.inactiveStatus(3L)).isEqualTo(CardStatus.INACTIVE);
+    }
+
+    private static CardChangedEvent event(long cardId, CardStatus status, boolean deleted) {
+        return new CardChangedEvent(cardId, 1L, null, 0L, deleted, status, LocalDate.of(2030, 1, 1));
+    }
+
+    private static ResultSet row(long cardId, String status) throws Exception {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong(1)).thenReturn(cardId);
+        when(row.getString(2)).thenReturn(status);
+        return row;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.bankcards.cache;
+
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.event.UserDeletedEvent;
+import com.example.bankcards.event.UserUpdatedEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CardVersionRegistryTest {
+
+    private final CardVersionRegistry registry = new CardVersionRegistry(1_000L);
+
+    @Test
+    void tags_shouldStayStableUntilCardChanges() {
+        String cardTag = registry.cardTag(1L);
+        String ownerTag = registry.ownerTag(1L);
+        String globalTag = registry.globalTag();
+
+        assertThat(registry.cardTag(1L)).isEqualTo(cardTag);
+
+        registry.onCardChanged(new CardChangedEvent(1L, 1L, null, 500L, false, null, null));
+
+        assertThat(registry.cardTag(1L)).isNotEqualTo(cardTag);
+        assertThat(registry.ownerTag(1L)).isNotEqualTo(ownerTag);
+        assertThat(registry.globalTag()).isNotEqualTo(globalTag);
+    }
+
+    @Test
+    void onCardChanged_shouldNotAffectUnrelatedCardsAndOwners() {
+        String otherCard = registry.cardTag(2L);
+        String otherOwner = registry.ownerTag(2L);
+
+        registry.onCardChanged(new CardChangedEvent(1L, 1L, null, 500L, false, null, null));
+
+        assertThat(registry.cardTag(2L)).isEqualTo(otherCard);
+        assertThat(registry.ownerTag(2L)).isEqualTo(otherOwner);
+    }
+
+    @Test
+    void onCardChanged_whenReassigned_shouldBumpPreviousOwner() {
+        String previousOwner = registry.ownerTag(2L);
+
+        registry.onCardChanged(new CardChangedEvent(1L, 1L, 2L, 500L, false, null, null));
+
+        assertThat(registry.ownerTag(2L)).isNotEqualTo(previousOwner);
+    }
+
+    @Test
+    void onUserDeleted_shouldBumpOwnerTag() {
+        String ownerTag = registry.ownerTag(1L);
+
+        registry.onUserDeleted(new UserDeletedEvent(1L));
+
+        assertThat(registry.ownerTag(1L)).isNotEqualTo(ownerTag);
+    }
+
+    @Test
+    void onUserUpdated_shouldBumpOwnerAndGlobalTags() {
+        String ownerTag = registry.ownerTag(1L);
+        String globalTag = registry.globalTag();
+
+        registry.onUserUpdated(new UserUpdatedEvent(1L));
+
+        assertThat(registry.ownerTag(1L)).isNotEqualTo(ownerTag);
+        assertThat(registry.globalTag()).isNotEqualTo(globalTag);
+    }
+
+    @Test
+    void tags_whenDisabled_shouldBeNull() {
+        CardVersionRegistry disabled = new CardVersionRegistry(false);
+
+        assertThat(disabled.cardTag(1L)).isNull();
+        assertThat(disabled.ownerTag(1L)).isNull();
+        assertThat(disabled.globalTag()).isNull();
+    }
+
+    @Test
+    void tags_shouldDifferBetweenRuns() {
+        assertThat(new CardVersionRegistry(2_000L).cardTag(1L)).isNotEqualTo(registry.cardTag(1L));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.bankcards.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LongLongHashMapTest {
+
+    @Test
+    void putGetRemove_shouldBehaveLikeHashMap() {
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> reference = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                Long expected = reference.remove(key);
+                assertThat(map.remove(key)).isEqualTo(expected == null ? LongLongHashMap.MISSING : expected);
+            } else {
+                long value = random.nextLong();
+                Long expected = reference.put(key, value);
+                assertThat(map.put(key, value)).isEqualTo(expected == null ? LongLongHashMap.MISSING : expected);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(reference.size());
+        reference.forEach((key, value) -> assertThat(map.get(key)).isEqualTo(value));
+    }
+
+    @Test
+    void removeValue_shouldDropEveryMatchingEntry() {
+        LongLongHashMap map = new LongLongHashMap();
+        for (long cardId = 1; cardId <= 1_000; cardId++) {
+            map.put(cardId, cardId % 3);
+        }
+
+        int removed = map.removeValue(1);
+
+        assertThat(removed).isEqualTo(334);
+        assertThat(map.size()).isEqualTo(666);
+        for (long cardId = 1; cardId <= 1_000; cardId++) {
+            assertThat(map.containsKey(cardId)).isEqualTo(cardId % 3 != 1);
+        }
+    }
+
+    @Test
+    void put_withNonPositiveKey_shouldThrow() {
+        LongLongHashMap map = new LongLongHashMap();
+
+        assertThatThrownBy(() -> map.put(0, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getAndRemove_withNonPositiveKey_shouldFindNothing() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(1, 10);
+
+        assertThat(map.get(0)).isEqualTo(LongLongHashMap.MISSING);
+        assertThat(map.get(-1)).isEqualTo(LongLongHashMap.MISSING);
+        assertThat(map.remove(0)).isEqualTo(LongLongHashMap.MISSING);
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.get(1)).isEqualTo(10);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.bankcards.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.interceptor.RuleBasedTransactionAttribute;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private JdbcTemplate replicaJdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    private ReplicaRoutingDataSource routingWithLag(double lagSeconds) {
+        when(replicaJdbcTemplate.queryForObject(anyString(), eq(Double.class))).thenReturn(lagSeconds);
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaJdbcTemplate, Duration.ofSeconds(5));
+        monitor.checkLag();
+        return new ReplicaRoutingDataSource(primary, replica, monitor);
+    }
+
+    @Test
+    void readOnlyTransaction_shouldUseReplica() {
+        ReplicaRoutingDataSource routing = routingWithLag(0.5);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.Route.REPLICA);
+    }
+
+    @Test
+    void readWriteTransaction_shouldUsePrimary() {
+        ReplicaRoutingDataSource routing = routingWithLag(0);
+
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+    }
+
+    @Test
+    void readOnlyTransaction_whenReplicaLagsBehind_shouldFallBackToPrimary() {
+        ReplicaRoutingDataSource routing = routingWithLag(30);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+    }
+
+    @Test
+    void lagMonitor_whenReplicaUnreachable_shouldTakeItOutOfRotationUntilItRecovers() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaJdbcTemplate, Duration.ofSeconds(5));
+        when(replicaJdbcTemplate.queryForObject(anyString(), eq(Double.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenReturn(0.0);
+
+        monitor.checkLag();
+        assertThat(monitor.isReplicaUsable()).isFalse();
+
+        monitor.checkLag();
+        assertThat(monitor.isReplicaUsable()).isTrue();
+    }
+
+    @Test
+    void lagMonitor_whenWalReceiverIsNotStreaming_shouldTakeReplicaOutOfRotation() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaJdbcTemplate, Duration.ofSeconds(5));
+        when(replicaJdbcTemplate.queryForObject(anyString(), eq(Double.class))).thenReturn(0.0, (Double) null);
+
+        monitor.checkLag();
+        assertThat(monitor.isReplicaUsable()).isTrue();
+
+        monitor.checkLag();
+        assertThat(monitor.isReplicaUsable()).isFalse();
+    }
+
+    @Test
+    void boundRoute_shouldOverrideReadOnlyFlag() {
+        ReplicaRoutingDataSource routing = routingWithLag(0);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        ReplicaRoutingDataSource.bindRoute(ReplicaRoutingDataSource.Route.PRIMARY);
+        try {
+            assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+            assertThat(ReplicaRoutingDataSource.isReplicaTransaction()).isFalse();
+        } finally {
+            ReplicaRoutingDataSource.unbindRoute();
+        }
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.Route.REPLICA);
+    }
+
+    @Test
+    void transactionManager_shouldRouteOnlyUnlabelledReadOnlyTransactionsToUsableReplica() {
+        RuleBasedTransactionAttribute readOnly = new RuleBasedTransactionAttribute();
+        readOnly.setReadOnly(true);
+        RuleBasedTransactionAttribute pinned = new RuleBasedTransactionAttribute();
+        pinned.setReadOnly(true);
+        pinned.setLabels(List.of(ReplicaRoutingDataSource.PRIMARY_LABEL));
+
+        assertThat(ReplicaRoutingTransactionManager.route(readOnly, true)).isEqualTo(ReplicaRoutingDataSource.Route.REPLICA);
+        assertThat(ReplicaRoutingTransactionManager.route(readOnly, false)).isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+        assertThat(ReplicaRoutingTransactionManager.route(pinned, true)).isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+        assertThat(ReplicaRoutingTransactionManager.route(new RuleBasedTransactionAttribute(), true))
+                .isEqualTo(ReplicaRoutingDataSource.Route.PRIMARY);
+    }
+}
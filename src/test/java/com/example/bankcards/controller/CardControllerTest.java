@@ -1,13 +1,18 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.CardBulkIssueRequest;
+import com.example.bankcards.dto.CardBulkIssueResponse;
 import com.example.bankcards.dto.CardCreateRequest;
 import com.example.bankcards.dto.CardFilter;
 import com.example.bankcards.dto.CardResponse;
+import com.example.bankcards.dto.CardTokenResponse;
 import com.example.bankcards.dto.CardUpdateRequest;
 import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.UserRole;
 import com.example.bankcards.service.CardBlockRequestService;
+import com.example.bankcards.service.CardIssuanceService;
 import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.TokenService;
 import com.example.bankcards.service.TransactionService;
 import com.example.bankcards.service.UserService;
 import com.example.bankcards.util.UserJwtAuthenticationConverter;
@@ -26,15 +31,19 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -47,6 +56,12 @@ public class CardControllerTest {
     @MockitoBean
     protected CardService cardService;
 
+    @MockitoBean
+    protected CardIssuanceService cardIssuanceService;
+
+    @MockitoBean
+    protected TokenService tokenService;
+
     @MockitoBean
     protected UserService userService;
 
@@ -118,6 +133,62 @@ public class CardControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    // POST /api/cards/bulk
+    @Test
+    void issueCardsWithAdminRole_thenOk() throws Exception {
+        when(cardIssuanceService.issueCards(any(CardBulkIssueRequest.class)))
+                .thenReturn(new CardBulkIssueResponse(1, List.of(testCardResponse())));
+
+        mockMvc.perform(post("/api/cards/bulk")
+                        .with(user("1").roles(UserRole.ADMIN.toString()))
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ownerIds\":[1],\"expiryDate\":\"2030-12-31\"}")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.issued").value(1))
+                .andExpect(jsonPath("$.cards[0].number").value("**** **** **** 1234"));
+    }
+
+    @Test
+    void issueCardsWithUserRole_thenForbidden() throws Exception {
+        mockMvc.perform(post("/api/cards/bulk")
+                        .with(user("1").roles(UserRole.USER.toString()))
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ownerIds\":[1],\"expiryDate\":\"2030-12-31\"}"))
+                .andExpect(status().isForbidden());
+    }
+
+    // POST /api/cards/tokens
+    @Test
+    void issueTokensWithAdminRole_thenOk() throws Exception {
+        when(tokenService.issueTokens(List.of(1L, 2L)))
+                .thenReturn(List.of(new CardTokenResponse(1L, "q7Jd2X0uWb9yAVk3oNcH4w"),
+                                    new CardTokenResponse(2L, "Zr5LmT8eKp1sQa6UvYx0Bg")));
+
+        mockMvc.perform(post("/api/cards/tokens")
+                        .with(user("1").roles(UserRole.ADMIN.toString()))
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"cardIds\":[1,2]}")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].cardId").value(1))
+                .andExpect(jsonPath("$[0].token").value("q7Jd2X0uWb9yAVk3oNcH4w"))
+                .andExpect(jsonPath("$[1].cardId").value(2));
+    }
+
+    @Test
+    void issueTokensWithUserRole_thenForbidden() throws Exception {
+        mockMvc.perform(post("/api/cards/tokens")
+                        .with(user("1").roles(UserRole.USER.toString()))
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"cardIds\":[1]}"))
+                .andExpect(status().isForbidden());
+    }
+
     // GET /api/cards
     @Test
     void getFilteredCardsWithAdminRole_thenOk() throws Exception {
@@ -134,7 +205,8 @@ public class CardControllerTest {
                         .andExpect(jsonPath("$.content[0].ownerId").value(1))
                         .andExpect(jsonPath("$.content[0].expiryDate").value("2025-12-31"))
                         .andExpect(jsonPath("$.content[0].balance").value(1000))
-                        .andExpect(jsonPath("$.totalElements").value(1));
+                        .andExpect(jsonPath("$.totalElements").value(1))
+                        .andExpect(header().string("Server-Timing", "sql;desc=\"0 statements\""));
     }
 
     @Test
@@ -156,6 +228,34 @@ public class CardControllerTest {
                 .andExpect(jsonPath("$.totalElements").value(1));
     }
 
+    @Test
+    void getFilteredCardsWithInvalidLast4_thenBadRequest() throws Exception {
+        mockMvc.perform(
+                get("/api/cards")
+                    .param("ownerId", "1")
+                    .param("last4", "12a4")
+                    .with(user("1").roles(UserRole.ADMIN.toString()))
+                )
+                .andExpect(status().isBadRequest());
+
+        verify(cardService, never()).getAllCards(any(CardFilter.class), any(Pageable.class));
+    }
+
+    @Test
+    void getFilteredCardsWithMatchingETag_thenNotModified() throws Exception {
+        when(cardService.getCardsETag(1L, false)).thenReturn("epoch-u1-7");
+
+        mockMvc.perform(
+                get("/api/cards")
+                    .header("If-None-Match", "\"epoch-u1-7\"")
+                    .with(user("1").roles(UserRole.USER.toString()))
+                )
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"epoch-u1-7\""));
+
+        verify(cardService, never()).getFilteredCards(anyLong(), any(CardFilter.class), any(Pageable.class));
+    }
+
     @Test
     void getFilteredCardsWithoutToken_thenUnauthorized() throws Exception {
         mockMvc.perform(get("/api/cards"))
@@ -196,7 +296,7 @@ public class CardControllerTest {
     // GET /api/cards/{id}/balance
     @Test
     void getCardBalanceWithUserRole_thenOk() throws Exception {
-        when(cardService.getCardBalance(anyLong())).thenReturn(1000L);
+        when(cardService.getCardBalance(anyLong(), anyLong())).thenReturn(1000L);
 
         mockMvc.perform(get("/api/cards/1/balance")
                         .with(user("1").roles(UserRole.USER.toString()))
@@ -205,6 +305,45 @@ public class CardControllerTest {
                 .andExpect(jsonPath("$").value(1000));
     }
 
+    @Test
+    void getCardBalanceByTokenWithUserRole_thenOk() throws Exception {
+        when(tokenService.resolve("q7Jd2X0uWb9yAVk3oNcH4w")).thenReturn(1L);
+        when(cardService.getCardBalance(1L, 1L)).thenReturn(1000L);
+
+        mockMvc.perform(get("/api/cards/by-token/q7Jd2X0uWb9yAVk3oNcH4w/balance")
+                        .with(user("1").roles(UserRole.USER.toString()))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(1000));
+    }
+
+    @Test
+    void getCardBalanceWithStaleETag_thenOkWithCurrentETag() throws Exception {
+        when(cardService.getCardBalanceETag(1L, 1L)).thenReturn("epoch-c1-3");
+        when(cardService.getCardBalance(1L, 1L)).thenReturn(1000L);
+
+        mockMvc.perform(get("/api/cards/1/balance")
+                        .header("If-None-Match", "\"epoch-c1-2\"")
+                        .with(user("1").roles(UserRole.USER.toString()))
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"epoch-c1-3\""))
+                .andExpect(jsonPath("$").value(1000));
+    }
+
+    @Test
+    void getCardBalanceWithMatchingETag_thenNotModified() throws Exception {
+        when(cardService.getCardBalanceETag(1L, 1L)).thenReturn("epoch-c1-3");
+
+        mockMvc.perform(get("/api/cards/1/balance")
+                        .header("If-None-Match", "\"epoch-c1-3\"")
+                        .with(user("1").roles(UserRole.USER.toString()))
+                )
+                .andExpect(status().isNotModified());
+
+        verify(cardService, never()).getCardBalance(anyLong(), anyLong());
+    }
+
     @Test
     void getCardBalanceWithAdminRole_thenForbidden() throws Exception {
         mockMvc.perform(get("/api/cards/1/balance")
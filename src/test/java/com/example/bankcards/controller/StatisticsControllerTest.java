@@ -0,0 +1,63 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.HibernateStatisticsResponse;
+import com.example.bankcards.entity.UserRole;
+import com.example.bankcards.service.HibernateStatisticsService;
+import com.example.bankcards.util.UserJwtAuthenticationConverter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(StatisticsController.class)
+public class StatisticsControllerTest {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @MockitoBean
+    protected HibernateStatisticsService hibernateStatisticsService;
+
+    @MockitoBean
+    protected UserJwtAuthenticationConverter jwtAuthenticationConverter;
+
+    // GET /api/statistics/hibernate
+    @Test
+    void getHibernateStatisticsWithAdminRole_thenOk() throws Exception {
+        when(hibernateStatisticsService.getStatistics()).thenReturn(HibernateStatisticsResponse.builder()
+                .statisticsEnabled(true)
+                .secondLevelCacheHitCount(3)
+                .secondLevelCacheMissCount(1)
+                .secondLevelCacheHitRatio(0.75)
+                .regions(Collections.emptyList())
+                .build());
+
+        mockMvc.perform(get("/api/statistics/hibernate")
+                        .with(user("1").roles(UserRole.ADMIN.toString())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.secondLevelCacheHitRatio").value(0.75))
+                .andExpect(jsonPath("$.statisticsEnabled").value(true));
+    }
+
+    @Test
+    void getHibernateStatisticsWithUserRole_thenForbidden() throws Exception {
+        mockMvc.perform(get("/api/statistics/hibernate")
+                        .with(user("1").roles(UserRole.USER.toString())))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getHibernateStatisticsWithoutToken_thenUnauthorized() throws Exception {
+        mockMvc.perform(get("/api/statistics/hibernate"))
+                .andExpect(status().isUnauthorized());
+    }
+}
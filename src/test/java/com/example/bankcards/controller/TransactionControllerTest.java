@@ -4,19 +4,29 @@ import com.example.bankcards.dto.TransactionRequest;
 import com.example.bankcards.dto.TransactionResponse;
 import com.example.bankcards.entity.TransactionStatus;
 import com.example.bankcards.entity.UserRole;
+import com.example.bankcards.service.TokenService;
 import com.example.bankcards.service.TransactionService;
 import com.example.bankcards.util.UserJwtAuthenticationConverter;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -30,6 +40,9 @@ public class TransactionControllerTest {
     @MockitoBean
     protected TransactionService transactionService;
 
+    @MockitoBean
+    protected TokenService tokenService;
+
     @MockitoBean
     protected UserJwtAuthenticationConverter jwtAuthenticationConverter;
 
@@ -43,7 +56,7 @@ public class TransactionControllerTest {
                         .status(TransactionStatus.PENDING)
                         .build();
 
-        when(transactionService.createTransaction(any(TransactionRequest.class))).thenReturn(response);
+        when(transactionService.createTransaction(any(TransactionRequest.class), anyLong())).thenReturn(response);
 
         mockMvc.perform(post("/api/transactions")
                         .with(user("1").roles(UserRole.USER.toString()))
@@ -57,6 +70,55 @@ public class TransactionControllerTest {
                 .andExpect(jsonPath("$.status").value(TransactionStatus.PENDING.toString()));
     }
 
+    // GET /api/transactions
+    @Test
+    void getCardTransactionsWithUserRole_thenOk() throws Exception {
+        TransactionResponse response = TransactionResponse.builder()
+                        .id(5L)
+                        .fromCardNumber("**** **** **** 1234")
+                        .toCardNumber("**** **** **** 5678")
+                        .amount(1000)
+                        .status(TransactionStatus.COMPLETED)
+                        .build();
+        when(transactionService.getCardTransactions(eq(1L), eq(1L), eq(false), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(response)));
+
+        mockMvc.perform(get("/api/transactions")
+                        .param("cardId", "1")
+                        .with(user("1").roles(UserRole.USER.toString())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(5))
+                .andExpect(jsonPath("$.content[0].fromCardNumber").value("**** **** **** 1234"));
+    }
+
+    @Test
+    void getCardTransactionsWithoutCardId_thenBadRequest() throws Exception {
+        mockMvc.perform(get("/api/transactions")
+                        .with(user("1").roles(UserRole.USER.toString())))
+                .andExpect(status().isBadRequest());
+    }
+
+    // POST /api/transactions/by-token
+    @Test
+    void createTransactionByTokenWithUserRole_thenOk() throws Exception {
+        when(tokenService.resolve("q7Jd2X0uWb9yAVk3oNcH4w")).thenReturn(1L);
+        when(tokenService.resolve("Zr5LmT8eKp1sQa6UvYx0Bg")).thenReturn(2L);
+        when(transactionService.createTransaction(any(TransactionRequest.class), anyLong()))
+                .thenReturn(TransactionResponse.builder().amount(1000).status(TransactionStatus.COMPLETED).build());
+
+        mockMvc.perform(post("/api/transactions/by-token")
+                        .with(user("1").roles(UserRole.USER.toString()))
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fromCardToken\":\"q7Jd2X0uWb9yAVk3oNcH4w\",\"toCardToken\":\"Zr5LmT8eKp1sQa6UvYx0Bg\",\"amount\":1000}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").value(1000));
+
+        verify(transactionService).createTransaction(argThat(request -> request.getFromCardId() == 1L
+                                                                        && request.getToCardId() == 2L
+                                                                        && request.getAmount() == 1000), eq(1L));
+    }
+
     @Test
     void createTransactionWithAdminRole_thenForbidden() throws Exception {
         mockMvc.perform(post("/api/transactions")
@@ -1,10 +1,20 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.CardResponse;
+import com.example.bankcards.dto.CardScrollResponse;
+import com.example.bankcards.dto.UserCardSummaryResponse;
 import com.example.bankcards.dto.UserCreateRequest;
+import com.example.bankcards.dto.UserDeletionJobResponse;
+import com.example.bankcards.dto.UserImportResult;
 import com.example.bankcards.dto.UserResponse;
 import com.example.bankcards.dto.UserUpdateRequest;
+import com.example.bankcards.entity.UserDeletionJobStatus;
 import com.example.bankcards.entity.UserRole;
+import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.UserDeletionService;
+import com.example.bankcards.service.UserImportService;
 import com.example.bankcards.service.UserService;
+import com.example.bankcards.util.UserJwtAuthenticationConverter;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -15,15 +25,18 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.InputStream;
 import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -36,6 +49,18 @@ public class UserControllerTest {
     @MockitoBean
     protected UserService userService;
 
+    @MockitoBean
+    protected UserImportService userImportService;
+
+    @MockitoBean
+    protected UserDeletionService userDeletionService;
+
+    @MockitoBean
+    protected CardService cardService;
+
+    @MockitoBean
+    protected UserJwtAuthenticationConverter jwtAuthenticationConverter;
+
     private UserResponse testUserResponse() {
         return UserResponse.builder()
                             .id(1L)
@@ -154,6 +179,48 @@ public class UserControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    // POST /api/users/import
+    @Test
+    void importUsersWithAdminRole_thenOk() throws Exception {
+        UserImportResult result = UserImportResult.builder()
+                .processed(2)
+                .imported(2)
+                .failed(0)
+                .errors(Collections.emptyList())
+                .build();
+
+        when(userImportService.importUsers(any(InputStream.class), startsWith(UserImportService.CSV))).thenReturn(result);
+
+        mockMvc.perform(post("/api/users/import")
+                        .with(user("1").roles(UserRole.ADMIN.toString()))
+                        .with(csrf())
+                        .contentType(UserImportService.CSV)
+                        .content("name,email,password,role\nИван,ivan@example.com,secret,USER\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(0));
+    }
+
+    @Test
+    void importUsersWithUnsupportedContentType_thenUnsupportedMediaType() throws Exception {
+        mockMvc.perform(post("/api/users/import")
+                        .with(user("1").roles(UserRole.ADMIN.toString()))
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    void importUsersWithUserRole_thenForbidden() throws Exception {
+        mockMvc.perform(post("/api/users/import")
+                        .with(user("1").roles(UserRole.USER.toString()))
+                        .with(csrf())
+                        .contentType(UserImportService.CSV)
+                        .content(""))
+                .andExpect(status().isForbidden());
+    }
+
     // PUT /api/users/1
     @Test
     void updateUserWithAdminRole_thenOk() throws Exception {
@@ -191,14 +258,17 @@ public class UserControllerTest {
 
     // DELETE /api/users/1
     @Test
-    void deleteUserIdWithAdminRole_thenOk() throws Exception {
-        doNothing().when(userService).deleteUserById(1);
+    void deleteUserIdWithAdminRole_thenAccepted() throws Exception {
+        when(userDeletionService.deleteUser(1)).thenReturn(testDeletionJob(UserDeletionJobStatus.PENDING));
 
         mockMvc.perform(delete("/api/users/1")
                         .with(user("1").roles(UserRole.ADMIN.toString()))
                         .with(csrf())
                 )
-                .andExpect(status().isOk());
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/users/deletion-jobs/7"))
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.status").value("PENDING"));
     }
 
     @Test
@@ -214,4 +284,90 @@ public class UserControllerTest {
                         .with(csrf()))
                 .andExpect(status().isUnauthorized());
     }
+
+    // GET /api/users/1/summary
+    @Test
+    void getCardSummaryWithUserRole_thenOk() throws Exception {
+        when(userService.getCardSummary(1, 1, false)).thenReturn(UserCardSummaryResponse.builder()
+                                                                                      .userId(1L)
+                                                                                      .cardCount(3)
+                                                                                      .activeCards(2)
+                                                                                      .blockedCards(1)
+                                                                                      .totalBalance(5000)
+                                                                                      .build());
+
+        mockMvc.perform(get("/api/users/1/summary")
+                        .with(user("1").roles(UserRole.USER.toString())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cardCount").value(3))
+                .andExpect(jsonPath("$.activeCards").value(2))
+                .andExpect(jsonPath("$.totalBalance").value(5000));
+    }
+
+    @Test
+    void getCardSummaryWithAdminRole_thenOk() throws Exception {
+        when(userService.getCardSummary(2, 1, true)).thenReturn(UserCardSummaryResponse.builder().userId(2L).build());
+
+        mockMvc.perform(get("/api/users/2/summary")
+                        .with(user("1").roles(UserRole.ADMIN.toString())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(2));
+    }
+
+    @Test
+    void getCardSummaryWithoutToken_thenUnauthorized() throws Exception {
+        mockMvc.perform(get("/api/users/1/summary"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    // GET /api/users/1/cards
+    @Test
+    void getUserCardsWithAdminRole_thenOk() throws Exception {
+        when(cardService.getUserCards(1, 10, 2)).thenReturn(new CardScrollResponse(
+                List.of(CardResponse.builder().id(11L).build(), CardResponse.builder().id(12L).build()), 12L));
+
+        mockMvc.perform(get("/api/users/1/cards")
+                        .param("afterId", "10")
+                        .param("size", "2")
+                        .with(user("1").roles(UserRole.ADMIN.toString())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cards.length()").value(2))
+                .andExpect(jsonPath("$.nextAfterId").value(12));
+    }
+
+    @Test
+    void getUserCardsWithUserRole_thenForbidden() throws Exception {
+        mockMvc.perform(get("/api/users/1/cards")
+                        .with(user("1").roles(UserRole.USER.toString())))
+                .andExpect(status().isForbidden());
+    }
+
+    // GET /api/users/deletion-jobs/7
+    @Test
+    void getDeletionJobWithAdminRole_thenOk() throws Exception {
+        when(userDeletionService.getJob(7)).thenReturn(testDeletionJob(UserDeletionJobStatus.COMPLETED));
+
+        mockMvc.perform(get("/api/users/deletion-jobs/7")
+                        .with(user("1").roles(UserRole.ADMIN.toString())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(1))
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.cardsDeleted").value(250));
+    }
+
+    @Test
+    void getDeletionJobWithUserRole_thenForbidden() throws Exception {
+        mockMvc.perform(get("/api/users/deletion-jobs/7")
+                        .with(user("1").roles(UserRole.USER.toString())))
+                .andExpect(status().isForbidden());
+    }
+
+    private UserDeletionJobResponse testDeletionJob(UserDeletionJobStatus status) {
+        return UserDeletionJobResponse.builder()
+                                      .id(7L)
+                                      .userId(1L)
+                                      .status(status)
+                                      .cardsDeleted(status == UserDeletionJobStatus.COMPLETED ? 250 : 0)
+                                      .build();
+    }
 }
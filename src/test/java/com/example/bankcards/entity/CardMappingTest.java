@@ -0,0 +1,45 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.OneToMany;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Guards the card aggregate: a card maps no collections, so loading, logging, mapping or deleting one cannot
+ * load or cascade to its transactions.
+ */
+public class CardMappingTest {
+
+    @Test
+    void card_shouldMapNoCollections() {
+        assertThat(Arrays.stream(Card.class.getDeclaredFields()))
+                .noneMatch(field -> Collection.class.isAssignableFrom(field.getType())
+                                    || Map.class.isAssignableFrom(field.getType()))
+                .noneMatch(field -> field.isAnnotationPresent(OneToMany.class)
+                                    || field.isAnnotationPresent(ManyToMany.class)
+                                    || field.isAnnotationPresent(ElementCollection.class));
+    }
+
+    @Test
+    void user_shouldNotMapCards() {
+        assertThat(User.class.getDeclaredFields())
+                .extracting(Field::getType)
+                .doesNotContain(Card.class)
+                .allSatisfy(type -> assertThat(Collection.class.isAssignableFrom(type)).isFalse());
+    }
+
+    @Test
+    void card_shouldNotReferenceTransactions() {
+        assertThat(Card.class.getDeclaredFields())
+                .extracting(Field::getType)
+                .doesNotContain(Transaction.class);
+    }
+}
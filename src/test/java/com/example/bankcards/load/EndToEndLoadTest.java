@@ -0,0 +1,416 @@
+package com.example.bankcards.load;
+
+import com.example.bankcards.BankcardsApplication;
+import com.example.bankcards.entity.Card;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end throughput test of the user-facing endpoints.
+ * <p>
+ * Boots the application against the local PostgreSQL from {@code docker-compose.yml}, seeds users with cards
+ * through JDBC, obtains a signed JWT per user from the {@code dev} token endpoint and then keeps
+ * {@code load.concurrency} closed-loop clients busy with a weighted mix of card listings, balance polls,
+ * transfers between the user's own cards and block requests. Throughput, p50/p95/p99 and error rates per
+ * endpoint are printed and written to {@code target/load/e2e-report.json}; the seeded rows are removed
+ * afterwards.
+ * <pre>
+ * mvn test -Dgroups=load -DexcludedGroups=none -Dtest=EndToEndLoadTest
+ * </pre>
+ * When {@code load.baseline} (default {@code src/test/resources/load/e2e-baseline.json}) exists, the run fails if
+ * an endpoint's p99 or throughput is worse than the baseline by more than {@code load.tolerance} (default 0.25)
+ * or its error rate grew by more than a percentage point. {@code -Dload.record-baseline=true} overwrites the
+ * baseline with the current run so it can be committed. Baselines are only comparable on the same machine
+ * and settings.
+ * <p>
+ * Tunables: {@code load.users} (default 200), {@code load.cards-per-user} (3), {@code load.concurrency} (64),
+ * {@code load.warmup} and {@code load.duration} in seconds (10 and 60), {@code load.seed} (42) and
+ * {@code load.mix} ({@code cards=50,balance=30,transfer=15,block=5}).
+ */
+@Tag("load")
+public class EndToEndLoadTest {
+
+    private static final int USERS = Integer.getInteger("load.users", 200);
+    private static final int CARDS_PER_USER = Math.max(2, Integer.getInteger("load.cards-per-user", 3));
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 64);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load.warmup", 10));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.duration", 60));
+    private static final long SEED = Long.getLong("load.seed", 42);
+    private static final String MIX = System.getProperty("load.mix", "cards=50,balance=30,transfer=15,block=5");
+    private static final Path REPORT = Path.of("target", "load", "e2e-report.json");
+    private static final Path BASELINE = Path.of(System.getProperty("load.baseline", "src/test/resources/load/e2e-baseline.json"));
+    private static final boolean RECORD_BASELINE = Boolean.getBoolean("load.record-baseline");
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("load.tolerance", "0.25"));
+
+    private static final long INITIAL_BALANCE = 1_000_000_000L;
+
+    private final HttpClient client = HttpClient.newBuilder()
+                                                .connectTimeout(Duration.ofSeconds(10))
+                                                .build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    enum Endpoint {
+        CARDS, BALANCE, TRANSFER, BLOCK
+    }
+
+    @Test
+    void userEndpoints_shouldNotRegressAgainstBaseline() throws Exception {
+        Mix mix = Mix.parse(MIX);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BankcardsApplication.class)
+                .profiles("dev")
+                .properties("server.port=0")
+                .run()) {
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            Seeder seeder = new Seeder(context.getBean(JdbcTemplate.class));
+            List<LoadUser> users = seeder.seed();
+            try {
+                for (LoadUser user : users) {
+                    user.token = token(port, user.id);
+                }
+
+                run(port, users, mix, WARMUP);
+                Map<Endpoint, Stats> stats = run(port, users, mix, DURATION);
+
+                Map<String, EndpointReport> report = new LinkedHashMap<>();
+                stats.forEach((endpoint, s) -> report.put(endpoint.name(), s.report(DURATION)));
+                print(report);
+                write(REPORT, report);
+                if (RECORD_BASELINE) {
+                    write(BASELINE, report);
+                } else if (Files.exists(BASELINE)) {
+                    assertThat(regressions(read(BASELINE), report)).isEmpty();
+                }
+            } finally {
+                seeder.cleanUp();
+            }
+        }
+    }
+
+    private Map<Endpoint, Stats> run(int port, List<LoadUser> users, Mix mix, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Future<Map<Endpoint, Stats>>> workers = new ArrayList<>(CONCURRENCY);
+            for (int i = 0; i < CONCURRENCY; i++) {
+                Random random = new Random(SEED + i);
+                workers.add(executor.submit(() -> drive(port, users, mix, random, deadline)));
+            }
+
+            Map<Endpoint, Stats> total = Stats.perEndpoint();
+            for (Future<Map<Endpoint, Stats>> worker : workers) {
+                worker.get().forEach((endpoint, stats) -> total.get(endpoint).add(stats));
+            }
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<Endpoint, Stats> drive(int port, List<LoadUser> users, Mix mix, Random random, long deadline) {
+        Map<Endpoint, Stats> stats = Stats.perEndpoint();
+        while (System.nanoTime() < deadline) {
+            LoadUser user = users.get(random.nextInt(users.size()));
+            Endpoint endpoint = mix.next(random);
+            HttpRequest request = request(port, user, endpoint, random);
+
+            long start = System.nanoTime();
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            stats.get(endpoint).record(System.nanoTime() - start, status);
+        }
+        return stats;
+    }
+
+    private static HttpRequest request(int port, LoadUser user, Endpoint endpoint, Random random) {
+        long cardId = user.cardIds[random.nextInt(user.cardIds.length)];
+        HttpRequest.Builder builder = switch (endpoint) {
+            case CARDS -> HttpRequest.newBuilder(uri(port, "/api/cards?size=20")).GET();
+            case BALANCE -> HttpRequest.newBuilder(uri(port, "/api/cards/" + cardId + "/balance")).GET();
+            case TRANSFER -> {
+                long toCardId = user.cardIds[(indexOf(user.cardIds, cardId) + 1) % user.cardIds.length];
+                yield HttpRequest.newBuilder(uri(port, "/api/transactions"))
+                                 .header("Content-Type", "application/json")
+                                 .POST(HttpRequest.BodyPublishers.ofString(
+                                         "{\"fromCardId\":" + cardId + ",\"toCardId\":" + toCardId + ",\"amount\":" + (1 + random.nextInt(100)) + "}"));
+            }
+            case BLOCK -> HttpRequest.newBuilder(uri(port, "/api/card-block-request"))
+                                     .header("Content-Type", "application/json")
+                                     .POST(HttpRequest.BodyPublishers.ofString("{\"cardId\":" + cardId + "}"));
+        };
+        return builder.header("Authorization", "Bearer " + user.token)
+                      .timeout(Duration.ofSeconds(30))
+                      .build();
+    }
+
+    private String token(int port, long userId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri(port, "/api/test/token?userId=" + userId))
+                                         .POST(HttpRequest.BodyPublishers.noBody())
+                                         .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as("token for user %d", userId).isEqualTo(200);
+        return response.body();
+    }
+
+    private static URI uri(int port, String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static int indexOf(long[] values, long value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static List<String> regressions(Map<String, EndpointReport> baseline, Map<String, EndpointReport> current) {
+        List<String> regressions = new ArrayList<>();
+        baseline.forEach((endpoint, base) -> {
+            EndpointReport now = current.get(endpoint);
+            if (now == null || now.requests() == 0) {
+                return;
+            }
+            if (now.p99Millis() > base.p99Millis() * (1 + TOLERANCE)) {
+                regressions.add(String.format("%s p99 %.1f ms, baseline %.1f ms", endpoint, now.p99Millis(), base.p99Millis()));
+            }
+            if (now.throughput() < base.throughput() * (1 - TOLERANCE)) {
+                regressions.add(String.format("%s throughput %.1f/s, baseline %.1f/s", endpoint, now.throughput(), base.throughput()));
+            }
+            if (now.errorRate() > base.errorRate() + 0.01) {
+                regressions.add(String.format("%s error rate %.3f, baseline %.3f", endpoint, now.errorRate(), base.errorRate()));
+            }
+        });
+        return regressions;
+    }
+
+    private static void print(Map<String, EndpointReport> report) {
+        System.out.printf("%-10s %10s %10s %9s %9s %9s %8s %9s%n",
+                          "endpoint", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "errors", "rejected");
+        report.forEach((endpoint, r) -> System.out.printf("%-10s %10d %10.1f %9.1f %9.1f %9.1f %7.2f%% %8.2f%%%n",
+                endpoint, r.requests(), r.throughput(), r.p50Millis(), r.p95Millis(), r.p99Millis(),
+                r.errorRate() * 100, r.rejectedRate() * 100));
+    }
+
+    private void write(Path path, Map<String, EndpointReport> report) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        objectMapper.writeValue(path.toFile(), report);
+    }
+
+    private Map<String, EndpointReport> read(Path path) throws IOException {
+        return objectMapper.readValue(path.toFile(), new TypeReference<>() {
+        });
+    }
+
+    /**
+     * Per-endpoint figures of one run. Errors are server errors and failed connections; rejections are
+     * 4xx answers the mix provokes on purpose, such as a second block request for the same card.
+     */
+    record EndpointReport(long requests, double throughput, double p50Millis, double p95Millis, double p99Millis,
+                          double errorRate, double rejectedRate) {
+    }
+
+    /**
+     * Latencies and outcomes recorded by one worker, merged after the run.
+     */
+    static class Stats {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+        private long rejected;
+
+        static Map<Endpoint, Stats> perEndpoint() {
+            Map<Endpoint, Stats> stats = new EnumMap<>(Endpoint.class);
+            for (Endpoint endpoint : Endpoint.values()) {
+                stats.put(endpoint, new Stats());
+            }
+            return stats;
+        }
+
+        void record(long nanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (status < 0 || status >= 500) {
+                errors++;
+            } else if (status >= 400) {
+                rejected++;
+            }
+        }
+
+        void add(Stats other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], 200);
+            }
+            errors += other.errors;
+            rejected += other.rejected;
+        }
+
+        EndpointReport report(Duration duration) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return new EndpointReport(count,
+                                      count / (duration.toMillis() / 1000.0),
+                                      percentile(sorted, 0.50),
+                                      percentile(sorted, 0.95),
+                                      percentile(sorted, 0.99),
+                                      count == 0 ? 0 : (double) errors / count,
+                                      count == 0 ? 0 : (double) rejected / count);
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[(int) Math.ceil(sorted.length * percentile) - 1] / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Weighted choice between endpoints, e.g. {@code cards=50,balance=30,transfer=15,block=5}.
+     */
+    record Mix(Endpoint[] endpoints, int[] cumulativeWeights) {
+
+        static Mix parse(String mix) {
+            List<Endpoint> endpoints = new ArrayList<>();
+            List<Integer> weights = new ArrayList<>();
+            int total = 0;
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.trim().split("=");
+                int weight = Integer.parseInt(parts[1].trim());
+                if (weight > 0) {
+                    total += weight;
+                    endpoints.add(Endpoint.valueOf(parts[0].trim().toUpperCase()));
+                    weights.add(total);
+                }
+            }
+            assertThat(total).as("total weight of load.mix").isPositive();
+            return new Mix(endpoints.toArray(Endpoint[]::new), weights.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        Endpoint next(Random random) {
+            int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (pick < cumulativeWeights[i]) {
+                    return endpoints[i];
+                }
+            }
+            throw new IllegalStateException();
+        }
+    }
+
+    static class LoadUser {
+
+        final long id;
+        final long[] cardIds;
+        String token;
+
+        LoadUser(long id, long[] cardIds) {
+            this.id = id;
+            this.cardIds = cardIds;
+        }
+    }
+
+    /**
+     * Inserts the test users and cards directly, bypassing the services; the application's caches fill
+     * lazily, so they pick the rows up on first access.
+     */
+    static class Seeder {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final String emailDomain = "load-" + Long.toString(System.currentTimeMillis(), 36) + ".test";
+        private final List<Long> userIds = new ArrayList<>();
+
+        Seeder(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        List<LoadUser> seed() {
+            // Card numbers are unique across runs; the workload itself is driven by load.seed.
+            Random random = new Random(emailDomain.hashCode());
+            Date expiryDate = Date.valueOf(LocalDate.now().plusYears(3));
+            List<LoadUser> users = new ArrayList<>(USERS);
+            for (int u = 0; u < USERS; u++) {
+                Long userId = jdbcTemplate.queryForObject(
+                        "INSERT INTO users (name, email, password, role, status) VALUES (?, ?, ?, 'USER', 'ACTIVE') RETURNING id",
+                        Long.class, "Load User " + u, "user" + u + "@" + emailDomain, "{noop}load");
+                userIds.add(userId);
+
+                long[] cardIds = new long[CARDS_PER_USER];
+                for (int c = 0; c < CARDS_PER_USER; c++) {
+                    String number = cardNumber(random);
+                    cardIds[c] = jdbcTemplate.queryForObject(
+                            "INSERT INTO cards (card_number, last4, expiry_date, status, balance, owner_id) VALUES (?, ?, ?, 'ACTIVE', ?, ?) RETURNING id",
+                            Long.class, number, Card.last4Of(number), expiryDate, INITIAL_BALANCE, userId);
+                }
+                users.add(new LoadUser(userId, cardIds));
+            }
+            return users;
+        }
+
+        void cleanUp() {
+            if (userIds.isEmpty()) {
+                return;
+            }
+            NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(jdbcTemplate);
+            MapSqlParameterSource users = new MapSqlParameterSource("users", userIds);
+            String cards = "SELECT id FROM cards WHERE owner_id IN (:users)";
+            named.update("DELETE FROM card_block_requests WHERE card_id IN (" + cards + ")", users);
+            named.update("DELETE FROM transactions WHERE from_card_id IN (" + cards + ") OR to_card_id IN (" + cards + ")", users);
+            named.update("DELETE FROM cards WHERE owner_id IN (:users)", users);
+            named.update("DELETE FROM users WHERE id IN (:users)", users);
+        }
+
+        private static String cardNumber(Random random) {
+            StringBuilder number = new StringBuilder("9");
+            while (number.length() < 16) {
+                number.append(random.nextInt(10));
+            }
+            return number.toString();
+        }
+    }
+}
@@ -0,0 +1,515 @@
+package com.example.bankcards.load;
+
+import com.example.bankcards.entity.CardBlockRequestStatus;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.TransactionStatus;
+import com.example.bankcards.entity.UserStatus;
+import com.example.bankcards.util.CardNumberCipher;
+import com.example.bankcards.util.Luhn;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Loads millions of synthetic users, cards, transactions and block requests into the PostgreSQL schema created
+ * by Liquibase, for performance testing.
+ * <p>
+ * Rows are generated from {@code seed.seed} (default 42), so the same settings always produce the same data
+ * (dates are relative to the day of the run), and streamed through {@code COPY ... FROM STDIN} instead of JPA. Primary keys, unique constraints, indexes
+ * and foreign keys of the four tables, and foreign keys of other tables referencing them, are dropped before
+ * the load and recreated from their original definitions afterwards, followed by {@code ANALYZE}. Dropping,
+ * loading and recreating run in one transaction, so a failed run rolls back to the original schema, and other
+ * sessions wait for the seeded tables until it ends. New rows get ids after the current maximum, so the seeder
+ * can be run against a database that already has data.
+ * <p>
+ * Card numbers are {@code seed.bin} (default 510000, kept apart from the BIN of bulk issuance), the card id
+ * and a Luhn check digit. They are written encrypted with their blind index, like the application writes them,
+ * so the keys must match the application's. The user triggers on {@code cards} are disabled during the load; their work
+ * is done once per trigger afterwards: the seeded users' card summaries are inserted and, when the
+ * {@code card_changes} triggers are installed, the seeded cards are recorded there.
+ * <p>
+ * Distributions: cards per user follow a power law (most users have one or two cards, a few have dozens),
+ * expiry dates range from two years in the past to six years ahead (past dates are {@code EXPIRED}), half of
+ * the transactions touch a small set of hot cards, and most transfers stay between cards of the same owner.
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.bankcards.load.SyntheticDataSeeder -Dseed.transactions=10000000
+ * </pre>
+ * Settings: {@code seed.url}, {@code seed.username}, {@code seed.password} (default: the local database from
+ * {@code docker-compose.yml}), {@code seed.users} (1,000,000), {@code seed.transactions} (10,000,000),
+ * {@code seed.block-requests} (100,000), {@code seed.hot-cards} (1,000), {@code seed.bin} (510000) and
+ * {@code seed.card-encryption-key},
+ * {@code seed.card-blind-index-key} (default: {@code CARD_ENCRYPTION_KEY}, {@code CARD_BLIND_INDEX_KEY} or
+ * the development keys from {@code application-dev.yaml}).
+ */
+public class SyntheticDataSeeder {
+
+    private static final String[] TABLES = {"users", "cards", "transactions", "card_block_requests"};
+
+    private static final String SUMMARY_TRIGGER = "cards_inserted_summary";
+    private static final String CHANGES_TRIGGER = "cards_inserted";
+    private static final String DEV_ENCRYPTION_KEY = "7JxZHf2hv5zXoH7Gx0qQ0m0vJ4l9p0bJ3m5YH1x0l2M=";
+    private static final String DEV_BLIND_INDEX_KEY = "yd0eC6x6cM4m3T8b0dP2gQy9cV1nWm3hK5xJ8a4ZqLs=";
+
+    private static final int NUMBER_DIGITS = 16;
+    private static final int MAX_CARDS_PER_USER = 50;
+    private static final int COPY_BUFFER_SIZE = 1 << 20;
+
+    private final Connection connection;
+    private final CardNumberCipher cipher;
+    private final String bin;
+    private final SplittableRandom random;
+    private final int users;
+    private final long transactions;
+    private final int blockRequests;
+    private final int hotCards;
+    private final LocalDate today = LocalDate.now();
+
+    private long firstUserId;
+    private long firstCardId;
+    /**
+     * First card (relative to {@link #firstCardId}) of every generated user; cards of one user are contiguous.
+     */
+    private int[] userFirstCard;
+    private int cardCount;
+
+    public SyntheticDataSeeder(Connection connection, CardNumberCipher cipher, String bin, long seed, int users,
+                               long transactions, int blockRequests, int hotCards) {
+        this.connection = connection;
+        this.cipher = cipher;
+        this.bin = bin;
+        this.random = new SplittableRandom(seed);
+        this.users = users;
+        this.transactions = transactions;
+        this.blockRequests = blockRequests;
+        this.hotCards = hotCards;
+    }
+
+    public static void main(String[] args) throws Exception {
+        try (Connection connection = DriverManager.getConnection(
+                System.getProperty("seed.url", "jdbc:postgresql://localhost:5432/app_db"),
+                System.getProperty("seed.username", "postgres"),
+                System.getProperty("seed.password", "qwe123"))) {
+
+            CardNumberCipher cipher = new CardNumberCipher(
+                    System.getProperty("seed.card-encryption-key", System.getenv().getOrDefault("CARD_ENCRYPTION_KEY", DEV_ENCRYPTION_KEY)),
+                    System.getProperty("seed.card-blind-index-key", System.getenv().getOrDefault("CARD_BLIND_INDEX_KEY", DEV_BLIND_INDEX_KEY)));
+            new SyntheticDataSeeder(connection, cipher,
+                                    System.getProperty("seed.bin", "510000"),
+                                    Long.getLong("seed.seed", 42),
+                                    Integer.getInteger("seed.users", 1_000_000),
+                                    Long.getLong("seed.transactions", 10_000_000),
+                                    Integer.getInteger("seed.block-requests", 100_000),
+                                    Integer.getInteger("seed.hot-cards", 1_000))
+                    .seed();
+        }
+    }
+
+    public void seed() throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            load();
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            // DDL is transactional: the rollback restores the dropped keys and indexes and the card triggers.
+            connection.rollback();
+            throw e;
+        }
+
+        connection.setAutoCommit(true);
+        timed("analyze", () -> {
+            try (Statement statement = connection.createStatement()) {
+                for (String table : TABLES) {
+                    statement.execute("ANALYZE " + table);
+                }
+                statement.execute("ANALYZE user_card_summary");
+            }
+            return null;
+        });
+    }
+
+    private void load() throws SQLException {
+        firstUserId = nextId("users");
+        firstCardId = nextId("cards");
+        long firstTransactionId = nextId("transactions");
+        long firstBlockRequestId = nextId("card_block_requests");
+
+        List<String> schema = dropConstraintsAndIndexes();
+        List<String> cardTriggers = disableCardTriggers();
+
+        timed("users", () -> copyUsers());
+        timed("cards", () -> copyCards());
+        timed("transactions", () -> copyTransactions(firstTransactionId));
+        timed("card_block_requests", () -> copyBlockRequests(firstBlockRequestId));
+
+        timed("constraints and indexes", () -> {
+            try (Statement statement = connection.createStatement()) {
+                for (String ddl : schema) {
+                    statement.execute(ddl);
+                }
+                for (String table : TABLES) {
+                    statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), "
+                                      + "(SELECT coalesce(max(id), 1) FROM " + table + "))");
+                }
+            }
+            return null;
+        });
+        timed("card triggers", () -> replayCardTriggers(cardTriggers));
+    }
+
+    private long copyUsers() throws SQLException {
+        String password = new BCryptPasswordEncoder().encode("password");
+        userFirstCard = new int[users + 1];
+
+        try (CopyWriter copy = copy("COPY users (id, name, email, password, role, status) FROM STDIN")) {
+            for (int u = 0; u < users; u++) {
+                long id = firstUserId + u;
+                userFirstCard[u] = cardCount;
+                cardCount += cardsPerUser();
+
+                copy.value(id).value("User " + id).value("user" + id + "@seed.test").value(password)
+                    .value("USER").value(userStatus().name()).endRow();
+            }
+            userFirstCard[users] = cardCount;
+            return users;
+        }
+    }
+
+    private long copyCards() throws SQLException {
+        try (CopyWriter copy = copy("COPY cards (id, card_number, number_hash, last4, expiry_date, status, balance, owner_id) FROM STDIN")) {
+            for (int u = 0; u < users; u++) {
+                for (int c = userFirstCard[u]; c < userFirstCard[u + 1]; c++) {
+                    long id = firstCardId + c;
+                    LocalDate expiryDate = today.plusDays(random.nextInt(-2 * 365, 6 * 365));
+
+                    String number = cardNumber(id);
+                    copy.value(id).value(cipher.encrypt(number)).value(cipher.blindIndex(number))
+                        .value(number.substring(12)).value(expiryDate.toString())
+                        .value(cardStatus(expiryDate).name()).value(amount(12, 2.0)).value(firstUserId + u).endRow();
+                }
+            }
+            return cardCount;
+        }
+    }
+
+    private long copyTransactions(long firstId) throws SQLException {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        try (CopyWriter copy = copy("COPY transactions (id, from_card_id, to_card_id, amount, timestamp, status) FROM STDIN")) {
+            for (long t = 0; t < transactions; t++) {
+                int from = random.nextBoolean() ? hotCard() : random.nextInt(cardCount);
+                int to = recipient(from);
+
+                copy.value(firstId + t).value(firstCardId + from).value(firstCardId + to).value(amount(8, 1.5))
+                    .value(now.minusSeconds(random.nextLong(2L * 365 * 24 * 3600)).toString())
+                    .value(transactionStatus().name()).endRow();
+            }
+            return transactions;
+        }
+    }
+
+    private long copyBlockRequests(long firstId) throws SQLException {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        CardBlockRequestStatus[] statuses = CardBlockRequestStatus.values();
+        try (CopyWriter copy = copy("COPY card_block_requests (id, user_id, card_id, status, created_at, processed_at, processed_by) FROM STDIN")) {
+            for (int r = 0; r < blockRequests; r++) {
+                int card = random.nextInt(cardCount);
+                CardBlockRequestStatus status = statuses[random.nextInt(statuses.length)];
+                LocalDateTime createdAt = now.minusSeconds(random.nextLong(365L * 24 * 3600));
+
+                copy.value(firstId + r).value(firstUserId + ownerOf(card)).value(firstCardId + card)
+                    .value(status.name()).value(createdAt.toString());
+                if (status == CardBlockRequestStatus.PENDING) {
+                    copy.nullValue().nullValue();
+                } else {
+                    copy.value(createdAt.plusHours(random.nextInt(1, 72)).toString()).value(firstUserId);
+                }
+                copy.endRow();
+            }
+            return blockRequests;
+        }
+    }
+
+    /**
+     * {@code BIN + card id + Luhn check digit}, under a BIN of its own so seeded numbers never take accounts of
+     * {@code application.card-issuance.bin}.
+     */
+    private String cardNumber(long cardId) {
+        String payload = bin + String.format("%0" + (NUMBER_DIGITS - 1 - bin.length()) + "d", cardId);
+        if (payload.length() != NUMBER_DIGITS - 1) {
+            throw new IllegalStateException("Card id " + cardId + " does not fit into a card number with BIN " + bin);
+        }
+        return payload + Luhn.checkDigit(payload);
+    }
+
+    /**
+     * Power law with exponent 1.5: about 60% of users get one card, the mean is close to three.
+     */
+    private int cardsPerUser() {
+        return (int) Math.min(MAX_CARDS_PER_USER, Math.floor(Math.pow(1 - random.nextDouble(), -1 / 1.5)));
+    }
+
+    /**
+     * Hot cards are spread over the id range rather than clustered at its start.
+     */
+    private int hotCard() {
+        int hot = Math.min(hotCards, cardCount);
+        return (int) ((random.nextInt(hot) * 2_654_435_761L) % cardCount);
+    }
+
+    private int recipient(int from) {
+        int owner = ownerOf(from);
+        int first = userFirstCard[owner];
+        int count = userFirstCard[owner + 1] - first;
+        if (count > 1 && random.nextInt(10) < 7) {
+            int to = first + random.nextInt(count - 1);
+            return to >= from ? to + 1 : to;
+        }
+        int to = random.nextInt(cardCount - 1);
+        return to >= from ? to + 1 : to;
+    }
+
+    private int ownerOf(int card) {
+        int low = 0;
+        int high = users - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (userFirstCard[mid] <= card) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Log-normal amount in minor units.
+     */
+    private long amount(double mean, double sigma) {
+        return Math.max(1, (long) Math.exp(mean + sigma * gaussian()));
+    }
+
+    private double gaussian() {
+        double u = 1 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+
+    private UserStatus userStatus() {
+        int roll = random.nextInt(100);
+        return roll < 95 ? UserStatus.ACTIVE : roll < 98 ? UserStatus.BLOCKED : UserStatus.INACTIVE;
+    }
+
+    private CardStatus cardStatus(LocalDate expiryDate) {
+        if (expiryDate.isBefore(today)) {
+            return CardStatus.EXPIRED;
+        }
+        int roll = random.nextInt(100);
+        return roll < 95 ? CardStatus.ACTIVE : roll < 98 ? CardStatus.BLOCKED : CardStatus.INACTIVE;
+    }
+
+    private TransactionStatus transactionStatus() {
+        int roll = random.nextInt(100);
+        return roll < 90 ? TransactionStatus.COMPLETED
+                : roll < 95 ? TransactionStatus.FAILED
+                : roll < 98 ? TransactionStatus.CANCELLED
+                : TransactionStatus.PENDING;
+    }
+
+    private long nextId(String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT coalesce(max(id), 0) + 1 FROM " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    /**
+     * Disables the user triggers on {@code cards}; COPY would otherwise fire them once with every seeded card.
+     *
+     * @return names of the triggers that were enabled
+     */
+    private List<String> disableCardTriggers() throws SQLException {
+        List<String> enabled = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet triggers = statement.executeQuery(
+                    "SELECT tgname FROM pg_trigger WHERE tgrelid = 'cards'::regclass AND NOT tgisinternal AND tgenabled <> 'D'")) {
+                while (triggers.next()) {
+                    enabled.add(triggers.getString(1));
+                }
+            }
+            for (String trigger : enabled) {
+                statement.execute("ALTER TABLE cards DISABLE TRIGGER \"" + trigger + "\"");
+            }
+        }
+        return enabled;
+    }
+
+    /**
+     * Does the work of the disabled insert triggers for all seeded cards at once and enables the triggers again.
+     * Seeded cards belong to seeded users only, so their summaries are new rows.
+     */
+    private Object replayCardTriggers(List<String> triggers) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (triggers.contains(SUMMARY_TRIGGER)) {
+                statement.execute("INSERT INTO user_card_summary (user_id, card_count, active_cards, inactive_cards, "
+                                  + "blocked_cards, expired_cards, total_balance) "
+                                  + "SELECT owner_id, count(*), count(*) FILTER (WHERE status = 'ACTIVE'), "
+                                  + "count(*) FILTER (WHERE status = 'INACTIVE'), count(*) FILTER (WHERE status = 'BLOCKED'), "
+                                  + "count(*) FILTER (WHERE status = 'EXPIRED'), sum(balance) "
+                                  + "FROM cards WHERE id >= " + firstCardId + " GROUP BY owner_id");
+            }
+            if (triggers.contains(CHANGES_TRIGGER)) {
+                statement.execute("INSERT INTO card_changes (change_xid, card_id) "
+                                  + "SELECT pg_current_xact_id()::text::bigint, id FROM cards WHERE id >= " + firstCardId);
+            }
+            for (String trigger : triggers) {
+                statement.execute("ALTER TABLE cards ENABLE TRIGGER \"" + trigger + "\"");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Drops keys, unique constraints, indexes and foreign keys of the seeded tables, and foreign keys of other
+     * tables that reference them.
+     *
+     * @return statements recreating them, primary keys first and foreign keys last
+     */
+    private List<String> dropConstraintsAndIndexes() throws SQLException {
+        String tables = "('" + String.join("','", TABLES) + "')";
+        List<String> create = new ArrayList<>();
+        List<String> drop = new ArrayList<>();
+
+        List<String> foreignKeys = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet constraints = statement.executeQuery(
+                    "SELECT c.conrelid::regclass, c.conname, pg_get_constraintdef(c.oid), c.contype "
+                    + "FROM pg_constraint c WHERE c.contype IN ('p', 'u', 'f') AND c.conrelid::regclass::text IN " + tables
+                    // Keys of the seeded tables cannot be dropped while other tables still reference them.
+                    + " OR c.contype = 'f' AND c.confrelid::regclass::text IN " + tables
+                    + " ORDER BY CASE c.contype WHEN 'p' THEN 0 WHEN 'u' THEN 1 ELSE 2 END")) {
+                while (constraints.next()) {
+                    String ddl = "ALTER TABLE " + constraints.getString(1) + " ADD CONSTRAINT \"" + constraints.getString(2) + "\" " + constraints.getString(3);
+                    String dropDdl = "ALTER TABLE " + constraints.getString(1) + " DROP CONSTRAINT \"" + constraints.getString(2) + "\"";
+                    if ("f".equals(constraints.getString(4))) {
+                        foreignKeys.add(ddl);
+                        drop.add(0, dropDdl);
+                    } else {
+                        create.add(ddl);
+                        drop.add(dropDdl);
+                    }
+                }
+            }
+            try (ResultSet indexes = statement.executeQuery(
+                    "SELECT i.indexrelid::regclass, pg_get_indexdef(i.indexrelid) FROM pg_index i "
+                    + "WHERE i.indrelid::regclass::text IN " + tables
+                    + " AND NOT EXISTS (SELECT 1 FROM pg_constraint c WHERE c.conindid = i.indexrelid)")) {
+                while (indexes.next()) {
+                    create.add(indexes.getString(2));
+                    drop.add("DROP INDEX " + indexes.getString(1));
+                }
+            }
+            create.addAll(foreignKeys);
+
+            for (String ddl : drop) {
+                statement.execute(ddl);
+            }
+        }
+        return create;
+    }
+
+    private CopyWriter copy(String sql) throws SQLException {
+        return new CopyWriter(connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql));
+    }
+
+    private static void timed(String step, SqlStep action) throws SQLException {
+        long start = System.nanoTime();
+        Object rows = action.run();
+        System.out.printf("%-25s %12s rows %8.1f s%n", step, rows == null ? "-" : rows, (System.nanoTime() - start) / 1e9);
+    }
+
+    @FunctionalInterface
+    private interface SqlStep {
+
+        Object run() throws SQLException;
+    }
+
+    /**
+     * Buffers rows in PostgreSQL's text {@code COPY} format and hands them to the server in large chunks.
+     * Generated values never contain tabs, newlines or backslashes, so no escaping is done.
+     */
+    private static class CopyWriter implements AutoCloseable {
+
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE + 1024);
+        private boolean firstColumn = true;
+
+        CopyWriter(CopyIn copyIn) {
+            this.copyIn = copyIn;
+        }
+
+        CopyWriter value(long value) {
+            separate();
+            buffer.append(value);
+            return this;
+        }
+
+        CopyWriter value(String value) {
+            separate();
+            buffer.append(value);
+            return this;
+        }
+
+        CopyWriter nullValue() {
+            separate();
+            buffer.append("\\N");
+            return this;
+        }
+
+        void endRow() throws SQLException {
+            buffer.append('\n');
+            firstColumn = true;
+            if (buffer.length() >= COPY_BUFFER_SIZE) {
+                flush();
+            }
+        }
+
+        private void separate() {
+            if (!firstColumn) {
+                buffer.append('\t');
+            }
+            firstColumn = false;
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        }
+    }
+}
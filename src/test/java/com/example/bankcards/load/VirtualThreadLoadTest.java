@@ -0,0 +1,179 @@
+package com.example.bankcards.load;
+
+import com.example.bankcards.BankcardsApplication;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares request handling on Tomcat's platform thread pool with virtual threads.
+ * <p>
+ * Starts the application twice against the same database and Hikari pool size, fires a burst of concurrent
+ * {@code GET /api/cards} requests at each and reports the maximum number of requests in flight on the server
+ * and the p99 latency. Needs Java 21 and the PostgreSQL instance from {@code docker-compose.yml}, so it is
+ * tagged {@code load} and excluded from the default build:
+ * <pre>
+ * mvn -Pvirtual-threads test -Dgroups=load -DexcludedGroups=none -Dtest=VirtualThreadLoadTest
+ * </pre>
+ * Tunables: {@code load.user-id} (an existing user, default 1), {@code load.requests} (default 2000),
+ * {@code load.tomcat-threads} (default 50) and {@code load.hikari-pool-size} (default 10).
+ */
+@Tag("load")
+public class VirtualThreadLoadTest {
+
+    private static final long USER_ID = Long.getLong("load.user-id", 1);
+    private static final int REQUESTS = Integer.getInteger("load.requests", 2000);
+    private static final int TOMCAT_THREADS = Integer.getInteger("load.tomcat-threads", 50);
+    private static final int HIKARI_POOL_SIZE = Integer.getInteger("load.hikari-pool-size", 10);
+
+    private final HttpClient client = HttpClient.newBuilder()
+                                                .connectTimeout(Duration.ofSeconds(10))
+                                                .build();
+
+    @Test
+    void virtualThreads_shouldKeepMoreRequestsInFlightThanPlatformThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "Virtual threads need Java 21");
+
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%-10s %12s %12s %10s%n", "threads", "in-flight", "p99 ms", "errors");
+        System.out.printf("%-10s %12d %12.1f %10d%n", "platform", platform.maxInFlight, platform.p99Millis, platform.errors);
+        System.out.printf("%-10s %12d %12.1f %10d%n", "virtual", virtual.maxInFlight, virtual.p99Millis, virtual.errors);
+        System.out.printf("pinned virtual threads: %d%n", virtual.pinned);
+
+        assertThat(platform.maxInFlight).isLessThanOrEqualTo(TOMCAT_THREADS);
+        assertThat(virtual.maxInFlight).isGreaterThan(platform.maxInFlight);
+        assertThat(virtual.pinned).as("virtual threads pinned by synchronized code").isZero();
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (RecordingStream pinning = new RecordingStream();
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(BankcardsApplication.class, InFlightProbe.class)
+                     .profiles("dev")
+                     .properties(
+                             "server.port=0",
+                             "spring.threads.virtual.enabled=" + virtualThreads,
+                             "server.tomcat.threads.max=" + TOMCAT_THREADS,
+                             "server.tomcat.accept-count=" + REQUESTS,
+                             "spring.datasource.hikari.maximum-pool-size=" + HIKARI_POOL_SIZE)
+                     .run()) {
+
+            AtomicLong pinned = new AtomicLong();
+            pinning.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1));
+            pinning.onEvent("jdk.VirtualThreadPinned", event -> pinned.incrementAndGet());
+            pinning.startAsync();
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String token = token(port);
+            InFlightProbe probe = context.getBean(InFlightProbe.class);
+
+            // Warm up connections, JIT and caches before measuring.
+            burst(port, token, Math.min(REQUESTS, 200));
+            probe.reset();
+
+            long[] latencies = new long[REQUESTS];
+            AtomicInteger errors = new AtomicInteger();
+            List<CompletableFuture<?>> futures = new ArrayList<>(REQUESTS);
+            for (int i = 0; i < REQUESTS; i++) {
+                int index = i;
+                long start = System.nanoTime();
+                futures.add(client.sendAsync(cardsRequest(port, token), HttpResponse.BodyHandlers.discarding())
+                                  .whenComplete((response, error) -> {
+                                      latencies[index] = System.nanoTime() - start;
+                                      if (error != null || response.statusCode() != 200) {
+                                          errors.incrementAndGet();
+                                      }
+                                  }));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+
+            Arrays.sort(latencies);
+            double p99 = latencies[(int) Math.ceil(latencies.length * 0.99) - 1] / 1_000_000.0;
+
+            return new Result(probe.maxInFlight(), p99, errors.get(), pinned.get());
+        }
+    }
+
+    private void burst(int port, String token, int count) {
+        List<CompletableFuture<?>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            futures.add(client.sendAsync(cardsRequest(port, token), HttpResponse.BodyHandlers.discarding()));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+    }
+
+    private static HttpRequest cardsRequest(int port, String token) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/cards?size=20"))
+                          .header("Authorization", "Bearer " + token)
+                          .timeout(Duration.ofSeconds(60))
+                          .GET()
+                          .build();
+    }
+
+    private String token(int port) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/test/token?userId=" + USER_ID))
+                                         .POST(HttpRequest.BodyPublishers.noBody())
+                                         .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as("token for user %d", USER_ID).isEqualTo(200);
+        return response.body();
+    }
+
+    private record Result(int maxInFlight, double p99Millis, int errors, long pinned) {
+    }
+
+    /**
+     * Counts requests that are executing inside the servlet container at the same time. Registered only as
+     * an application source by this test, so other test contexts do not pick it up through component scanning.
+     */
+    static class InFlightProbe {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        @Bean
+        Filter inFlightFilter() {
+            return (ServletRequest request, ServletResponse response, FilterChain chain) -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            };
+        }
+
+        int maxInFlight() {
+            return maxInFlight.get();
+        }
+
+        void reset() {
+            maxInFlight.set(inFlight.get());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.bankcards.metrics;
+
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserRole;
+import com.example.bankcards.entity.UserStatus;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardNumberCipher;
+import com.example.bankcards.util.Luhn;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sends requests through the real services and repositories, so {@link StatementBudgetFilter} counts the
+ * statements PostgreSQL actually runs; the controller tests mock the services and never reach it. Needs the
+ * local database from {@code docker-compose.yml}, like {@code BankcardsApplicationTests}. The test
+ * configuration enables {@code application.sql.strict-budget}, so an over-budget request fails here.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+public class StatementBudgetDatabaseTest {
+
+    /**
+     * Declared on {@code GET /api/cards}.
+     */
+    private static final int CARD_LIST_BUDGET = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardNumberCipher cardNumberCipher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void getCards_shouldStayWithinBudgetWhateverTheNumberOfCards() throws Exception {
+        long oneCard = userWithCards(1);
+        long fiveCards = userWithCards(5);
+
+        int statementsForOne = cardListStatements(oneCard);
+        int statementsForFive = cardListStatements(fiveCards);
+
+        assertThat(statementsForOne).isPositive().isLessThanOrEqualTo(CARD_LIST_BUDGET);
+        assertThat(statementsForFive).isEqualTo(statementsForOne);
+    }
+
+    private int cardListStatements(long userId) throws Exception {
+        String serverTiming = mockMvc.perform(get("/api/cards").with(user(Long.toString(userId)).roles(UserRole.USER.name())))
+                                     .andExpect(status().isOk())
+                                     .andReturn()
+                                     .getResponse()
+                                     .getHeader(StatementBudgetFilter.SERVER_TIMING);
+        assertThat(serverTiming).startsWith("sql;desc=\"");
+        return Integer.parseInt(serverTiming.replaceAll("\\D", ""));
+    }
+
+    private long userWithCards(int cards) {
+        User user = userRepository.saveAndFlush(User.builder()
+                                                    .name("Budget")
+                                                    .email("budget-" + UUID.randomUUID() + "@example.com")
+                                                    .password("encodedPassword")
+                                                    .role(UserRole.USER)
+                                                    .status(UserStatus.ACTIVE)
+                                                    .build());
+        for (int i = 0; i < cards; i++) {
+            String payload = String.format("5100%011d", ThreadLocalRandom.current().nextLong(100_000_000_000L));
+            String number = payload + Luhn.checkDigit(payload);
+            jdbcTemplate.update("INSERT INTO cards (card_number, number_hash, last4, expiry_date, status, balance, owner_id) "
+                                + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                                cardNumberCipher.encrypt(number), cardNumberCipher.blindIndex(number), number.substring(12),
+                                LocalDate.now().plusYears(3), CardStatus.ACTIVE.name(), 0, user.getId());
+        }
+        return user.getId();
+    }
+}
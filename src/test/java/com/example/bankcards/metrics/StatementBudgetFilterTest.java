@@ -0,0 +1,92 @@
+package com.example.bankcards.metrics;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StatementBudgetFilterTest {
+
+    private final SqlStatementCounter counter = new SqlStatementCounter();
+
+    @Test
+    void inspect_shouldCountOnlyWhileRequestIsCounted() {
+        counter.inspect("select 1");
+        assertThat(SqlStatementCounter.count()).isZero();
+
+        SqlStatementCounter.begin();
+        counter.inspect("select 1");
+        counter.inspect("select 2");
+
+        assertThat(SqlStatementCounter.end()).isEqualTo(2);
+        assertThat(SqlStatementCounter.count()).isZero();
+    }
+
+    @Test
+    void doFilter_shouldReportStatementCountInServerTimingHeader() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new StatementBudgetFilter(10, true).doFilter(new MockHttpServletRequest(), response, statements(3, null));
+
+        assertThat(response.getHeader(StatementBudgetFilter.SERVER_TIMING)).isEqualTo("sql;desc=\"3 statements\"");
+    }
+
+    @Test
+    void doFilter_whenDefaultBudgetExceededInStrictMode_shouldFail() {
+        StatementBudgetFilter filter = new StatementBudgetFilter(2, true);
+
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("GET", "/api/cards"),
+                                                 new MockHttpServletResponse(),
+                                                 statements(3, null)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("GET /api/cards executed 3 SQL statements, budget is 2");
+    }
+
+    @Test
+    void doFilter_whenDeclaredBudgetExceededInStrictMode_shouldFail() throws Exception {
+        HandlerMethod handler = new HandlerMethod(new Endpoints(), Endpoints.class.getDeclaredMethod("budgeted"));
+        StatementBudgetFilter filter = new StatementBudgetFilter(10, true);
+
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest(),
+                                                 new MockHttpServletResponse(),
+                                                 statements(2, handler)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("budget is 1");
+    }
+
+    @Test
+    void doFilter_whenBudgetExceededOutsideStrictMode_shouldOnlyLog() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new StatementBudgetFilter(1, false).doFilter(new MockHttpServletRequest(), response, statements(5, null));
+
+        assertThat(response.getHeader(StatementBudgetFilter.SERVER_TIMING)).isEqualTo("sql;desc=\"5 statements\"");
+    }
+
+    /**
+     * Chain that runs the given number of statements through the inspector, the way Hibernate would while
+     * the handler executes.
+     */
+    private FilterChain statements(int count, HandlerMethod handler) {
+        return (request, response) -> {
+            if (handler != null) {
+                request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handler);
+            }
+            for (int i = 0; i < count; i++) {
+                counter.inspect("select " + i);
+            }
+        };
+    }
+
+    static class Endpoints {
+
+        @StatementBudget(1)
+        void budgeted() {
+        }
+    }
+}
@@ -1,18 +1,27 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.cache.CardBalanceCache;
+import com.example.bankcards.cache.CardColumnStore;
+import com.example.bankcards.cache.CardOwnerIndex;
+import com.example.bankcards.cache.CardStatusIndex;
+import com.example.bankcards.cache.CardVersionRegistry;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.entity.UserRole;
 import com.example.bankcards.entity.UserStatus;
+import com.example.bankcards.metrics.BankcardsMetrics;
 import com.example.bankcards.repository.CardBlockRequestRepository;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.TransactionRepository;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.util.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDate;
@@ -48,6 +57,33 @@ public class BaseServiceTest {
     @Mock
     protected CardBlockRequestMapper cardBlockRequestMapper;
 
+    @Mock
+    protected CardOwnerIndex cardOwnerIndex;
+
+    @Mock
+    protected CardStatusIndex cardStatusIndex;
+
+    @Mock
+    protected CardBalanceCache cardBalanceCache;
+
+    @Mock
+    protected CardVersionRegistry cardVersionRegistry;
+
+    @Mock
+    protected CardColumnStore cardColumnStore;
+
+    @Mock
+    protected ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    protected CardNumberCipher cardNumberCipher = new CardNumberCipher(
+            "RhQVgeLx22qhuZon/HvcbGS8hHa46YJl6Zr0PbvYJ18=", "LK+WhX37hTHoCze/VUvOHolFB5oj5HFGFs6UgMDEG8I=");
+
+    protected final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    protected BankcardsMetrics metrics = new BankcardsMetrics(meterRegistry);
+
     protected User testUser() {
         return User.builder()
                 .id(1L)
@@ -56,7 +92,6 @@ public class BaseServiceTest {
                 .password("encodedPassword")
                 .role(UserRole.ADMIN)
                 .status(UserStatus.ACTIVE)
-                .cards(List.of())
                 .build();
     }
 
@@ -64,6 +99,7 @@ public class BaseServiceTest {
         return Card.builder()
                 .id(1L)
                 .number("1234 1234 1234 1234")
+                .last4("1234")
                 .expiryDate(LocalDate.of(2030, 1, 1))
                 .status(CardStatus.ACTIVE)
                 .balance(123400)
@@ -7,11 +7,13 @@ import com.example.bankcards.dto.CardBlockRequestResponse;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardBlockRequest;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.AccessDeniedException;
 import com.example.bankcards.exception.BadRequestException;
 import com.example.bankcards.exception.ConflictException;
 import com.example.bankcards.exception.NotFoundException;
 import com.example.bankcards.entity.CardBlockRequestStatus;
 import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.metrics.BankcardsMetrics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -66,7 +68,8 @@ public class CardBlockRequestServiceTest extends BaseServiceTest {
         CardBlockRequest cardBlockRequest = testCardBlockRequest();
         CardBlockRequestResponse response = testResponse();
 
-        when(cardRepository.findById(cardId)).thenReturn(Optional.of(card));
+        when(cardOwnerIndex.isOwnedBy(cardId, userId)).thenReturn(true);
+        when(cardRepository.findWithOwnerById(cardId)).thenReturn(Optional.of(card));
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(cardBlockRequestRepository.existsByCardAndStatus(card, CardBlockRequestStatus.PENDING)).thenReturn(false);
         when(cardBlockRequestRepository.save(any(CardBlockRequest.class))).thenReturn(cardBlockRequest);
@@ -91,7 +94,8 @@ public class CardBlockRequestServiceTest extends BaseServiceTest {
 
         CardBlockRequestCreate request = new CardBlockRequestCreate(1L, nonExistentCardId);
 
-        when(cardRepository.findById(nonExistentCardId)).thenReturn(Optional.empty());
+        when(cardOwnerIndex.isOwnedBy(nonExistentCardId, 1L))
+                .thenThrow(new NotFoundException("Card with id " + nonExistentCardId + " not found"));
 
         assertThatThrownBy(() -> cardBlockRequestService.createCardBlockRequest(request))
                 .isInstanceOf(NotFoundException.class)
@@ -106,7 +110,8 @@ public class CardBlockRequestServiceTest extends BaseServiceTest {
 
         CardBlockRequestCreate request = new CardBlockRequestCreate(nonExistentUserId, cardId);
 
-        when(cardRepository.findById(cardId)).thenReturn(Optional.of(card));
+        when(cardOwnerIndex.isOwnedBy(cardId, nonExistentUserId)).thenReturn(true);
+        when(cardRepository.findWithOwnerById(cardId)).thenReturn(Optional.of(card));
         when(userRepository.findById(nonExistentUserId)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> cardBlockRequestService.createCardBlockRequest(request))
@@ -122,13 +127,49 @@ public class CardBlockRequestServiceTest extends BaseServiceTest {
 
         CardBlockRequestCreate request = new CardBlockRequestCreate(cardId, 1L);
 
-        when(cardRepository.findById(cardId)).thenReturn(Optional.of(card));
+        when(cardOwnerIndex.isOwnedBy(1L, cardId)).thenReturn(true);
+        when(cardRepository.findWithOwnerById(cardId)).thenReturn(Optional.of(card));
 
         assertThatThrownBy(() -> cardBlockRequestService.createCardBlockRequest(request))
                 .isInstanceOf(ConflictException.class)
                 .hasMessage("Card with id " + cardId + " already blocked");
     }
 
+    @Test
+    void createCardBlockRequest_whenIndexHoldsCardAsBlocked_shouldRejectWithoutLoadingCard() {
+        long cardId = testCard().getId();
+
+        CardBlockRequestCreate request = new CardBlockRequestCreate(cardId, 1L);
+
+        when(cardOwnerIndex.isOwnedBy(1L, cardId)).thenReturn(true);
+        when(cardStatusIndex.inactiveStatus(cardId)).thenReturn(CardStatus.BLOCKED);
+
+        assertThatThrownBy(() -> cardBlockRequestService.createCardBlockRequest(request))
+                .isInstanceOf(ConflictException.class)
+                .hasMessage("Card with id " + cardId + " already blocked");
+
+        verifyNoInteractions(cardRepository, cardBlockRequestRepository);
+    }
+
+    @Test
+    void createCardBlockRequest_whenIndexEntryIsStale_shouldCorrectIndexAndUseLoadedCard() {
+        Card card = testCard();
+        long cardId = card.getId();
+
+        CardBlockRequestCreate request = new CardBlockRequestCreate(cardId, 1L);
+
+        when(cardOwnerIndex.isOwnedBy(1L, cardId)).thenReturn(true);
+        when(cardStatusIndex.inactiveStatus(cardId)).thenReturn(CardStatus.EXPIRED);
+        when(cardRepository.findWithOwnerById(cardId)).thenReturn(Optional.of(card));
+        when(cardBlockRequestRepository.existsByCardAndStatus(card, CardBlockRequestStatus.PENDING)).thenReturn(true);
+
+        assertThatThrownBy(() -> cardBlockRequestService.createCardBlockRequest(request))
+                .isInstanceOf(ConflictException.class)
+                .hasMessage("Pending request already exists");
+
+        verify(cardStatusIndex).correct(cardId, CardStatus.EXPIRED, CardStatus.ACTIVE);
+    }
+
     @Test
     void createCardBlockRequest_whenPendingRequestExists_shouldThrowConflictException() {
         Card card = testCard();
@@ -136,7 +177,8 @@ public class CardBlockRequestServiceTest extends BaseServiceTest {
 
         CardBlockRequestCreate request = new CardBlockRequestCreate(cardId, 1L);
 
-        when(cardRepository.findById(cardId)).thenReturn(Optional.of(card));
+        when(cardOwnerIndex.isOwnedBy(1L, cardId)).thenReturn(true);
+        when(cardRepository.findWithOwnerById(cardId)).thenReturn(Optional.of(card));
         when(cardBlockRequestRepository.existsByCardAndStatus(card, CardBlockRequestStatus.PENDING))
                 .thenReturn(true);
 
@@ -145,6 +187,21 @@ public class CardBlockRequestServiceTest extends BaseServiceTest {
                 .hasMessage("Pending request already exists");
     }
 
+    @Test
+    void createCardBlockRequest_whenCardBelongsToAnotherUser_shouldThrowAccessDeniedException() {
+        long cardId = testCard().getId();
+        long strangerId = 9999L;
+
+        CardBlockRequestCreate request = new CardBlockRequestCreate(strangerId, cardId);
+
+        when(cardOwnerIndex.isOwnedBy(cardId, strangerId)).thenReturn(false);
+
+        assertThatThrownBy(() -> cardBlockRequestService.createCardBlockRequest(request))
+                .isInstanceOf(AccessDeniedException.class);
+
+        verifyNoInteractions(cardRepository, cardBlockRequestRepository);
+    }
+
     // getFilteredCardBlockRequests
     @Test
     void getFilteredCardBlockRequest_shouldReturnFilteredPageOfCardBlockRequestResponse() {
@@ -188,12 +245,14 @@ public class CardBlockRequestServiceTest extends BaseServiceTest {
 
         CardBlockRequestAnswer answer = new CardBlockRequestAnswer(CardBlockRequestStatus.APPROVED);
 
-        when(cardBlockRequestRepository.findById(requestId)).thenReturn(Optional.of(request));
+        when(cardBlockRequestRepository.findWithCardById(requestId)).thenReturn(Optional.of(request));
         when(userRepository.findById(adminId)).thenReturn(Optional.of(admin));
 
         String result = cardBlockRequestService.answerCardBlockRequest(requestId, adminId, answer);
 
         assertThat(result).isEqualTo("Approved");
+        assertThat(meterRegistry.get(BankcardsMetrics.BLOCK_DECISIONS).tag("decision", "APPROVED").counter().count())
+                .isEqualTo(1);
         assertThat(request.getStatus()).isEqualTo(CardBlockRequestStatus.APPROVED);
         assertThat(request.getProcessedBy()).isEqualTo(admin);
         assertThat(request.getProcessedAt()).isNotNull();
@@ -214,12 +273,14 @@ public class CardBlockRequestServiceTest extends BaseServiceTest {
 
         CardBlockRequestAnswer answer = new CardBlockRequestAnswer(CardBlockRequestStatus.REJECTED);
 
-        when(cardBlockRequestRepository.findById(requestId)).thenReturn(Optional.of(request));
+        when(cardBlockRequestRepository.findWithCardById(requestId)).thenReturn(Optional.of(request));
         when(userRepository.findById(adminId)).thenReturn(Optional.of(admin));
 
         String result = cardBlockRequestService.answerCardBlockRequest(requestId, adminId, answer);
 
         assertThat(result).isEqualTo("Rejected");
+        assertThat(meterRegistry.get(BankcardsMetrics.BLOCK_DECISIONS).tag("decision", "REJECTED").counter().count())
+                .isEqualTo(1);
         assertThat(request.getStatus()).isEqualTo(CardBlockRequestStatus.REJECTED);
         assertThat(request.getProcessedBy()).isEqualTo(admin);
         assertThat(request.getProcessedAt()).isNotNull();
@@ -235,7 +296,7 @@ public class CardBlockRequestServiceTest extends BaseServiceTest {
         Long adminId = 1L;
         CardBlockRequestAnswer answer = new CardBlockRequestAnswer(CardBlockRequestStatus.APPROVED);
 
-        when(cardBlockRequestRepository.findById(nonExistentRequestId)).thenReturn(Optional.empty());
+        when(cardBlockRequestRepository.findWithCardById(nonExistentRequestId)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> cardBlockRequestService.answerCardBlockRequest(nonExistentRequestId, adminId, answer))
                 .isInstanceOf(NotFoundException.class)
@@ -251,7 +312,7 @@ public class CardBlockRequestServiceTest extends BaseServiceTest {
 
         CardBlockRequestAnswer answer = new CardBlockRequestAnswer(CardBlockRequestStatus.APPROVED);
 
-        when(cardBlockRequestRepository.findById(requestId)).thenReturn(Optional.of(request));
+        when(cardBlockRequestRepository.findWithCardById(requestId)).thenReturn(Optional.of(request));
         when(userRepository.findById(nonExistentAdminId)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> cardBlockRequestService.answerCardBlockRequest(requestId, nonExistentAdminId, answer))
@@ -268,7 +329,7 @@ public class CardBlockRequestServiceTest extends BaseServiceTest {
         CardBlockRequest request = new CardBlockRequest();
         User admin = new User();
 
-        when(cardBlockRequestRepository.findById(requestId)).thenReturn(Optional.of(request));
+        when(cardBlockRequestRepository.findWithCardById(requestId)).thenReturn(Optional.of(request));
         when(userRepository.findById(adminId)).thenReturn(Optional.of(admin));
 
         assertThatThrownBy(() -> cardBlockRequestService.answerCardBlockRequest(requestId, adminId, answer))
@@ -0,0 +1,118 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.metrics.BankcardsMetrics;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CardExpirySweeperTest extends BaseServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2030, 1, 1);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement lock;
+
+    @Mock
+    private PreparedStatement unlock;
+
+    @Mock
+    private PreparedStatement expire;
+
+    private CardExpirySweeper sweeper;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sweeper = new CardExpirySweeper(jdbcTemplate, entityManagerFactory, eventPublisher, metrics, 2);
+
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+        when(connection.prepareStatement(CardExpirySweeper.LOCK_SQL)).thenReturn(lock);
+    }
+
+    @Test
+    void sweep_shouldExpireInChunksUntilFewerRowsThanChunkSizeAreLeft() throws Exception {
+        ResultSet locked = booleanResult(true);
+        when(lock.executeQuery()).thenReturn(locked);
+        when(connection.prepareStatement(CardExpirySweeper.UNLOCK_SQL)).thenReturn(unlock);
+        ResultSet unlocked = booleanResult(true);
+        when(unlock.executeQuery()).thenReturn(unlocked);
+        when(connection.prepareStatement(CardExpirySweeper.EXPIRE_SQL)).thenReturn(expire);
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+
+        ResultSet firstChunk = mock(ResultSet.class);
+        when(firstChunk.next()).thenReturn(true, true, false);
+        when(firstChunk.getLong(1)).thenReturn(1L, 2L);
+        when(firstChunk.getObject(2, Long.class)).thenReturn(10L, 20L);
+        ResultSet lastChunk = mock(ResultSet.class);
+        when(lastChunk.next()).thenReturn(true, false);
+        when(lastChunk.getLong(1)).thenReturn(3L);
+        when(lastChunk.getObject(2, Long.class)).thenReturn(30L);
+        when(expire.executeQuery()).thenReturn(firstChunk, lastChunk);
+
+        assertThat(sweeper.sweep(TODAY)).isEqualTo(3);
+
+        verify(expire).setObject(1, TODAY);
+        verify(expire).setInt(2, 2);
+        verify(expire, times(2)).executeQuery();
+        verify(cache).evict(Card.class, 1L);
+        verify(cache).evict(Card.class, 3L);
+        verify(unlock).setLong(1, CardExpirySweeper.LOCK_KEY);
+
+        ArgumentCaptor<CardChangedEvent> events = ArgumentCaptor.forClass(CardChangedEvent.class);
+        verify(eventPublisher, times(3)).publishEvent(events.capture());
+        assertThat(events.getAllValues())
+                .extracting(CardChangedEvent::getCardId, CardChangedEvent::getOwnerId)
+                .containsExactly(tuple(1L, 10L), tuple(2L, 20L), tuple(3L, 30L));
+        assertThat(meterRegistry.get(BankcardsMetrics.CARDS_EXPIRED).counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void sweep_whenAnotherNodeHoldsLock_shouldSkipRun() throws Exception {
+        ResultSet notLocked = booleanResult(false);
+        when(lock.executeQuery()).thenReturn(notLocked);
+
+        assertThat(sweeper.sweep(TODAY)).isZero();
+
+        verify(connection, never()).prepareStatement(CardExpirySweeper.EXPIRE_SQL);
+        verify(connection, never()).prepareStatement(CardExpirySweeper.UNLOCK_SQL);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static ResultSet booleanResult(boolean value) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBoolean(1)).thenReturn(value);
+        return resultSet;
+    }
+}
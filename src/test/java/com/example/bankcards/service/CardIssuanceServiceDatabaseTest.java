@@ -0,0 +1,67 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardBulkIssueRequest;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserRole;
+import com.example.bankcards.entity.UserStatus;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardNumberCipher;
+import com.example.bankcards.util.Luhn;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs bulk issuance against the database, like {@code BankcardsApplicationTests}, so its SQL is checked by
+ * PostgreSQL rather than by mocks. Cards and users roll back with the test; only the account counter advances.
+ */
+@SpringBootTest
+@Transactional
+public class CardIssuanceServiceDatabaseTest {
+
+    @Autowired
+    private CardIssuanceService cardIssuanceService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardNumberCipher cardNumberCipher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void issueCards_shouldReserveAccountsAndInsertCards() {
+        User owner = userRepository.save(User.builder()
+                                             .name("Issuance")
+                                             .email("issuance-" + UUID.randomUUID() + "@example.com")
+                                             .password("encodedPassword")
+                                             .role(UserRole.USER)
+                                             .status(UserStatus.ACTIVE)
+                                             .build());
+        CardBulkIssueRequest request = new CardBulkIssueRequest(List.of(owner.getId(), owner.getId()), LocalDate.now().plusYears(3));
+
+        // The second run takes the ON CONFLICT path of the counter even when the first created it.
+        cardIssuanceService.issueCards(request);
+        cardIssuanceService.issueCards(request);
+
+        List<String> hashes = jdbcTemplate.queryForList(
+            "SELECT number_hash FROM cards WHERE owner_id = ? ORDER BY id", String.class, owner.getId());
+        List<String> numbers = jdbcTemplate.queryForList(
+            "SELECT card_number FROM cards WHERE owner_id = ? ORDER BY id", String.class, owner.getId())
+                                           .stream().map(cardNumberCipher::decrypt).toList();
+
+        assertThat(numbers).hasSize(4).doesNotHaveDuplicates().allSatisfy(number -> assertThat(number).startsWith("4000 00"));
+        assertThat(hashes).isEqualTo(numbers.stream().map(cardNumberCipher::blindIndex).toList());
+        assertThat(numbers).allSatisfy(number -> assertThat(Luhn.isValid(number)).isTrue());
+    }
+}
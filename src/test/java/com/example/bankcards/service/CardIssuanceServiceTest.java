@@ -0,0 +1,133 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardBulkIssueRequest;
+import com.example.bankcards.dto.CardBulkIssueResponse;
+import com.example.bankcards.dto.CardResponse;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.exception.BadRequestException;
+import com.example.bankcards.exception.NotFoundException;
+import com.example.bankcards.util.Luhn;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CardIssuanceServiceTest extends BaseServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CardIssuanceService cardIssuanceService;
+
+    @BeforeEach
+    void setUp() {
+        cardIssuanceService = new CardIssuanceService(
+                userRepository, cardMapper, cardNumberCipher, jdbcTemplate, transactionManager, eventPublisher, metrics);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void issueCards_shouldResolveOwnersOnceAndBatchInsertLuhnValidNumbers() {
+        CardBulkIssueRequest request = new CardBulkIssueRequest(List.of(1L, 1L, 1L), LocalDate.now().plusYears(3));
+
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of(testUser()));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("400000"), eq(3), eq(3))).thenReturn(41L);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(3))).thenReturn(List.of(10L, 11L, 12L));
+        when(cardMapper.toResponseDto(any(Card.class))).thenReturn(new CardResponse());
+
+        CardBulkIssueResponse response = cardIssuanceService.issueCards(request);
+
+        assertThat(response.getIssued()).isEqualTo(3);
+        assertThat(response.getCards()).hasSize(3);
+
+        ArgumentCaptor<Collection<Card>> cards = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), cards.capture(), eq(1000), any(ParameterizedPreparedStatementSetter.class));
+        assertThat(cards.getValue())
+                .extracting(Card::getId, Card::getNumber)
+                .containsExactly(tuple(10L, "4000 0000 0000 0416"),
+                                 tuple(11L, "4000 0000 0000 0424"),
+                                 tuple(12L, "4000 0000 0000 0432"));
+        assertThat(cards.getValue()).allSatisfy(card -> {
+            assertThat(Luhn.isValid(card.getNumber())).isTrue();
+            assertThat(card.getNumberHash()).isEqualTo(cardNumberCipher.blindIndex(card.getNumber()));
+        });
+
+        verify(userRepository, times(1)).findAllById(anyIterable());
+        verify(cardRepository, never()).existsByNumberHash(anyString());
+        verify(eventPublisher, times(3)).publishEvent(any(CardChangedEvent.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void issueCards_whenGeneratedNumberAlreadyStored_shouldReplaceItWithNewAccount() {
+        CardBulkIssueRequest request = new CardBulkIssueRequest(List.of(1L, 1L), LocalDate.now().plusYears(3));
+        String stored = cardNumberCipher.blindIndex("4000 0000 0000 0416");
+
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of(testUser()));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("400000"), eq(2), eq(2))).thenReturn(41L);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("400000"), eq(1), eq(1))).thenReturn(43L);
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class)))
+                .thenReturn(List.of(stored), List.of());
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(2))).thenReturn(List.of(10L, 11L));
+        when(cardMapper.toResponseDto(any(Card.class))).thenReturn(new CardResponse());
+
+        cardIssuanceService.issueCards(request);
+
+        ArgumentCaptor<Collection<Card>> cards = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), cards.capture(), eq(1000), any(ParameterizedPreparedStatementSetter.class));
+        assertThat(cards.getValue())
+                .extracting(Card::getNumber)
+                .containsExactly("4000 0000 0000 0432", "4000 0000 0000 0424");
+        verify(jdbcTemplate, times(2)).query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class));
+    }
+
+    @Test
+    void issueCards_whenOwnerMissing_shouldThrowNotFoundException() {
+        CardBulkIssueRequest request = new CardBulkIssueRequest(List.of(1L, 99999L), LocalDate.now().plusYears(3));
+
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of(testUser()));
+
+        assertThatThrownBy(() -> cardIssuanceService.issueCards(request))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("99999");
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void issueCards_whenExpiryDateInPast_shouldThrowBadRequestException() {
+        CardBulkIssueRequest request = new CardBulkIssueRequest(List.of(1L), LocalDate.now().minusDays(1));
+
+        assertThatThrownBy(() -> cardIssuanceService.issueCards(request))
+                .isInstanceOf(BadRequestException.class);
+
+        verifyNoInteractions(userRepository, jdbcTemplate);
+    }
+
+    @Test
+    void luhn_shouldAcceptValidAndRejectMistypedNumbers() {
+        assertThat(Luhn.isValid("4539 1488 0343 6467")).isTrue();
+        assertThat(Luhn.isValid("4539 1488 0343 6468")).isFalse();
+        assertThat(Luhn.isValid("1234 1234 1234 123x")).isFalse();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CardNumberEncryptionBackfillTest extends BaseServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache cache;
+
+    private CardNumberEncryptionBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        backfill = new CardNumberEncryptionBackfill(jdbcTemplate, cardNumberCipher, entityManagerFactory, 2);
+    }
+
+    @Test
+    void backfill_shouldEncryptAndHashInChunksAfterTheLastId() throws Exception {
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        doAnswer(invocation -> {
+            rows(invocation.getArgument(1), new long[]{1, 2}, "4000000000000416", "4000000000000424");
+            return null;
+        }).when(jdbcTemplate).query(eq(CardNumberEncryptionBackfill.SELECT_SQL), any(RowCallbackHandler.class), eq(0L), eq(2));
+        doAnswer(invocation -> {
+            rows(invocation.getArgument(1), new long[]{3}, "4000000000000432");
+            return null;
+        }).when(jdbcTemplate).query(eq(CardNumberEncryptionBackfill.SELECT_SQL), any(RowCallbackHandler.class), eq(2L), eq(2));
+
+        // The chunk list is reused, so each batch is copied when it is written.
+        List<List<Object[]>> batches = new ArrayList<>();
+        doAnswer(invocation -> {
+            batches.add(new ArrayList<>(invocation.<List<Object[]>>getArgument(1)));
+            return new int[0];
+        })
+                .when(jdbcTemplate).batchUpdate(eq(CardNumberEncryptionBackfill.UPDATE_SQL), anyList());
+
+        backfill.backfill();
+
+        assertThat(batches).extracting(List::size).containsExactly(2, 1);
+        Object[] first = batches.get(0).get(0);
+        assertThat(cardNumberCipher.decrypt((String) first[0])).isEqualTo("4000000000000416");
+        assertThat(first[0]).isNotEqualTo("4000000000000416");
+        assertThat(first[1]).isEqualTo(cardNumberCipher.blindIndex("4000000000000416"));
+        assertThat(first[2]).isEqualTo(1L);
+        verify(cache).evict(Card.class);
+    }
+
+    @Test
+    void backfill_whenNumberIsTaken_shouldWriteChunkRowByRowAndSkipTheConflict() throws Exception {
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        doAnswer(invocation -> {
+            rows(invocation.getArgument(1), new long[]{1, 2}, "4000000000000416", "4000000000000424");
+            return null;
+        }).when(jdbcTemplate).query(eq(CardNumberEncryptionBackfill.SELECT_SQL), any(RowCallbackHandler.class), eq(0L), eq(2));
+        doAnswer(invocation -> {
+            rows(invocation.getArgument(1), new long[]{3}, "4000000000000432");
+            return null;
+        }).when(jdbcTemplate).query(eq(CardNumberEncryptionBackfill.SELECT_SQL), any(RowCallbackHandler.class), eq(2L), eq(2));
+        when(jdbcTemplate.batchUpdate(eq(CardNumberEncryptionBackfill.UPDATE_SQL), anyList()))
+                .thenThrow(new DuplicateKeyException("uc_cards_number_hash"))
+                .thenReturn(new int[]{1});
+        when(jdbcTemplate.update(eq(CardNumberEncryptionBackfill.UPDATE_SQL), any(Object[].class))).thenAnswer(invocation -> {
+            if (invocation.getArgument(3).equals(1L)) {
+                throw new DuplicateKeyException("uc_cards_number_hash");
+            }
+            return 1;
+        });
+
+        backfill.backfill();
+
+        verify(jdbcTemplate, times(2)).update(eq(CardNumberEncryptionBackfill.UPDATE_SQL), any(Object[].class));
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(CardNumberEncryptionBackfill.UPDATE_SQL), anyList());
+        verify(cache).evict(Card.class);
+    }
+
+    @Test
+    void backfill_whenEveryCardIsEncrypted_shouldWriteNothing() {
+        backfill.backfill();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verifyNoInteractions(entityManagerFactory);
+    }
+
+    private static void rows(RowCallbackHandler handler, long[] ids, String... numbers) throws Exception {
+        for (int i = 0; i < ids.length; i++) {
+            ResultSet row = mock(ResultSet.class);
+            when(row.getLong(1)).thenReturn(ids[i]);
+            when(row.getString(2)).thenReturn(numbers[i]);
+            handler.processRow(row);
+        }
+    }
+}
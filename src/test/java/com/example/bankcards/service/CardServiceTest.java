@@ -2,14 +2,23 @@ package com.example.bankcards.service;
 
 import com.example.bankcards.dto.CardCreateRequest;
 import com.example.bankcards.dto.CardFilter;
+import com.example.bankcards.dto.CardListItem;
 import com.example.bankcards.dto.CardResponse;
+import com.example.bankcards.dto.CardScrollResponse;
 import com.example.bankcards.dto.CardUpdateRequest;
 import com.example.bankcards.entity.Card;
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.exception.AccessDeniedException;
+import com.example.bankcards.exception.BadRequestException;
 import com.example.bankcards.exception.ConflictException;
 import com.example.bankcards.exception.NotFoundException;
 import com.example.bankcards.entity.CardStatus;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
@@ -29,6 +38,11 @@ public class CardServiceTest extends BaseServiceTest {
     private CardService cardService;
 
 
+    private CardListItem testCardListItem() {
+        return new CardListItem(1L, "1234", LocalDate.of(2030, 1, 1), CardStatus.ACTIVE, 123400,
+                                testUser().getId(), testUser().getName());
+    }
+
     private CardResponse testCardResponse() {
         return CardResponse.builder()
                 .id(1L)
@@ -57,20 +71,33 @@ public class CardServiceTest extends BaseServiceTest {
         assertThat(response).isEqualTo(result);
 
         verify(cardRepository).save(card);
+        assertThat(card.getNumberHash()).isEqualTo(cardNumberCipher.blindIndex(request.getNumber()));
         verify(cardMapper).toResponseDto(card);
+        verify(eventPublisher).publishEvent(any(CardChangedEvent.class));
     }
 
     @Test
     void createCard_whenCardNumberAlreadyExists_shouldThrowConflictException() {
         CardCreateRequest request = new CardCreateRequest(testUser().getId(), testCard().getNumber(), testCard().getExpiryDate());
 
-        when(cardRepository.existsByNumber(request.getNumber())).thenReturn(true);
+        when(cardRepository.existsByNumberHash(cardNumberCipher.blindIndex(request.getNumber()))).thenReturn(true);
 
         assertThatThrownBy(() -> cardService.createCard(request))
                 .isInstanceOf(ConflictException.class)
                 .hasMessage("Card number already exists");
 
-        verify(cardRepository).existsByNumber(request.getNumber());
+        verify(cardRepository).existsByNumberHash(cardNumberCipher.blindIndex(request.getNumber()));
+    }
+
+    @Test
+    void createCard_whenNumberInIssuingBin_shouldThrowBadRequestException() {
+        CardCreateRequest request = new CardCreateRequest(testUser().getId(), "4000 0000 0000 0416", testCard().getExpiryDate());
+
+        assertThatThrownBy(() -> cardService.createCard(request))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Card numbers with BIN 400000 are reserved for issued cards");
+
+        verifyNoInteractions(cardRepository);
     }
 
     // getCardById
@@ -79,7 +106,7 @@ public class CardServiceTest extends BaseServiceTest {
         Card card = testCard();
         CardResponse response = testCardResponse();
 
-        when(cardRepository.findById(card.getId())).thenReturn(Optional.of(card));
+        when(cardRepository.findWithOwnerById(card.getId())).thenReturn(Optional.of(card));
         when(cardMapper.toResponseDto(card)).thenReturn(response);
 
         CardResponse result = cardService.getCardById(card.getId());
@@ -88,7 +115,7 @@ public class CardServiceTest extends BaseServiceTest {
         assertThat(result.getNumber()).isEqualTo(response.getNumber());
         assertThat(result.getOwnerId()).isEqualTo(response.getOwnerId());
 
-        verify(cardRepository).findById(card.getId());
+        verify(cardRepository).findWithOwnerById(card.getId());
         verify(cardMapper).toResponseDto(card);
     }
 
@@ -96,13 +123,13 @@ public class CardServiceTest extends BaseServiceTest {
     void getCardById_whenCardNotFound_shouldReturnThrowNotFoundException() {
         long nonExistentCardId = 99999L;
 
-        when(cardRepository.findById(nonExistentCardId)).thenReturn(Optional.empty());
+        when(cardRepository.findWithOwnerById(nonExistentCardId)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> cardService.getCardById(nonExistentCardId))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessage("Card with id " + nonExistentCardId + " not found");
 
-        verify(cardRepository).findById(nonExistentCardId);
+        verify(cardRepository).findWithOwnerById(nonExistentCardId);
     }
 
     // getAllCards
@@ -111,10 +138,10 @@ public class CardServiceTest extends BaseServiceTest {
         CardFilter filter = CardFilter.builder().status(CardStatus.ACTIVE).build();
         Pageable pageable = PageRequest.of(0, 10, Sort.by("status").descending());
 
-        Card card = testCard();
+        CardListItem card = testCardListItem();
         CardResponse response = testCardResponse();
 
-        when(cardRepository.findAll(any(Specification.class), eq(pageable)))
+        when(cardRepository.findListItems(any(Specification.class), eq(pageable)))
                 .thenReturn(new PageImpl<>(List.of(card), pageable, 1));
         when(cardMapper.toResponseDto(card)).thenReturn(response);
 
@@ -129,10 +156,34 @@ public class CardServiceTest extends BaseServiceTest {
                     assertThat(cardResp.getOwnerId()).isEqualTo(response.getOwnerId());
                 });
 
-        verify(cardRepository).findAll(any(Specification.class), eq(pageable));
+        verify(cardRepository).findListItems(any(Specification.class), eq(pageable));
         verify(cardMapper).toResponseDto(card);
     }
 
+    @Test
+    void getAllCards_whenColumnStoreReady_shouldLoadOnlyPageIdsInStoreOrder() {
+        CardFilter filter = CardFilter.builder().status(CardStatus.ACTIVE).build();
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("balance").descending());
+
+        CardListItem first = testCardListItem();
+        CardListItem second = new CardListItem(2L, "5678", LocalDate.of(2030, 1, 1), CardStatus.ACTIVE, 500, 1L, "Ivan");
+        CardResponse firstResponse = testCardResponse();
+        CardResponse secondResponse = testCardResponse();
+
+        when(cardColumnStore.isReady()).thenReturn(true);
+        when(cardColumnStore.supports(pageable.getSort())).thenReturn(true);
+        when(cardColumnStore.findIds(filter, pageable)).thenReturn(new PageImpl<>(List.of(2L, 1L), pageable, 7));
+        when(cardRepository.findListItemsByIdIn(List.of(2L, 1L))).thenReturn(List.of(first, second));
+        when(cardMapper.toResponseDto(first)).thenReturn(firstResponse);
+        when(cardMapper.toResponseDto(second)).thenReturn(secondResponse);
+
+        Page<CardResponse> result = cardService.getAllCards(filter, pageable);
+
+        assertThat(result.getContent()).containsExactly(secondResponse, firstResponse);
+        assertThat(result.getTotalElements()).isEqualTo(7);
+        verify(cardRepository, never()).findListItems(any(Specification.class), any(Pageable.class));
+    }
+
     // getFilteredCards
     @Test
     void getFilteredCards_shouldApplyAllFilters() {
@@ -146,12 +197,12 @@ public class CardServiceTest extends BaseServiceTest {
 
         Pageable pageable = PageRequest.of(0, 10, Sort.by("balance").descending());
 
-        Card card = testCard();
+        CardListItem card = testCardListItem();
         CardResponse response = testCardResponse();
 
-        Page<Card> mockPage = new PageImpl<>(List.of(card), pageable, 1);
+        Page<CardListItem> mockPage = new PageImpl<>(List.of(card), pageable, 1);
 
-        when(cardRepository.findAll(any(Specification.class), eq(pageable)))
+        when(cardRepository.findListItems(any(Specification.class), eq(pageable)))
                 .thenReturn(mockPage);
         when(cardMapper.toResponseDto(card)).thenReturn(response);
 
@@ -167,18 +218,18 @@ public class CardServiceTest extends BaseServiceTest {
                 });
         assertThat(result.getSort()).isEqualTo(Sort.by("balance").descending());
 
-        verify(cardRepository).findAll(any(Specification.class), eq(pageable));
+        verify(cardRepository).findListItems(any(Specification.class), eq(pageable));
         verify(cardMapper).toResponseDto(card);
     }
 
     @Test
     void getFilteredCards_shouldApplyOnlyUserFilter() {
         Pageable pageable = Pageable.unpaged();
-        Card card = testCard();
-        Page<Card> mockPage = new PageImpl<>(List.of(card));
+        CardListItem card = testCardListItem();
+        Page<CardListItem> mockPage = new PageImpl<>(List.of(card));
         CardResponse response = testCardResponse();
 
-        when(cardRepository.findAll(any(Specification.class), eq(pageable)))
+        when(cardRepository.findListItems(any(Specification.class), eq(pageable)))
                 .thenReturn(mockPage);
         when(cardMapper.toResponseDto(card)).thenReturn(response);
 
@@ -186,7 +237,74 @@ public class CardServiceTest extends BaseServiceTest {
         Page<CardResponse> result = cardService.getFilteredCards(testUser().getId(), null, pageable);
 
         assertThat(result).isNotNull().hasSize(1);
-        verify(cardRepository).findAll(any(Specification.class), eq(pageable));
+        verify(cardRepository).findListItems(any(Specification.class), eq(pageable));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getFilteredCards_shouldRestrictQueryToOwnerAndFilter() {
+        CardFilter filter = CardFilter.builder().status(CardStatus.ACTIVE).build();
+        Pageable pageable = Pageable.unpaged();
+        ArgumentCaptor<Specification<Card>> specification = ArgumentCaptor.forClass(Specification.class);
+
+        when(cardRepository.findListItems(specification.capture(), eq(pageable))).thenReturn(Page.empty());
+
+        cardService.getFilteredCards(testUser().getId(), filter, pageable);
+
+        Root<Card> root = mock(Root.class, RETURNS_DEEP_STUBS);
+        CriteriaBuilder cb = mock(CriteriaBuilder.class);
+        specification.getValue().toPredicate(root, mock(CriteriaQuery.class), cb);
+
+        verify(cb).equal(root.get("owner").get("id"), testUser().getId());
+        verify(cb).equal(root.get("status"), CardStatus.ACTIVE);
+    }
+
+    // getUserCards
+    @Test
+    void getUserCards_shouldReturnPageAndNextAfterIdFromOneExtraCard() {
+        List<CardListItem> cards = List.of(listItem(11L), listItem(12L), listItem(15L));
+        when(cardRepository.findListItemsByOwnerIdAfter(1L, 10L, 3)).thenReturn(cards);
+        when(cardMapper.toResponseDto(any(CardListItem.class)))
+                .thenAnswer(invocation -> CardResponse.builder().id(invocation.<CardListItem>getArgument(0).getId()).build());
+
+        CardScrollResponse result = cardService.getUserCards(1L, 10L, 2);
+
+        assertThat(result.getCards()).extracting(CardResponse::getId).containsExactly(11L, 12L);
+        assertThat(result.getNextAfterId()).isEqualTo(12L);
+        verify(cardMapper, times(2)).toResponseDto(any(CardListItem.class));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getUserCards_onLastPage_shouldReturnNoNextAfterId() {
+        when(cardRepository.findListItemsByOwnerIdAfter(1L, 12L, 3)).thenReturn(List.of(listItem(15L)));
+
+        CardScrollResponse result = cardService.getUserCards(1L, 12L, 2);
+
+        assertThat(result.getCards()).hasSize(1);
+        assertThat(result.getNextAfterId()).isNull();
+    }
+
+    @Test
+    void getUserCards_whenUserNotFound_shouldThrowNotFoundException() {
+        when(cardRepository.findListItemsByOwnerIdAfter(99999L, 0L, 101)).thenReturn(List.of());
+        when(userRepository.existsById(99999L)).thenReturn(false);
+
+        assertThatThrownBy(() -> cardService.getUserCards(99999L, 0L, 100))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("Not found user with id: 99999");
+    }
+
+    @Test
+    void getUserCards_whenSizeTooLarge_shouldThrowBadRequestException() {
+        assertThatThrownBy(() -> cardService.getUserCards(1L, 0L, CardService.MAX_SCROLL_SIZE + 1))
+                .isInstanceOf(BadRequestException.class);
+
+        verifyNoInteractions(cardRepository);
+    }
+
+    private CardListItem listItem(long id) {
+        return new CardListItem(id, "0416", LocalDate.now().plusYears(1), CardStatus.ACTIVE, 1000L, 1L, "Ivan");
     }
 
     // updateCard
@@ -199,7 +317,7 @@ public class CardServiceTest extends BaseServiceTest {
 
         CardUpdateRequest request = CardUpdateRequest.builder().status(CardStatus.BLOCKED).build();
 
-        when(cardRepository.findById(card.getId())).thenReturn(Optional.of(card));
+        when(cardRepository.findWithOwnerById(card.getId())).thenReturn(Optional.of(card));
         doNothing().when(cardMapper).updateEntityFromDto(card, request);
         when(cardRepository.save(card)).thenReturn(card);
         when(cardMapper.toResponseDto(card)).thenReturn(response);
@@ -218,13 +336,13 @@ public class CardServiceTest extends BaseServiceTest {
         long nonExistentCardId = 99999L;
         CardUpdateRequest request = CardUpdateRequest.builder().status(CardStatus.BLOCKED).build();
 
-        when(cardRepository.findById(nonExistentCardId)).thenReturn(Optional.empty());
+        when(cardRepository.findWithOwnerById(nonExistentCardId)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> cardService.updateCard(nonExistentCardId, request))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessage("Card with id " + nonExistentCardId + " not found");
 
-        verify(cardRepository).findById(nonExistentCardId);
+        verify(cardRepository).findWithOwnerById(nonExistentCardId);
     }
 
     // deleteCard
@@ -238,7 +356,10 @@ public class CardServiceTest extends BaseServiceTest {
         assertThatNoException().isThrownBy(() -> cardService.deleteCard(card.getId()));
 
         verify(cardRepository, times(1)).findById(card.getId());
+        verify(transactionRepository).deleteByCardId(card.getId());
+        verify(cardBlockRequestRepository).deleteByCardId(card.getId());
         verify(cardRepository, times(1)).deleteById(card.getId());
+        verify(eventPublisher).publishEvent(argThat((CardChangedEvent event) -> event.isDeleted()));
     }
 
     @Test
@@ -258,25 +379,63 @@ public class CardServiceTest extends BaseServiceTest {
     void getBalance_shouldReturnLongBalance() {
         Card card = testCard();
 
-        when(cardRepository.findById(card.getId())).thenReturn(Optional.of(card));
+        when(cardOwnerIndex.isOwnedBy(card.getId(), testUser().getId())).thenReturn(true);
+        when(cardBalanceCache.getBalance(card.getId())).thenReturn(card.getBalance());
 
-        long result = cardService.getCardBalance(card.getId());
+        long result = cardService.getCardBalance(card.getId(), testUser().getId());
 
         assertThat(result).isGreaterThan(0);
         assertThat(result).isEqualTo(card.getBalance());
 
-        verify(cardRepository, times(1)).findById(card.getId());
+        verify(cardBalanceCache, times(1)).getBalance(card.getId());
+        verify(cardRepository, never()).findById(card.getId());
     }
 
     @Test
     void getBalance_whenCardNotFound_shouldThrowNotFoundException() {
         long nonExistentCardId = 99999L;
-        when(cardRepository.findById(nonExistentCardId)).thenReturn(Optional.empty());
+        when(cardOwnerIndex.isOwnedBy(nonExistentCardId, testUser().getId()))
+                .thenThrow(new NotFoundException("Card with id " + nonExistentCardId + " not found"));
 
-        assertThatThrownBy(() -> cardService.getCardBalance(nonExistentCardId))
+        assertThatThrownBy(() -> cardService.getCardBalance(nonExistentCardId, testUser().getId()))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessageContaining("Card with id " + nonExistentCardId + " not found");
 
-        verify(cardRepository, times(1)).findById(nonExistentCardId);
+        verifyNoInteractions(cardBalanceCache);
+    }
+
+    @Test
+    void getBalance_whenCardBelongsToAnotherUser_shouldThrowAccessDeniedException() {
+        Card card = testCard();
+        long strangerId = 9999L;
+
+        when(cardOwnerIndex.isOwnedBy(card.getId(), strangerId)).thenReturn(false);
+
+        assertThatThrownBy(() -> cardService.getCardBalance(card.getId(), strangerId))
+                .isInstanceOf(AccessDeniedException.class);
+
+        verifyNoInteractions(cardRepository, cardBalanceCache);
+    }
+
+    // ETags
+    @Test
+    void getCardsETag_shouldUseOwnerTagForUsersAndGlobalTagForAdmins() {
+        when(cardVersionRegistry.ownerTag(1L)).thenReturn("epoch-u1-5");
+        when(cardVersionRegistry.globalTag()).thenReturn("epoch-9");
+
+        assertThat(cardService.getCardsETag(1L, false)).isEqualTo("epoch-u1-5");
+        assertThat(cardService.getCardsETag(1L, true)).isEqualTo("epoch-9");
+
+        verifyNoInteractions(cardRepository);
+    }
+
+    @Test
+    void getCardBalanceETag_whenCardBelongsToAnotherUser_shouldThrowAccessDeniedException() {
+        when(cardOwnerIndex.isOwnedBy(1L, 9999L)).thenReturn(false);
+
+        assertThatThrownBy(() -> cardService.getCardBalanceETag(1L, 9999L))
+                .isInstanceOf(AccessDeniedException.class);
+
+        verifyNoInteractions(cardVersionRegistry);
     }
 }
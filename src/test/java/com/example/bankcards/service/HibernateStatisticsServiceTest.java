@@ -0,0 +1,72 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.HibernateStatisticsResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class HibernateStatisticsServiceTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Statistics statistics;
+
+    @Mock
+    private CacheRegionStatistics cardsRegion;
+
+    private HibernateStatisticsService hibernateStatisticsService;
+
+    @BeforeEach
+    void setUp() {
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        hibernateStatisticsService = new HibernateStatisticsService(entityManagerFactory);
+    }
+
+    @Test
+    void getStatistics_shouldReportSecondLevelCacheHitRatios() {
+        when(statistics.isStatisticsEnabled()).thenReturn(true);
+        when(statistics.getSecondLevelCacheHitCount()).thenReturn(75L);
+        when(statistics.getSecondLevelCacheMissCount()).thenReturn(25L);
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[]{"cards"});
+        when(statistics.getCacheRegionStatistics("cards")).thenReturn(cardsRegion);
+        when(cardsRegion.getRegionName()).thenReturn("cards");
+        when(cardsRegion.getHitCount()).thenReturn(9L);
+        when(cardsRegion.getMissCount()).thenReturn(1L);
+
+        HibernateStatisticsResponse result = hibernateStatisticsService.getStatistics();
+
+        assertThat(result.isStatisticsEnabled()).isTrue();
+        assertThat(result.getSecondLevelCacheHitRatio()).isEqualTo(0.75);
+        assertThat(result.getRegions()).singleElement()
+                .satisfies(region -> {
+                    assertThat(region.getRegion()).isEqualTo("cards");
+                    assertThat(region.getHitRatio()).isEqualTo(0.9);
+                });
+    }
+
+    @Test
+    void getStatistics_withoutTraffic_shouldReportZeroRatio() {
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[0]);
+
+        HibernateStatisticsResponse result = hibernateStatisticsService.getStatistics();
+
+        assertThat(result.getSecondLevelCacheHitRatio()).isZero();
+        assertThat(result.getRegions()).isEmpty();
+    }
+}
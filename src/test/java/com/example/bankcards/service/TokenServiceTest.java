@@ -0,0 +1,119 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardTokenResponse;
+import com.example.bankcards.exception.BadRequestException;
+import com.example.bankcards.exception.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenServiceTest extends BaseServiceTest {
+
+    private static final String TOKEN = "q7Jd2X0uWb9yAVk3oNcH4w";
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private TokenService tokenService;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = new TokenService(jdbcTemplate, metrics, 100, 3);
+    }
+
+    @Test
+    void resolve_shouldReadTheVaultOnlyOnce() {
+        when(jdbcTemplate.queryForList(TokenService.RESOLVE_SQL, Map.of("token", TOKEN), Long.class)).thenReturn(List.of(7L));
+
+        assertThat(tokenService.resolve(TOKEN)).isEqualTo(7L);
+        assertThat(tokenService.resolve(TOKEN)).isEqualTo(7L);
+
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), anyMap(), eq(Long.class));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "card-tokens").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void resolve_whenTokenUnknown_shouldThrowNotFoundException() {
+        when(jdbcTemplate.queryForList(TokenService.RESOLVE_SQL, Map.of("token", TOKEN), Long.class)).thenReturn(List.of());
+
+        assertThatThrownBy(() -> tokenService.resolve(TOKEN))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("Card token not found");
+    }
+
+    @Test
+    void resolve_whenTokenMalformed_shouldNotQuery() {
+        assertThatThrownBy(() -> tokenService.resolve("1 OR 1=1"))
+                .isInstanceOf(NotFoundException.class);
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void issueTokens_shouldKeepExistingTokensAndIssueTheRestInOneBatch() {
+        doAnswer(invocation -> {
+            row(invocation.getArgument(2), 1L, TOKEN);
+            row(invocation.getArgument(2), 2L, null);
+            return null;
+        }).when(jdbcTemplate).query(eq(TokenService.CARDS_SQL), anyMap(), any(RowCallbackHandler.class));
+        doAnswer(invocation -> {
+            row(invocation.getArgument(2), 2L, "Zr5LmT8eKp1sQa6UvYx0Bg");
+            return null;
+        }).when(jdbcTemplate).query(eq(TokenService.TOKENS_SQL), eq(Map.of("ids", List.of(2L))), any(RowCallbackHandler.class));
+
+        List<CardTokenResponse> tokens = tokenService.issueTokens(List.of(2L, 1L, 2L));
+
+        assertThat(tokens).extracting(CardTokenResponse::getCardId, CardTokenResponse::getToken)
+                          .containsExactly(tuple(2L, "Zr5LmT8eKp1sQa6UvYx0Bg"), tuple(1L, TOKEN));
+        verify(jdbcTemplate).batchUpdate(eq(TokenService.INSERT_SQL), argThat((SqlParameterSource[] batch) ->
+                batch.length == 1 && batch[0].getValue("cardId").equals(2L)
+                && ((String) batch[0].getValue("token")).length() == 22));
+        // Issued tokens resolve without reading the vault.
+        assertThat(tokenService.resolve("Zr5LmT8eKp1sQa6UvYx0Bg")).isEqualTo(2L);
+        verify(jdbcTemplate, never()).queryForList(anyString(), anyMap(), eq(Long.class));
+    }
+
+    @Test
+    void issueTokens_whenCardMissing_shouldThrowNotFoundException() {
+        doAnswer(invocation -> {
+            row(invocation.getArgument(2), 1L, TOKEN);
+            return null;
+        }).when(jdbcTemplate).query(eq(TokenService.CARDS_SQL), anyMap(), any(RowCallbackHandler.class));
+
+        assertThatThrownBy(() -> tokenService.issueTokens(List.of(1L, 99L)))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("Cards not found: [99]");
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(SqlParameterSource[].class));
+    }
+
+    @Test
+    void issueTokens_whenBatchTooLarge_shouldThrowBadRequestException() {
+        assertThatThrownBy(() -> tokenService.issueTokens(List.of(1L, 2L, 3L, 4L)))
+                .isInstanceOf(BadRequestException.class);
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static void row(RowCallbackHandler handler, long cardId, String token) throws Exception {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong(1)).thenReturn(cardId);
+        when(row.getString(2)).thenReturn(token);
+        handler.processRow(row);
+    }
+}
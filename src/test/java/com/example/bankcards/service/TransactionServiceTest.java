@@ -3,21 +3,33 @@ package com.example.bankcards.service;
 import com.example.bankcards.dto.TransactionRequest;
 import com.example.bankcards.dto.TransactionResponse;
 import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.Transaction;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.AccessDeniedException;
 import com.example.bankcards.exception.BadRequestException;
 import com.example.bankcards.exception.NotFoundException;
 import com.example.bankcards.entity.TransactionStatus;
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.metrics.BankcardsMetrics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,18 +57,23 @@ public class TransactionServiceTest extends BaseServiceTest {
                 .status(TransactionStatus.PENDING)
                 .build();
 
+        when(cardOwnerIndex.getOwnerId(one.getId())).thenReturn(testUser().getId());
+        when(cardOwnerIndex.getOwnerId(two.getId())).thenReturn(testUser().getId());
         when(cardRepository.findById(one.getId())).thenReturn(Optional.of(one));
         when(cardRepository.findById(two.getId())).thenReturn(Optional.of(two));
         when(transactionMapper.toEntity(request, one, two)).thenReturn(transaction);
         when(transactionRepository.save(transaction)).thenReturn(transaction);
         when(transactionMapper.toResponse(transaction, userRepository)).thenReturn(response);
 
-        TransactionResponse result = transactionService.createTransaction(request);
+        TransactionResponse result = transactionService.createTransaction(request, testUser().getId());
 
         assertThat(result.getStatus()).isEqualTo(response.getStatus());
         assertThat(result.getAmount()).isEqualByComparingTo(response.getAmount());
 
         verify(transactionRepository, times(1)).save(transaction);
+        verify(eventPublisher, times(2)).publishEvent(any(CardChangedEvent.class));
+        assertThat(meterRegistry.get(BankcardsMetrics.TRANSFERS).tag("status", "PENDING").counter().count())
+                .isEqualTo(1);
     }
 
     @Test
@@ -76,12 +93,14 @@ public class TransactionServiceTest extends BaseServiceTest {
                 1, one, two, 10000, LocalDateTime.now(), TransactionStatus.PENDING
         );
 
+        when(cardOwnerIndex.getOwnerId(one.getId())).thenReturn(testUser().getId());
+        when(cardOwnerIndex.getOwnerId(two.getId())).thenReturn(twoUser.getId());
         when(cardRepository.findById(one.getId())).thenReturn(Optional.of(one));
         when(cardRepository.findById(two.getId())).thenReturn(Optional.of(two));
         when(transactionMapper.toEntity(request, one, two)).thenReturn(transaction);
         when(transactionRepository.save(transaction)).thenReturn(transaction);
 
-        assertThatThrownBy(() -> transactionService.createTransaction(request))
+        assertThatThrownBy(() -> transactionService.createTransaction(request, testUser().getId()))
                 .isInstanceOf(BadRequestException.class)
                 .hasMessage("Transfer can be made only between yours cards");
         assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.CANCELLED);
@@ -105,12 +124,14 @@ public class TransactionServiceTest extends BaseServiceTest {
                 1, one, two, 10000, LocalDateTime.now(), TransactionStatus.PENDING
         );
 
+        when(cardOwnerIndex.getOwnerId(one.getId())).thenReturn(testUser().getId());
+        when(cardOwnerIndex.getOwnerId(two.getId())).thenReturn(testUser().getId());
         when(cardRepository.findById(one.getId())).thenReturn(Optional.of(one));
         when(cardRepository.findById(two.getId())).thenReturn(Optional.of(two));
         when(transactionMapper.toEntity(request, one, two)).thenReturn(transaction);
         when(transactionRepository.save(transaction)).thenReturn(transaction);
 
-        assertThatThrownBy(() -> transactionService.createTransaction(request))
+        assertThatThrownBy(() -> transactionService.createTransaction(request, testUser().getId()))
                 .isInstanceOf(BadRequestException.class)
                 .hasMessage("Insufficient funds");
 
@@ -124,13 +145,98 @@ public class TransactionServiceTest extends BaseServiceTest {
         long existingCardId = 1L;
         TransactionRequest request = new TransactionRequest(nonExistentCardId, existingCardId, 100);
 
-        when(cardRepository.findById(nonExistentCardId)).thenReturn(Optional.empty());
+        when(cardOwnerIndex.getOwnerId(nonExistentCardId))
+                .thenThrow(new NotFoundException("Card with id " + nonExistentCardId + " not found"));
 
-        assertThatThrownBy(() -> transactionService.createTransaction(request))
+        assertThatThrownBy(() -> transactionService.createTransaction(request, testUser().getId()))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessage("Card with id " + nonExistentCardId + " not found");
 
-        verify(cardRepository).findById(nonExistentCardId);
+        verifyNoInteractions(cardRepository, transactionRepository);
+    }
+
+    @Test
+    void createTransaction_whenSourceCardBelongsToAnotherUser_shouldThrowAccessDeniedException() {
+        TransactionRequest request = new TransactionRequest(1L, 2L, 100);
+
+        when(cardOwnerIndex.getOwnerId(1L)).thenReturn(9999L);
+
+        assertThatThrownBy(() -> transactionService.createTransaction(request, testUser().getId()))
+                .isInstanceOf(AccessDeniedException.class);
+
+        verifyNoInteractions(cardRepository, transactionRepository);
+    }
+
+    @Test
+    void createTransaction_whenIndexHoldsCardAsBlocked_shouldRejectWithoutDatabase() {
+        TransactionRequest request = new TransactionRequest(1L, 2L, 100);
+
+        when(cardOwnerIndex.getOwnerId(1L)).thenReturn(testUser().getId());
+        when(cardOwnerIndex.getOwnerId(2L)).thenReturn(testUser().getId());
+        when(cardStatusIndex.inactiveStatus(1L)).thenReturn(null);
+        when(cardStatusIndex.inactiveStatus(2L)).thenReturn(CardStatus.BLOCKED);
+
+        assertThatThrownBy(() -> transactionService.createTransaction(request, testUser().getId()))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Card with id 2 is blocked");
+
+        verifyNoInteractions(cardRepository, transactionRepository);
+    }
+
+    @Test
+    void createTransaction_whenLoadedCardIsExpired_shouldThrowBadRequestException() {
+        Card one = testCard();
+        one.setStatus(CardStatus.EXPIRED);
+        Card two = testCard();
+        two.setId(2);
+        TransactionRequest request = new TransactionRequest(one.getId(), two.getId(), 100);
+
+        when(cardOwnerIndex.getOwnerId(one.getId())).thenReturn(testUser().getId());
+        when(cardOwnerIndex.getOwnerId(two.getId())).thenReturn(testUser().getId());
+        when(cardRepository.findById(one.getId())).thenReturn(Optional.of(one));
+        when(cardRepository.findById(two.getId())).thenReturn(Optional.of(two));
+
+        assertThatThrownBy(() -> transactionService.createTransaction(request, testUser().getId()))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Card with id 1 is expired");
+
         verifyNoInteractions(transactionRepository);
     }
-}
\ No newline at end of file
+
+    // getCardTransactions
+    @Test
+    void getCardTransactions_shouldReturnPageOfOwnCard() {
+        Card one = testCard();
+        Transaction transaction = new Transaction(1, one, one, 10000, LocalDateTime.now(), TransactionStatus.COMPLETED);
+        TransactionResponse response = TransactionResponse.builder().id(1L).amount(10000).build();
+        Pageable pageable = PageRequest.of(0, 20);
+
+        when(cardOwnerIndex.getOwnerId(one.getId())).thenReturn(testUser().getId());
+        when(transactionRepository.findByCardId(one.getId(), pageable)).thenReturn(new PageImpl<>(List.of(transaction)));
+        when(transactionMapper.toHistoryResponse(transaction)).thenReturn(response);
+
+        Page<TransactionResponse> result = transactionService.getCardTransactions(one.getId(), testUser().getId(), false, pageable);
+
+        assertThat(result.getContent()).containsExactly(response);
+    }
+
+    @Test
+    void getCardTransactions_whenCardOfAnotherUser_shouldThrowAccessDeniedException() {
+        when(cardOwnerIndex.getOwnerId(1L)).thenReturn(9999L);
+
+        assertThatThrownBy(() -> transactionService.getCardTransactions(1L, testUser().getId(), false, PageRequest.of(0, 20)))
+                .isInstanceOf(AccessDeniedException.class);
+
+        verify(transactionRepository, never()).findByCardId(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void getCardTransactions_whenAdmin_shouldSkipOwnershipCheck() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(transactionRepository.findByCardId(1L, pageable)).thenReturn(Page.empty());
+
+        assertThat(transactionService.getCardTransactions(1L, testUser().getId(), true, pageable)).isEmpty();
+
+        verifyNoInteractions(cardOwnerIndex);
+    }
+}
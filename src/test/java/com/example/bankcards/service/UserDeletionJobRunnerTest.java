@@ -0,0 +1,147 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserDeletionJob;
+import com.example.bankcards.entity.UserDeletionJobStatus;
+import com.example.bankcards.event.CardChangedEvent;
+import com.example.bankcards.event.UserDeletedEvent;
+import com.example.bankcards.event.UserDeletionRequestedEvent;
+import com.example.bankcards.repository.UserDeletionJobRepository;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserDeletionJobRunnerTest extends BaseServiceTest {
+
+    @Mock
+    private UserDeletionJobRepository jobRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache cache;
+
+    private UserDeletionJobRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        runner = new UserDeletionJobRunner(jobRepository, jdbcTemplate, transactionManager, entityManagerFactory, eventPublisher, 2);
+    }
+
+    private UserDeletionJob testJob() {
+        return UserDeletionJob.builder()
+                              .id(7L)
+                              .userId(1L)
+                              .status(UserDeletionJobStatus.PENDING)
+                              .build();
+    }
+
+    @Test
+    void onDeletionRequested_shouldDeleteCardsInChunksThenTheUser() throws Exception {
+        when(jobRepository.findById(7L)).thenReturn(Optional.of(testJob()));
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        when(jdbcTemplate.queryForList(UserDeletionJobRunner.CARDS_SQL, Long.class, 1L, 2))
+                .thenReturn(List.of(10L, 11L), List.of(12L), List.of());
+
+        runner.onDeletionRequested(new UserDeletionRequestedEvent(7L));
+
+        // Each chunk is one transaction, and so is removing the user.
+        verify(transactionManager, times(4)).commit(any());
+        verify(jdbcTemplate).update(UserDeletionJobRunner.PROGRESS_SQL, 2, 7L);
+        verify(jdbcTemplate).update(UserDeletionJobRunner.PROGRESS_SQL, 1, 7L);
+        verify(jdbcTemplate, times(2)).update(eq(UserDeletionJobRunner.DELETE_CARDS_SQL), any(PreparedStatementSetter.class));
+
+        var order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).update(UserDeletionJobRunner.DELETE_USER_BLOCK_REQUESTS_SQL, 1L);
+        order.verify(jdbcTemplate).update(UserDeletionJobRunner.RELEASE_PROCESSED_SQL, 1L);
+        order.verify(jdbcTemplate).update(UserDeletionJobRunner.DELETE_USER_SQL, 1L);
+        order.verify(jdbcTemplate).update(UserDeletionJobRunner.FINISH_SQL, "COMPLETED", null, 7L);
+
+        verify(cache).evict(Card.class, 10L);
+        verify(cache).evict(Card.class, 12L);
+        verify(cache).evict(User.class, 1L);
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(4)).publishEvent(events.capture());
+        assertThat(events.getAllValues()).filteredOn(CardChangedEvent.class::isInstance)
+                                         .extracting(event -> ((CardChangedEvent) event).getCardId())
+                                         .containsExactly(10L, 11L, 12L);
+        assertThat(events.getAllValues().get(3)).isInstanceOf(UserDeletedEvent.class);
+    }
+
+    @Test
+    void run_shouldBindCardIdsAsOneArrayToEveryParameter() throws Exception {
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        when(jdbcTemplate.queryForList(UserDeletionJobRunner.CARDS_SQL, Long.class, 1L, 2))
+                .thenReturn(List.of(10L, 11L), List.of());
+
+        runner.run(testJob());
+
+        ArgumentCaptor<PreparedStatementSetter> setter = ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        verify(jdbcTemplate).update(eq(UserDeletionJobRunner.DELETE_TRANSACTIONS_SQL), setter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        Connection connection = mock(Connection.class);
+        Array array = mock(Array.class);
+        when(ps.getConnection()).thenReturn(connection);
+        when(connection.createArrayOf("bigint", new Object[]{10L, 11L})).thenReturn(array);
+
+        setter.getValue().setValues(ps);
+
+        verify(ps).setArray(1, array);
+        verify(ps).setArray(2, array);
+    }
+
+    @Test
+    void run_whenChunkFails_shouldMarkJobFailedAndKeepUser() {
+        when(jdbcTemplate.queryForList(UserDeletionJobRunner.CARDS_SQL, Long.class, 1L, 2))
+                .thenThrow(new QueryTimeoutException("lock timeout"));
+
+        assertThatNoException().isThrownBy(() -> runner.run(testJob()));
+
+        verify(transactionManager).rollback(any());
+        verify(jdbcTemplate).update(UserDeletionJobRunner.FINISH_SQL, "FAILED", "lock timeout", 7L);
+        verify(jdbcTemplate, never()).update(UserDeletionJobRunner.DELETE_USER_SQL, 1L);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void resumeUnfinished_shouldRunJobsLeftPendingOrRunning() {
+        UserDeletionJob job = testJob();
+        job.setStatus(UserDeletionJobStatus.RUNNING);
+        when(jobRepository.findByStatusIn(UserDeletionService.UNFINISHED)).thenReturn(List.of(job));
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        when(jdbcTemplate.queryForList(UserDeletionJobRunner.CARDS_SQL, Long.class, 1L, 2)).thenReturn(List.of());
+
+        runner.resumeUnfinished();
+
+        verify(jdbcTemplate).update(UserDeletionJobRunner.DELETE_USER_SQL, 1L);
+        verify(eventPublisher).publishEvent(any(UserDeletedEvent.class));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.UserDeletionJobResponse;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserDeletionJob;
+import com.example.bankcards.entity.UserDeletionJobStatus;
+import com.example.bankcards.entity.UserStatus;
+import com.example.bankcards.event.UserDeletionRequestedEvent;
+import com.example.bankcards.exception.NotFoundException;
+import com.example.bankcards.repository.UserDeletionJobRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserDeletionServiceTest extends BaseServiceTest {
+
+    @Mock
+    private UserDeletionJobRepository jobRepository;
+
+    @InjectMocks
+    private UserDeletionService userDeletionService;
+
+    // deleteUser
+    @Test
+    void deleteUser_shouldDeactivateUserAndScheduleJob() {
+        User user = testUser();
+
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(jobRepository.findFirstByUserIdAndStatusIn(user.getId(), UserDeletionService.UNFINISHED))
+                .thenReturn(Optional.empty());
+        when(jobRepository.save(any(UserDeletionJob.class))).thenAnswer(invocation -> {
+            UserDeletionJob job = invocation.getArgument(0);
+            job.setId(7L);
+            return job;
+        });
+
+        UserDeletionJobResponse response = userDeletionService.deleteUser(user.getId());
+
+        assertThat(response.getId()).isEqualTo(7L);
+        assertThat(response.getUserId()).isEqualTo(user.getId());
+        assertThat(response.getStatus()).isEqualTo(UserDeletionJobStatus.PENDING);
+        assertThat(user.getStatus()).isEqualTo(UserStatus.INACTIVE);
+
+        ArgumentCaptor<UserDeletionRequestedEvent> event = ArgumentCaptor.forClass(UserDeletionRequestedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getJobId()).isEqualTo(7L);
+        verify(userRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void deleteUser_whenJobUnfinished_shouldReturnItWithoutSchedulingAnother() {
+        User user = testUser();
+        UserDeletionJob running = UserDeletionJob.builder()
+                                                 .id(5L)
+                                                 .userId(user.getId())
+                                                 .status(UserDeletionJobStatus.RUNNING)
+                                                 .cardsDeleted(300)
+                                                 .build();
+
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(jobRepository.findFirstByUserIdAndStatusIn(user.getId(), UserDeletionService.UNFINISHED))
+                .thenReturn(Optional.of(running));
+
+        UserDeletionJobResponse response = userDeletionService.deleteUser(user.getId());
+
+        assertThat(response.getId()).isEqualTo(5L);
+        assertThat(response.getCardsDeleted()).isEqualTo(300);
+        verify(jobRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void deleteUser_whenUserNotFound_shouldThrowNotFoundException() {
+        long nonExistingUserId = 9999L;
+
+        when(userRepository.findById(nonExistingUserId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userDeletionService.deleteUser(nonExistingUserId))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("Not found user with id: " + nonExistingUserId);
+
+        verifyNoInteractions(jobRepository, eventPublisher);
+    }
+
+    // getJob
+    @Test
+    void getJob_whenJobNotFound_shouldThrowNotFoundException() {
+        when(jobRepository.findById(eq(9999L))).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userDeletionService.getJob(9999L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("Not found user deletion job with id: 9999");
+    }
+}
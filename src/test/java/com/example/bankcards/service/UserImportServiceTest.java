@@ -0,0 +1,159 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.UserImportResult;
+import com.example.bankcards.exception.BadRequestException;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserImportServiceTest extends BaseServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Validator validator;
+
+    private UserImportService userImportService;
+
+    @BeforeEach
+    void setUp() {
+        userImportService = new UserImportService(
+                userRepository, passwordEncoder, jdbcTemplate, transactionManager, Jackson2ObjectMapperBuilder.json().build(), validator);
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importUsers_fromCsv_shouldBatchInsertValidRows() {
+        String csv = """
+                name,email,password,role
+                Ivan,ivan@example.com,secret,USER
+                "Petrov, Petr",petr@example.com,"pa""ss",ADMIN
+                """;
+
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+
+        UserImportResult result = userImportService.importUsers(body(csv), UserImportService.CSV);
+
+        assertThat(result.getProcessed()).isEqualTo(2);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isZero();
+
+        verify(userRepository, times(1)).findExistingEmails(anyCollection());
+        verify(passwordEncoder).encode("pa\"ss");
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void importUsers_fromNdjson_shouldReportDuplicatesAndMalformedRows() {
+        String ndjson = """
+                {"name":"Ivan","email":"ivan@example.com","password":"secret","role":"USER"}
+                {"name":"Ivan","email":"ivan@example.com","password":"secret","role":"USER"}
+                {"name":"Old","email":"old@example.com","password":"secret","role":"USER"}
+                not json
+                {"name":"","email":"empty@example.com","password":"secret","role":"USER"}
+                """;
+
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of("old@example.com"));
+        when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+
+        UserImportResult result = userImportService.importUsers(body(ndjson), UserImportService.NDJSON);
+
+        assertThat(result.getProcessed()).isEqualTo(5);
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(result.getErrors())
+                .extracting("line", "message")
+                .containsExactlyInAnyOrder(
+                        tuple(2L, "User with this email already exists"),
+                        tuple(3L, "User with this email already exists"),
+                        tuple(4L, "Malformed row"),
+                        tuple(5L, "Name is required"));
+    }
+
+    @Test
+    void importUsers_whenBatchConflicts_shouldRetryRowByRow() {
+        String csv = """
+                Ivan,ivan@example.com,secret,USER
+                Petr,petr@example.com,secret,USER
+                """;
+
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenThrow(new DuplicateKeyException("duplicate"))
+                .thenReturn(new int[]{1})
+                .thenThrow(new DuplicateKeyException("duplicate"));
+
+        UserImportResult result = userImportService.importUsers(body(csv), UserImportService.CSV);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors()).singleElement()
+                .satisfies(error -> {
+                    assertThat(error.getEmail()).isEqualTo("petr@example.com");
+                    assertThat(error.getMessage()).isEqualTo("User with this email already exists");
+                });
+    }
+
+    @Test
+    void importUsers_whenRowFailsForOtherReason_shouldReportActualCause() {
+        String csv = """
+                Ivan,ivan@example.com,secret,USER
+                Petr,petr@example.com,secret,USER
+                """;
+        SQLException cause = new SQLException("value too long for type character varying(255)");
+
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("batch", cause))
+                .thenReturn(new int[]{1})
+                .thenThrow(new DataIntegrityViolationException("row", cause));
+
+        UserImportResult result = userImportService.importUsers(body(csv), UserImportService.CSV);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).singleElement()
+                .satisfies(error -> {
+                    assertThat(error.getEmail()).isEqualTo("petr@example.com");
+                    assertThat(error.getMessage()).isEqualTo("User could not be saved: " + cause.getMessage());
+                });
+    }
+
+    @Test
+    void importUsers_withUnsupportedContentType_shouldThrowBadRequestException() {
+        assertThatThrownBy(() -> userImportService.importUsers(body("[]"), "application/json"))
+                .isInstanceOf(BadRequestException.class);
+
+        verifyNoInteractions(userRepository, jdbcTemplate);
+    }
+}
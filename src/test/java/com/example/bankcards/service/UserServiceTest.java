@@ -1,17 +1,23 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.UserCardSummaryResponse;
 import com.example.bankcards.dto.UserCreateRequest;
 import com.example.bankcards.dto.UserResponse;
 import com.example.bankcards.dto.UserUpdateRequest;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserCardSummary;
+import com.example.bankcards.exception.AccessDeniedException;
 import com.example.bankcards.exception.ConflictException;
 import com.example.bankcards.exception.NotFoundException;
 import com.example.bankcards.entity.UserRole;
 import com.example.bankcards.entity.UserStatus;
+import com.example.bankcards.event.UserUpdatedEvent;
+import com.example.bankcards.repository.UserCardSummaryRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -30,6 +36,9 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 public class UserServiceTest extends BaseServiceTest {
 
+    @Mock
+    private UserCardSummaryRepository userCardSummaryRepository;
+
     @InjectMocks
     private UserService userService;
 
@@ -151,7 +160,6 @@ public class UserServiceTest extends BaseServiceTest {
                 .password("encodedPassword")
                 .role(UserRole.ADMIN)
                 .status(UserStatus.ACTIVE)
-                .cards(List.of())
                 .build();
         UserUpdateRequest request = testUserUpdateRequest();
         UserResponse response = new UserResponse(1L, "Ivan", "new@example.com");
@@ -166,6 +174,7 @@ public class UserServiceTest extends BaseServiceTest {
 
         verify(userRepository).save(any(User.class));
         verify(userMapper).toUserResponse(user);
+        verify(eventPublisher).publishEvent(argThat((UserUpdatedEvent event) -> event.getUserId() == 1L));
     }
 
     @Test
@@ -181,31 +190,57 @@ public class UserServiceTest extends BaseServiceTest {
         verify(userRepository).findById(nonExistingUserId);
     }
 
-    // deleteUserById
+    // getCardSummary
     @Test
-    void deleteUserById_shouldCallRepositoryDelete() {
-        User user = testUser();
-        Long id = user.getId();
+    void getCardSummary_shouldReturnSummaryRow() {
+        UserCardSummary summary = UserCardSummary.builder()
+                                                 .userId(1L)
+                                                 .cardCount(30_000)
+                                                 .activeCards(29_000)
+                                                 .blockedCards(600)
+                                                 .expiredCards(400)
+                                                 .totalBalance(123_456_789L)
+                                                 .build();
+        when(userCardSummaryRepository.findById(1L)).thenReturn(Optional.of(summary));
+
+        UserCardSummaryResponse result = userService.getCardSummary(1L, 1L, false);
+
+        assertThat(result.getCardCount()).isEqualTo(30_000);
+        assertThat(result.getActiveCards()).isEqualTo(29_000);
+        assertThat(result.getInactiveCards()).isZero();
+        assertThat(result.getBlockedCards()).isEqualTo(600);
+        assertThat(result.getExpiredCards()).isEqualTo(400);
+        assertThat(result.getTotalBalance()).isEqualTo(123_456_789L);
+        verify(userRepository, never()).existsById(any());
+    }
 
-        when(userRepository.findById(id)).thenReturn(Optional.of(user));
-        doNothing().when(userRepository).deleteById(id);
+    @Test
+    void getCardSummary_whenUserHasNoCards_shouldReturnZeros() {
+        when(userCardSummaryRepository.findById(2L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(2L)).thenReturn(true);
 
-        assertThatNoException().isThrownBy(() -> userService.deleteUserById(id));
+        UserCardSummaryResponse result = userService.getCardSummary(2L, 1L, true);
 
-        verify(userRepository, times(1)).findById(id);
-        verify(userRepository, times(1)).deleteById(id);
+        assertThat(result.getUserId()).isEqualTo(2L);
+        assertThat(result.getCardCount()).isZero();
+        assertThat(result.getTotalBalance()).isZero();
     }
 
     @Test
-    void deleteUserById_whenUserNotFound_shouldThrowNotFoundException() {
-        long nonExistingUserId = 9999L;
+    void getCardSummary_whenUserNotFound_shouldThrowNotFoundException() {
+        when(userCardSummaryRepository.findById(9999L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(9999L)).thenReturn(false);
 
-        when(userRepository.findById(nonExistingUserId)).thenReturn(Optional.empty());
-
-        assertThatThrownBy(() -> userService.deleteUserById(nonExistingUserId))
+        assertThatThrownBy(() -> userService.getCardSummary(9999L, 1L, true))
                 .isInstanceOf(NotFoundException.class)
-                .hasMessage("Not found user with id: " + nonExistingUserId);
+                .hasMessage("Not found user with id: 9999");
+    }
+
+    @Test
+    void getCardSummary_ofAnotherUser_shouldThrowAccessDeniedException() {
+        assertThatThrownBy(() -> userService.getCardSummary(2L, 1L, false))
+                .isInstanceOf(AccessDeniedException.class);
 
-        verify(userRepository, times(1)).findById(nonExistingUserId);
+        verifyNoInteractions(userCardSummaryRepository);
     }
 }
@@ -0,0 +1,54 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class CardNumberCipherTest {
+
+    private final CardNumberCipher cipher = new CardNumberCipher(
+            "RhQVgeLx22qhuZon/HvcbGS8hHa46YJl6Zr0PbvYJ18=", "LK+WhX37hTHoCze/VUvOHolFB5oj5HFGFs6UgMDEG8I=");
+
+    @Test
+    void encrypt_shouldRoundTripWithAFreshIvEveryTime() {
+        String first = cipher.encrypt("4000 0000 0000 0416");
+        String second = cipher.encrypt("4000 0000 0000 0416");
+
+        assertThat(first).startsWith(CardNumberCipher.PREFIX).doesNotContain("0416").isNotEqualTo(second);
+        assertThat(cipher.decrypt(first)).isEqualTo("4000 0000 0000 0416");
+        assertThat(cipher.decrypt(second)).isEqualTo("4000 0000 0000 0416");
+    }
+
+    @Test
+    void decrypt_shouldPassThroughNumbersWrittenBeforeEncryption() {
+        assertThat(cipher.decrypt("4000000000000416")).isEqualTo("4000000000000416");
+        assertThat(cipher.decrypt(null)).isNull();
+    }
+
+    @Test
+    void decrypt_whenCiphertextTampered_shouldFail() {
+        String sealed = cipher.encrypt("4000 0000 0000 0416");
+        int at = CardNumberCipher.PREFIX.length() + 20;
+        String tampered = sealed.substring(0, at) + (sealed.charAt(at) == 'A' ? 'B' : 'A') + sealed.substring(at + 1);
+
+        assertThatThrownBy(() -> cipher.decrypt(tampered)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void blindIndex_shouldIgnoreFormattingAndDependOnKey() {
+        CardNumberCipher otherKey = new CardNumberCipher(
+                "RhQVgeLx22qhuZon/HvcbGS8hHa46YJl6Zr0PbvYJ18=", "7JxZHf2hv5zXoH7Gx0qQ0m0vJ4l9p0bJ3m5YH1x0l2M=");
+
+        assertThat(cipher.blindIndex("4000 0000 0000 0416"))
+                .hasSize(64)
+                .isEqualTo(cipher.blindIndex("4000000000000416"))
+                .isNotEqualTo(cipher.blindIndex("4000000000000424"))
+                .isNotEqualTo(otherKey.blindIndex("4000000000000416"));
+    }
+
+    @Test
+    void constructor_whenKeyHasWrongLength_shouldFail() {
+        assertThatThrownBy(() -> new CardNumberCipher("c2hvcnQ=", "LK+WhX37hTHoCze/VUvOHolFB5oj5HFGFs6UgMDEG8I="))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}